@@ -0,0 +1,102 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Детерминированные сущности для бенчмарков маппинга и сериализации
+public class BenchmarkData {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Пользователь " + id);
+        user.setEmail("user" + id + "@mail.ru");
+        return user;
+    }
+
+    public static Item item(long id, User owner) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName("Вещь " + id);
+        item.setDescription("Описание вещи номер " + id);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        return item;
+    }
+
+    public static Booking booking(long id, Item item, User booker) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStart(START.plusDays(id));
+        booking.setEnd(START.plusDays(id + 1));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+
+    public static Comment comment(long id, Item item, User author) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setText("Отзыв " + id);
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setCreated(START.plusHours(id));
+        return comment;
+    }
+
+    public static ItemRequest itemRequest(long id, User requester) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(id);
+        itemRequest.setDescription("Нужна вещь для запроса " + id);
+        itemRequest.setRequester(requester);
+        itemRequest.setCreated(Instant.parse("2023-01-01T12:00:00Z").plusSeconds(id));
+        return itemRequest;
+    }
+
+    public static List<Booking> bookings(int count) {
+        User owner = user(1L);
+        User booker = user(2L);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            bookings.add(booking(id, item(id, owner), booker));
+        }
+        return bookings;
+    }
+
+    public static List<Comment> comments(Item item, int count) {
+        User author = user(2L);
+        List<Comment> comments = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            comments.add(comment(id, item, author));
+        }
+        return comments;
+    }
+
+    // Вещи-ответы, поровну распределённые между запросами
+    public static List<Item> answers(List<ItemRequest> itemRequests, int itemsPerRequest) {
+        User owner = user(1L);
+        List<Item> items = new ArrayList<>(itemRequests.size() * itemsPerRequest);
+        long id = 1;
+        for (ItemRequest itemRequest : itemRequests) {
+            for (int i = 0; i < itemsPerRequest; i++) {
+                Item item = item(id++, owner);
+                item.setRequest(itemRequest);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+}
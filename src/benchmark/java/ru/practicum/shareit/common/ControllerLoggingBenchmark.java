@@ -0,0 +1,73 @@
+package ru.practicum.shareit.common;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Цена строки журнала в контроллере при уровне INFO, как в продакшене: раньше ответ целиком
+// склеивался в строку ещё до вызова логгера, теперь на INFO не пишется ничего, кроме журнала запросов
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerLoggingBenchmark {
+
+    private static final Logger log = (Logger) LoggerFactory.getLogger(ControllerLoggingBenchmark.class);
+
+    @Param({"10", "100"})
+    private int size;
+
+    private Long userId = 1L;
+    private List<ItemDto> items;
+
+    @Setup
+    public void setUp() {
+        // Событие доходит до логгера, но не до консоли: меряется подготовка строки, а не вывод
+        log.setLevel(Level.INFO);
+        log.setAdditive(false);
+
+        User owner = BenchmarkData.user(userId);
+        items = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Item item = BenchmarkData.item(id, owner);
+            items.add(ItemMapper.INSTANCE.toItemOwnerDto(item,
+                    BenchmarkData.booking(id, item, BenchmarkData.user(2L)),
+                    null,
+                    BenchmarkData.comments(item, 3)));
+        }
+    }
+
+    @Benchmark
+    public void concatenatedResponse() {
+        log.info("Ответ на получение всех вещей для пользователя с id = " + userId + ": " + items);
+    }
+
+    @Benchmark
+    public void countWithTracedResponse() {
+        log.debug("Получен список вещей пользователя с id = {}, количество = {}.", userId, items.size());
+        log.trace("Вещи пользователя с id = {}: {}", userId, items);
+    }
+
+}
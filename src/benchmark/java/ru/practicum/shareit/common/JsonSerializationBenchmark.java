@@ -0,0 +1,70 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private ItemOwnerDto itemOwnerDto;
+    private List<BookingResponseDto> bookings;
+
+    @Setup
+    public void setUp() {
+        // Тот же набор модулей (java.time и др.), что и у ObjectMapper приложения
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+
+        User owner = BenchmarkData.user(1L);
+        User booker = BenchmarkData.user(2L);
+        Item item = BenchmarkData.item(1L, owner);
+        itemOwnerDto = ItemMapper.INSTANCE.toItemOwnerDto(item,
+                BenchmarkData.booking(1L, item, booker),
+                BenchmarkData.booking(2L, item, booker),
+                BenchmarkData.comments(item, size));
+        bookings = BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(BenchmarkData.bookings(size));
+    }
+
+    @Benchmark
+    public byte[] writeItemOwnerDto() throws JsonProcessingException {
+        return writer.writeValueAsBytes(itemOwnerDto);
+    }
+
+    @Benchmark
+    public byte[] writeBookingResponseDtos() throws JsonProcessingException {
+        return writer.writeValueAsBytes(bookings);
+    }
+
+}
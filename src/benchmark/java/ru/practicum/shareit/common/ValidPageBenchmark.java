@@ -0,0 +1,47 @@
+package ru.practicum.shareit.common;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.common.utils.ValidPage;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidPageBenchmark {
+
+    // Поля, а не константы, чтобы JIT не свернул вычисление страницы
+    private Integer from = 20;
+    private Integer size = 10;
+    private Integer invalidFrom = -1;
+
+    @Benchmark
+    public PageRequest validate() {
+        return ValidPage.validate(from, size);
+    }
+
+    // Цена отказа: исключение создаётся без стека вызовов, поэтому стоит почти как успешная проверка
+    @Benchmark
+    public ValidationException validateInvalid() {
+        try {
+            ValidPage.validate(invalidFrom, size);
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+}
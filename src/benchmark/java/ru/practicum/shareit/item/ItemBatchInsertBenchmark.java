@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Создание size вещей одним POST /items/batch против size отдельных POST /items
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemBatchInsertBenchmark {
+
+    private static final long OWNER_ID = 1L;
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private JdbcTemplate jdbcTemplate;
+    private List<ItemDto> items;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:batch-benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, ?, ?)",
+                OWNER_ID, "Владелец", "owner@mail.ru");
+
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ItemDto itemDto = new ItemDto();
+            itemDto.setName("Вещь " + i);
+            itemDto.setDescription("Описание вещи " + i);
+            itemDto.setAvailable(true);
+            items.add(itemDto);
+        }
+    }
+
+    // Таблица не должна расти от итерации к итерации, иначе замеры несравнимы
+    @TearDown(Level.Iteration)
+    public void deleteItems() {
+        jdbcTemplate.update("delete from items");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> createItems() {
+        return itemService.createItems(items, OWNER_ID);
+    }
+
+    @Benchmark
+    public List<ItemDto> createItemsOneByOne() {
+        List<ItemDto> createdItems = new ArrayList<>(items.size());
+        for (ItemDto itemDto : items) {
+            createdItems.add(itemService.createItem(itemDto, OWNER_ID));
+        }
+        return createdItems;
+    }
+
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMapperBenchmark {
+
+    @Param({"0", "10", "100"})
+    private int comments;
+
+    private Item item;
+    private Booking lastBooking;
+    private Booking nextBooking;
+    private List<Comment> itemComments;
+
+    @Setup
+    public void setUp() {
+        User owner = BenchmarkData.user(1L);
+        User booker = BenchmarkData.user(2L);
+        item = BenchmarkData.item(1L, owner);
+        lastBooking = BenchmarkData.booking(1L, item, booker);
+        nextBooking = BenchmarkData.booking(2L, item, booker);
+        itemComments = BenchmarkData.comments(item, comments);
+    }
+
+    @Benchmark
+    public ItemOwnerDto toItemOwnerDto() {
+        return ItemMapper.INSTANCE.toItemOwnerDto(item, lastBooking, nextBooking, itemComments);
+    }
+
+}
@@ -0,0 +1,247 @@
+package ru.practicum.shareit.load;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Random;
+import javax.sql.DataSource;
+
+/**
+ * Заполняет пустую схему (H2 или PostgreSQL) синтетическими данными по DatasetSpec.
+ * Пишет напрямую через JDBC пакетами, минуя JPA, и назначает id сам: при одном и том же
+ * seed и anchor получается один и тот же набор строк. После загрузки последовательности id
+ * сдвигаются за последние записанные значения, чтобы приложение могло добавлять свои записи.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final String[] TABLES = {"users", "requests", "items", "bookings", "comments"};
+    private static final String[] THINGS = {"Дрель", "Палатка", "Велосипед", "Самокат", "Перфоратор",
+            "Лестница", "Байдарка", "Проектор", "Гитара", "Лобзик", "Шуруповёрт", "Спальник"};
+    private static final String[] ADJECTIVES = {"аккумуляторная", "туристическая", "складная", "мощная",
+            "лёгкая", "детская", "профессиональная", "компактная"};
+
+    private final DataSource dataSource;
+
+    public void generate(DatasetSpec spec) throws SQLException {
+        spec.validate();
+        try (Connection connection = dataSource.getConnection()) {
+            checkEmpty(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long started = System.nanoTime();
+                insertUsers(connection, spec);
+                insertRequests(connection, spec);
+                insertItems(connection, spec);
+                insertBookings(connection, spec);
+                insertComments(connection, spec);
+                insertItemBookingSummaries(connection);
+                restartIdentities(connection);
+                connection.commit();
+                log.info("Сгенерировано пользователей: {}, запросов: {}, вещей: {}, бронирований: {}, отзывов: {} "
+                                + "за {} мс.", spec.getUsers(), spec.getRequests(), spec.getItemCount(),
+                        spec.getBookingCount(), spec.getCommentCount(), (System.nanoTime() - started) / 1_000_000);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void checkEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*) from users")) {
+            resultSet.next();
+            if (resultSet.getLong(1) > 0) {
+                throw new IllegalStateException("Генератор заполняет только пустую базу, а в users уже есть записи.");
+            }
+        }
+    }
+
+    private void insertUsers(Connection connection, DatasetSpec spec) throws SQLException {
+        try (Batch batch = new Batch(connection, "insert into users (id, name, email) values (?, ?, ?)")) {
+            for (long id = 1; id <= spec.getUsers(); id++) {
+                batch.add(id, "Пользователь " + id, "user" + id + "@shareit.load");
+            }
+        }
+    }
+
+    private void insertRequests(Connection connection, DatasetSpec spec) throws SQLException {
+        Random random = new Random(spec.getSeed());
+        try (Batch batch = new Batch(connection,
+                "insert into requests (id, description, requester_id, created) values (?, ?, ?, ?)")) {
+            for (long id = 1; id <= spec.getRequests(); id++) {
+                batch.add(id, "Нужна " + thing(random) + " на выходные",
+                        randomUser(random, spec),
+                        Timestamp.valueOf(spec.getAnchor().minusMinutes(spec.getRequests() - id)));
+            }
+        }
+    }
+
+    private void insertItems(Connection connection, DatasetSpec spec) throws SQLException {
+        Random random = new Random(spec.getSeed() + 1);
+        try (Batch batch = new Batch(connection, "insert into items "
+                + "(id, name, description, is_available, owner_id, request_id) values (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= spec.getItemCount(); id++) {
+                String thing = thing(random);
+                Long requestId = random.nextDouble() < spec.getAnsweredShare()
+                        ? 1L + random.nextInt(spec.getRequests())
+                        : null;
+                batch.add(id, thing, thing + " в хорошем состоянии, вещь номер " + id,
+                        random.nextInt(10) > 0, spec.getOwnerOfItem(id), requestId);
+            }
+        }
+    }
+
+    // Бронирования одной вещи идут друг за другом без пересечений: половина в прошлом, половина в будущем
+    private void insertBookings(Connection connection, DatasetSpec spec) throws SQLException {
+        Random random = new Random(spec.getSeed() + 2);
+        try (Batch batch = new Batch(connection, "insert into bookings "
+                + "(id, start_date, end_date, item_id, booker_id, status) values (?, ?, ?, ?, ?, ?)")) {
+            long id = 1;
+            for (long itemId = 1; itemId <= spec.getItemCount(); itemId++) {
+                int count = itemId == 1 ? spec.getHotItemBookings() : spec.getBookingsPerItem();
+                LocalDateTime start = spec.getAnchor().minusHours(12L * count);
+                for (int i = 0; i < count; i++) {
+                    LocalDateTime end = start.plusHours(6 + random.nextInt(6));
+                    batch.add(id++, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId,
+                            randomBooker(random, spec), status(random));
+                    start = start.plusHours(12);
+                }
+            }
+        }
+    }
+
+    private void insertComments(Connection connection, DatasetSpec spec) throws SQLException {
+        Random random = new Random(spec.getSeed() + 3);
+        try (Batch batch = new Batch(connection,
+                "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)")) {
+            long id = 1;
+            for (long itemId = 1; itemId <= spec.getItemCount(); itemId++) {
+                int count = itemId == 1 ? spec.getHotItemComments() : spec.getCommentsPerItem();
+                for (int i = 0; i < count; i++) {
+                    batch.add(id++, "Отзыв " + (i + 1) + ": всё работает, рекомендую", itemId,
+                            randomBooker(random, spec),
+                            Timestamp.valueOf(spec.getAnchor().minusMinutes(count - i)));
+                }
+            }
+        }
+    }
+
+    // Как в V6: сводки бронирований собираются при первом чтении ленты владельца
+    private void insertItemBookingSummaries(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("insert into item_booking_summary "
+                + "(item_id, refresh_after, version) select id, ?, 0 from items")) {
+            statement.setTimestamp(1, Timestamp.valueOf(ItemBookingSummaryService.STALE));
+            statement.executeUpdate();
+        }
+    }
+
+    // Приложение берёт id из последовательностей <table>_seq пулами по ID_ALLOCATION_SIZE (см. V5),
+    // а identity-колонки сдвигаются для вставок в обход JPA
+    private void restartIdentities(Connection connection) throws SQLException {
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                long maxId = maxId(statement, table);
+                if (postgres) {
+                    statement.execute("select setval(pg_get_serial_sequence('" + table + "', 'id'), " + (maxId + 1)
+                            + ", false)");
+                    statement.execute("select setval('" + table + "_seq', " + (maxId + ID_ALLOCATION_SIZE)
+                            + ", false)");
+                } else {
+                    statement.execute("alter table " + table + " alter column id restart with " + (maxId + 1));
+                    statement.execute("alter sequence " + table + "_seq restart with " + (maxId + ID_ALLOCATION_SIZE));
+                }
+            }
+        }
+    }
+
+    private long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private String thing(Random random) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + THINGS[random.nextInt(THINGS.length)]
+                .toLowerCase();
+    }
+
+    private long randomUser(Random random, DatasetSpec spec) {
+        return 1L + random.nextInt(spec.getUsers());
+    }
+
+    // Арендаторы - пользователи без вещей, поэтому никто не бронирует собственную вещь
+    private long randomBooker(Random random, DatasetSpec spec) {
+        return spec.getOwners() + 1L + random.nextInt(spec.getUsers() - spec.getOwners());
+    }
+
+    private String status(Random random) {
+        int value = random.nextInt(10);
+        if (value < 7) {
+            return "APPROVED";
+        }
+        return value < 9 ? "WAITING" : "REJECTED";
+    }
+
+    // Пакетная вставка: выполняется каждые BATCH_SIZE строк и при закрытии
+    private static class Batch implements AutoCloseable {
+
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(Connection connection, String sql) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                // Единственная необязательная колонка - items.request_id
+                if (values[i] == null) {
+                    statement.setNull(i + 1, Types.BIGINT);
+                } else {
+                    statement.setObject(i + 1, values[i]);
+                }
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.load;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Размеры синтетического набора данных. Идентификаторы назначаются генератором подряд,
+ * поэтому по спецификации однозначно вычисляются владельцы, их вещи и диапазоны id,
+ * которыми пользуется LoadDriver.
+ * Пользователь 1 - "крупный" владелец с hotOwnerItems вещами, первая из которых
+ * забронирована hotItemBookings раз и обсуждается в hotItemComments отзывах.
+ */
+@Getter
+@Builder
+public class DatasetSpec {
+
+    @Builder.Default
+    private final long seed = 42L;
+    @Builder.Default
+    private final int users = 1000;
+    @Builder.Default
+    private final int owners = 50;
+    @Builder.Default
+    private final int itemsPerOwner = 100;
+    @Builder.Default
+    private final int hotOwnerItems = 5000;
+    @Builder.Default
+    private final int bookingsPerItem = 20;
+    @Builder.Default
+    private final int hotItemBookings = 20000;
+    @Builder.Default
+    private final int commentsPerItem = 5;
+    @Builder.Default
+    private final int hotItemComments = 2000;
+    @Builder.Default
+    private final int requests = 2000;
+    // Доля вещей, созданных в ответ на запрос
+    @Builder.Default
+    private final double answeredShare = 0.1;
+    // Половина бронирований каждой вещи заканчивается до этого момента, половина начинается после
+    @Builder.Default
+    private final LocalDateTime anchor = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    // scale умножает все количества, кроме числа владельцев и "горячих" значений
+    public static DatasetSpec of(Map<String, String> options) {
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1"));
+        DatasetSpecBuilder builder = DatasetSpec.builder()
+                .users(scaled(1000, scale))
+                .itemsPerOwner(scaled(100, scale))
+                .requests(scaled(2000, scale));
+        if (options.containsKey("seed")) {
+            builder.seed(Long.parseLong(options.get("seed")));
+        }
+        if (options.containsKey("owners")) {
+            builder.owners(Integer.parseInt(options.get("owners")));
+        }
+        if (options.containsKey("hot-owner-items")) {
+            builder.hotOwnerItems(Integer.parseInt(options.get("hot-owner-items")));
+        }
+        if (options.containsKey("hot-item-bookings")) {
+            builder.hotItemBookings(Integer.parseInt(options.get("hot-item-bookings")));
+        }
+        return builder.build();
+    }
+
+    public long getItemCount() {
+        return hotOwnerItems + (long) (owners - 1) * itemsPerOwner;
+    }
+
+    public long getBookingCount() {
+        return hotItemBookings + (getItemCount() - 1) * bookingsPerItem;
+    }
+
+    public long getCommentCount() {
+        return hotItemComments + (getItemCount() - 1) * commentsPerItem;
+    }
+
+    public boolean isOwner(long userId) {
+        return userId <= owners;
+    }
+
+    public long getOwnerOfItem(long itemId) {
+        if (itemId <= hotOwnerItems) {
+            return 1L;
+        }
+        return 2L + (itemId - hotOwnerItems - 1) / itemsPerOwner;
+    }
+
+    public int getItemCountOfOwner(long ownerId) {
+        return ownerId == 1L ? hotOwnerItems : itemsPerOwner;
+    }
+
+    public long getFirstItemOfOwner(long ownerId) {
+        return ownerId == 1L ? 1L : hotOwnerItems + (ownerId - 2) * itemsPerOwner + 1;
+    }
+
+    public void validate() {
+        if (owners < 1 || users <= owners) {
+            throw new IllegalArgumentException("Пользователей должно быть больше, чем владельцев.");
+        }
+        if (hotOwnerItems < 1 || itemsPerOwner < 1 || requests < 1) {
+            throw new IllegalArgumentException("У каждого владельца должна быть хотя бы одна вещь.");
+        }
+    }
+
+    private static int scaled(int value, double scale) {
+        return Math.max(1, (int) Math.round(value * scale));
+    }
+
+}
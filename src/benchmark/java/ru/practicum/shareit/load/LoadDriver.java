@@ -0,0 +1,217 @@
+package ru.practicum.shareit.load;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.common.utils.Constants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Нагрузка на REST API: threads потоков без пауз выполняют вызовы, выбранные случайно
+ * с заданными весами, сначала warmup без замеров, затем duration с замерами.
+ * Пользователи, вещи и запросы для вызовов выбираются из набора, описанного DatasetSpec.
+ */
+@Slf4j
+public class LoadDriver {
+
+    private static final String[] SEARCH_WORDS = {"дрель", "палатка", "велосипед", "самокат", "складная",
+            "лестница", "проектор", "гитара", "компактная", "спальник"};
+
+    private final String baseUrl;
+    private final DatasetSpec spec;
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadDriver(String baseUrl, DatasetSpec spec) {
+        this.baseUrl = baseUrl;
+        this.spec = spec;
+        defaultMix();
+    }
+
+    public LoadReport run(int threads, Duration warmup, Duration duration) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        List<Worker> workers = new ArrayList<>(threads);
+        CountDownLatch finished = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(new Random(spec.getSeed() + i), warmupEnd, end, finished);
+            workers.add(worker);
+            new Thread(worker, "load-" + i).start();
+        }
+        log.info("Нагрузка: {} потоков, прогрев {} с, замер {} с.", threads, warmup.getSeconds(), duration.getSeconds());
+        finished.await();
+
+        LoadReport report = new LoadReport(duration);
+        for (Operation operation : operations) {
+            report.add(operation.name);
+        }
+        workers.forEach(worker -> worker.results.forEach(report::merge));
+        return report;
+    }
+
+    // Примерное соотношение вызовов: чтение лент и карточек заметно чаще записи
+    private void defaultMix() {
+        add("GET /items", 15, random -> Call.get("/items?from=0&size=20", randomOwner(random)));
+        add("GET /items/{id}", 20, random -> Call.get("/items/" + randomItem(random), randomUser(random)));
+        add("GET /items/search", 10, random -> Call.get("/items/search?text="
+                + encode(SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]) + "&from=0&size=20", randomUser(random)));
+        add("GET /bookings", 15, random -> Call.get("/bookings?state=ALL&from=0&size=20", randomBooker(random)));
+        add("GET /bookings/owner", 10, random -> Call.get("/bookings/owner?state=FUTURE&from=0&size=20",
+                randomOwner(random)));
+        add("POST /bookings", 5, this::createBooking);
+        add("GET /requests", 5, random -> Call.get("/requests?from=0&size=10", randomUser(random)));
+        add("GET /requests/all", 10, random -> Call.get("/requests/all?from=0&size=20", randomUser(random)));
+        add("GET /requests/{id}", 5, random -> Call.get("/requests/" + (1 + random.nextInt(spec.getRequests())),
+                randomUser(random)));
+        add("GET /users/{id}", 5, random -> Call.get("/users/" + randomUser(random), randomUser(random)));
+    }
+
+    private void add(String name, int weight, Function<Random, Call> call) {
+        operations.add(new Operation(name, weight, call));
+        totalWeight += weight;
+    }
+
+    // Бронирования уходят далеко за последние сгенерированные, чтобы реже пересекаться между собой
+    private Call createBooking(Random random) {
+        LocalDateTime start = LocalDateTime.now().plusYears(1).plusHours(random.nextInt(24 * 365));
+        String body = "{\"itemId\":" + randomItem(random)
+                + ",\"start\":\"" + Constants.FORMATTER_FOR_BOOKING.format(start) + "\""
+                + ",\"end\":\"" + Constants.FORMATTER_FOR_BOOKING.format(start.plusHours(2)) + "\"}";
+        return new Call("POST", "/bookings", randomBooker(random), body);
+    }
+
+    private Operation pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private long randomUser(Random random) {
+        return 1L + random.nextInt(spec.getUsers());
+    }
+
+    private long randomOwner(Random random) {
+        return 1L + random.nextInt(spec.getOwners());
+    }
+
+    private long randomBooker(Random random) {
+        return spec.getOwners() + 1L + random.nextInt(spec.getUsers() - spec.getOwners());
+    }
+
+    private long randomItem(Random random) {
+        return 1L + (long) (random.nextDouble() * spec.getItemCount());
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Код ответа или -1, если запрос не дошёл до сервера
+    private int execute(Call call) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + call.path).openConnection();
+            connection.setRequestMethod(call.method);
+            connection.setRequestProperty(Constants.HEADER_USER_ID, String.valueOf(call.userId));
+            connection.setRequestProperty("Accept", "application/json");
+            if (call.body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(call.body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            // Ответ дочитывается до конца, иначе соединение не вернётся в keep-alive пул
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // пропускаем тело
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Operation {
+
+        private final String name;
+        private final int weight;
+        private final Function<Random, Call> call;
+
+    }
+
+    @RequiredArgsConstructor
+    private static class Call {
+
+        private final String method;
+        private final String path;
+        private final long userId;
+        private final String body;
+
+        static Call get(String path, long userId) {
+            return new Call("GET", path, userId, null);
+        }
+
+    }
+
+    @RequiredArgsConstructor
+    private class Worker implements Runnable {
+
+        private final Random random;
+        private final long warmupEnd;
+        private final long end;
+        private final CountDownLatch finished;
+        private final Map<String, LoadReport.Samples> results = new HashMap<>();
+
+        @Override
+        public void run() {
+            try {
+                long now = System.nanoTime();
+                while (now < end) {
+                    Operation operation = pick(random);
+                    int status = execute(operation.call.apply(random));
+                    long finishedAt = System.nanoTime();
+                    if (now >= warmupEnd) {
+                        results.computeIfAbsent(operation.name, name -> new LoadReport.Samples())
+                                .add(finishedAt - now, status);
+                    }
+                    now = finishedAt;
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.load;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Пропускная способность и перцентили задержек по каждому виду вызова и в целом
+public class LoadReport {
+
+    private static final String TOTAL = "Всего";
+
+    private final Duration duration;
+    private final Map<String, Samples> operations = new LinkedHashMap<>();
+
+    LoadReport(Duration duration) {
+        this.duration = duration;
+    }
+
+    void add(String operation) {
+        operations.put(operation, new Samples());
+    }
+
+    void merge(String operation, Samples samples) {
+        operations.computeIfAbsent(operation, name -> new Samples()).addAll(samples);
+    }
+
+    public void print(PrintStream out) {
+        Samples total = new Samples();
+        operations.values().forEach(total::addAll);
+
+        out.printf("%-22s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "Вызов", "Запросов", "4xx", "5xx/IO", "RPS", "p50, мс", "p95, мс", "p99, мс", "max, мс");
+        operations.forEach((name, samples) -> print(out, name, samples));
+        print(out, TOTAL, total);
+    }
+
+    private void print(PrintStream out, String name, Samples samples) {
+        long[] latencies = samples.sorted();
+        out.printf("%-22s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, samples.count, samples.clientErrors, samples.serverErrors,
+                samples.count / (double) duration.getSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    // Задержки одного вида вызова; растущий массив, чтобы не хранить миллионы Long
+    static class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int clientErrors;
+        private int serverErrors;
+
+        void add(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 400 && status < 500) {
+                clientErrors++;
+            } else if (status >= 500 || status < 0) {
+                serverErrors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            clientErrors += other.clientErrors;
+            serverErrors += other.serverErrors;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+    }
+
+}
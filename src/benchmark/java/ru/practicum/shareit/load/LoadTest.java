@@ -0,0 +1,90 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * Генерация данных и нагрузочный прогон одной командой:
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="scale=0.5 duration=30"
+ * Без url поднимает приложение на случайном порту (profile=test - H2 в памяти, profile=default -
+ * локальный PostgreSQL из application.properties) и заполняет его базу.
+ * С url нагружает уже запущенное приложение; заполнить его базу можно, указав jdbc-url,
+ * jdbc-user и jdbc-password, либо пропустить генерацию через generate=false.
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        DatasetSpec spec = DatasetSpec.of(options);
+        boolean generate = Boolean.parseBoolean(options.getOrDefault("generate", "true"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+
+        ConfigurableApplicationContext context = null;
+        try {
+            String url = options.get("url");
+            if (url == null || url.isEmpty()) {
+                context = start(options.getOrDefault("profile", "test"));
+                url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                if (generate) {
+                    new DatasetGenerator(context.getBean(DataSource.class)).generate(spec);
+                    reindex(context);
+                }
+            } else if (generate) {
+                new DatasetGenerator(new DriverManagerDataSource(options.get("jdbc-url"),
+                        options.get("jdbc-user"), options.get("jdbc-password"))).generate(spec);
+            }
+
+            new LoadDriver(url, spec).run(threads, warmup, duration).print(System.out);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles(profile)
+                .properties("server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.ru.practicum.shareit.load=INFO");
+        if ("test".equals(profile)) {
+            builder.properties("spring.datasource.url=jdbc:h2:mem:load");
+        }
+        return builder.run();
+    }
+
+    // Индексы в памяти строятся при старте, а данные появились после него
+    private static void reindex(ConfigurableApplicationContext context) {
+        context.getBeanProvider(InMemoryItemSearchEngine.class).ifAvailable(InMemoryItemSearchEngine::rebuild);
+        context.getBean(ItemRequestMatcher.class).rebuild();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            for (String option : arg.trim().split("\\s+")) {
+                int separator = option.indexOf('=');
+                if (separator > 0) {
+                    options.put(option.substring(0, separator), option.substring(separator + 1));
+                }
+            }
+        }
+        return options;
+    }
+
+}
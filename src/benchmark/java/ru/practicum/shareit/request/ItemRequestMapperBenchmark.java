@@ -0,0 +1,72 @@
+package ru.practicum.shareit.request;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.BenchmarkData;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemRequestMapperBenchmark {
+
+    private static final int REQUESTS = 10;
+
+    @Param({"10", "100", "1000"})
+    private int itemsPerRequest;
+
+    private List<ItemRequest> itemRequest;
+    private List<Item> answers;
+    private List<ItemRequest> itemRequests;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        User requester = BenchmarkData.user(2L);
+        itemRequests = new ArrayList<>(REQUESTS);
+        for (long id = 1; id <= REQUESTS; id++) {
+            itemRequests.add(BenchmarkData.itemRequest(id, requester));
+        }
+        items = BenchmarkData.answers(itemRequests, itemsPerRequest);
+
+        itemRequest = Collections.singletonList(itemRequests.get(0));
+        answers = items.stream()
+                .filter(item -> item.getRequest() == itemRequests.get(0))
+                .collect(Collectors.toList());
+    }
+
+    // Один запрос со своими ответами, как в GET /requests/{requestId}
+    @Benchmark
+    public List<ItemRequestDto> toItemRequestDto() {
+        return ItemRequestMapper.INSTANCE.toItemRequestDtos(itemRequest, answers);
+    }
+
+    // Страница запросов, ответы на которые загружены отдельным списком
+    @Benchmark
+    public List<ItemRequestDto> toItemRequestDtos() {
+        return ItemRequestMapper.INSTANCE.toItemRequestDtos(itemRequests, items);
+    }
+
+}
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.booking.controller;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingState;
@@ -11,11 +15,16 @@ import java.util.List;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.common.utils.CursorPage;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
 @Slf4j
@@ -30,11 +39,24 @@ public class BookingController {
             @RequestParam(defaultValue = "0") Integer from,
             @RequestParam(defaultValue = "10") Integer size) {
         List<BookingResponseDto> bookingResponseDtos = bookingService.getAllBookingsByUser(userId, state, from, size);
-        log.info("Получен список всех бронирований текущего пользователя с id = {}, количество = {}.",
+        log.debug("Получен список всех бронирований текущего пользователя с id = {}, количество = {}.",
                 userId, bookingResponseDtos.size());
+        log.trace("Бронирования пользователя с id = {}: {}", userId, bookingResponseDtos);
         return bookingResponseDtos;
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingsByUserAfter(
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<BookingResponseDto> page = bookingService.getAllBookingsByUserAfter(userId, state, after, size);
+        log.debug("Получена страница бронирований текущего пользователя с id = {}, количество = {}.",
+                userId, page.getContent().size());
+        return page.toResponseEntity();
+    }
+
     @GetMapping("/owner")
     public List<BookingResponseDto> getAllBookingsAllItemsByOwner(
             @RequestHeader(Constants.HEADER_USER_ID) Long userId,
@@ -43,16 +65,47 @@ public class BookingController {
             @RequestParam(defaultValue = "10") Integer size) {
         List<BookingResponseDto> bookingResponseDtos = bookingService.getAllBookingsAllItemsByOwner(
                 userId, state, from, size);
-        log.info("Получен список всех бронирований для всех вещей текущего пользователя с id = {}, " +
+        log.debug("Получен список всех бронирований для всех вещей текущего пользователя с id = {}, " +
                 "количество = {}.", userId, bookingResponseDtos.size());
         return bookingResponseDtos;
     }
 
+    @GetMapping(path = "/owner", params = "after")
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingsAllItemsByOwnerAfter(
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<BookingResponseDto> page = bookingService.getAllBookingsAllItemsByOwnerAfter(
+                userId, state, after, size);
+        log.debug("Получена страница бронирований для всех вещей текущего пользователя с id = {}, " +
+                "количество = {}.", userId, page.getContent().size());
+        return page.toResponseEntity();
+    }
+
+    @GetMapping("/owner/inbox")
+    public ResponseEntity<List<BookingResponseDto>> getOwnerInbox(
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<BookingResponseDto> page = bookingService.getOwnerInbox(userId, after, size);
+        log.debug("Получена страница ожидающих решения бронирований вещей пользователя с id = {}, " +
+                "количество = {}.", userId, page.getContent().size());
+        return page.toResponseEntity();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(@RequestHeader(Constants.HEADER_USER_ID) Long userId) {
+        SseEmitter emitter = bookingService.streamBookings(userId);
+        log.debug("Пользователь с id = {} подписался на изменения бронирований.", userId);
+        return emitter;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(@PathVariable Long bookingId,
                                                         @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
         BookingResponseDto bookingResponseDto = bookingService.getBookingById(userId, bookingId);
-        log.info("Получено бронирование с id = {}.", bookingId);
+        log.debug("Получено бронирование с id = {}.", bookingId);
         return bookingResponseDto;
     }
 
@@ -61,7 +114,9 @@ public class BookingController {
     public BookingResponseDto createBooking(@Valid @RequestBody BookingRequestDto bookingRequestDto,
                                                      @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
         BookingResponseDto bookingResponseDto = bookingService.createBooking(bookingRequestDto, userId);
-        log.info("Добавлен новый запрос на бронирование: {}", bookingResponseDto);
+        log.debug("Добавлен новый запрос на бронирование с id = {} от пользователя с id = {}.",
+                bookingResponseDto.getId(), userId);
+        log.trace("Добавлен новый запрос на бронирование: {}", bookingResponseDto);
         return bookingResponseDto;
     }
 
@@ -70,7 +125,21 @@ public class BookingController {
     public BookingResponseDto updateBooking(@PathVariable Long bookingId, @RequestParam Boolean approved,
                                             @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
         BookingResponseDto bookingResponseDto = bookingService.updateBooking(bookingId, approved, userId);
-        log.info("Обновлено бронирование: {}.", bookingResponseDto);
+        log.debug("Обновлено бронирование с id = {}, статус = {}.", bookingId, bookingResponseDto.getStatus());
+        log.trace("Обновлено бронирование: {}", bookingResponseDto);
         return bookingResponseDto;
     }
+
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> updateBookings(
+            @RequestBody @NotEmpty(message = "Список решений не может быть пустым.")
+            @Size(max = Constants.MAX_BATCH_SIZE, message = "За один запрос можно принять не больше "
+                    + Constants.MAX_BATCH_SIZE + " решений.") List<@Valid BookingDecisionDto> decisions,
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(decisions, userId);
+        log.debug("Приняты решения по бронированиям пользователя с id = {}, количество = {}.",
+                userId, results.size());
+        log.trace("Результаты решений по бронированиям: {}", results);
+        return results;
+    }
 }
\ No newline at end of file
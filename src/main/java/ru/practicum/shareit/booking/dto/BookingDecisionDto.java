@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import javax.validation.constraints.NotNull;
+
+import lombok.Data;
+
+@Data
+public class BookingDecisionDto {
+
+    @NotNull(message = "Не указан id бронирования.")
+    private Long bookingId;
+
+    @NotNull(message = "Не указано решение по бронированию.")
+    private Boolean approved;
+
+}
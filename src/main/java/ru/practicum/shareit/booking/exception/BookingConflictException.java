@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import ru.practicum.shareit.common.exception.NotSavedException;
+
+public class BookingConflictException extends NotSavedException {
+
+    public BookingConflictException(Long bookingId) {
+        super("Статус бронирования с id = " + bookingId + " одновременно изменён другим запросом");
+    }
+
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.exception;
+
+import ru.practicum.shareit.common.exception.NotSavedException;
+
+import java.time.LocalDateTime;
+
+public class BookingOverlapException extends NotSavedException {
+
+    public BookingOverlapException(Long itemId, LocalDateTime start, LocalDateTime end) {
+        super("Вещь с id = " + itemId + " уже забронирована на период с " + start + " по " + end);
+    }
+
+}
@@ -26,6 +26,8 @@ public interface BookingMapper {
     BookingOwnerDto toBookingOwnerDto(Booking booking);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "archived", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "item", source = "item")
     @Mapping(target = "booker", source = "booker")
     Booking toBooking(BookingRequestDto bookingDto, User booker, Item item);
@@ -18,7 +18,8 @@ import lombok.NoArgsConstructor;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -38,4 +39,11 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // Флаг выставляет только BookingArchiver, при вставке срабатывает значение по умолчанию из схемы
+    @Column(insertable = false, updatable = false)
+    private Boolean archived;
+
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.model;
+
+public enum BookingDecisionResult {
+
+    APPLIED, // решение применено
+    NOT_FOUND, // бронирование не найдено
+    NOT_OWNER, // пользователь не владелец забронированной вещи
+    NOT_WAITING // бронирование уже подтверждено или отклонено
+
+}
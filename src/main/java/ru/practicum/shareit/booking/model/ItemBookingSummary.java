@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import javax.persistence.*;
+
+import lombok.NoArgsConstructor;
+
+
+@Entity
+@Table(name = "item_booking_summary", schema = "public")
+@NoArgsConstructor
+@Data
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "last_booking_end")
+    private LocalDateTime lastBookingEnd;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "next_booking_start")
+    private LocalDateTime nextBookingStart;
+
+    @Column(name = "refresh_after")
+    private LocalDateTime refreshAfter;
+
+    @Version
+    private Long version;
+
+    public boolean isStale(LocalDateTime now) {
+        return isStale(refreshAfter, now);
+    }
+
+    public static boolean isStale(LocalDateTime refreshAfter, LocalDateTime now) {
+        return refreshAfter != null && !now.isBefore(refreshAfter);
+    }
+
+}
@@ -6,36 +6,86 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+// Ленту бронирований пользователя BookingMapper строит из item (id, name) и id booker'а,
+// поэтому вещь подгружается тем же запросом, а booker остаётся прокси с известным id
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking>,
+        BookingRepositoryCustom {
 
+    // Бронирование вместе с вещью одним запросом: владельцу вещи нужны её владелец и название
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findWithItemById(Long bookingId);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> bookingIds);
+
+    // Бронирования из ids, всё ещё находящиеся в статусе status, блокируются до конца транзакции.
+    // Порядок по id: параллельные пакетные решения блокируют строки в одном порядке и не взаимоблокируются.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking as b where b.id in ?1 and b.status = ?2 order by b.id")
+    List<Booking> findAllByIdInAndStatusForUpdate(Collection<Long> bookingIds, BookingStatus status);
+
+    // Пересекается ли период [start, end) с ожидающими или подтверждёнными бронированиями вещи
+    boolean existsByItemIdAndStatusInAndArchivedFalseAndStartIsBeforeAndEndIsAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
+
+    @EntityGraph(attributePaths = "item")
     List<Booking> findByBookerIdOrderByEndDesc(Long bookerId, Pageable page);
 
+    @EntityGraph(attributePaths = "item")
     List<Booking> findByBookerIdAndStatusOrderByEndDesc(
             Long bookerId, BookingStatus status, Pageable page);
 
-    List<Booking> findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
+    // Текущие, будущие и ожидающие подтверждения бронирования не архивируются, условие archived = false
+    // ограничивает их выборки горячим разделом таблицы (см. V8__partition_bookings.sql)
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findByBookerIdAndStatusAndArchivedFalseOrderByEndDesc(
+            Long bookerId, BookingStatus status, Pageable page);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
             Long bookerId, LocalDateTime start, LocalDateTime end, Pageable page);
 
+    @EntityGraph(attributePaths = "item")
     List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Pageable page);
 
-    List<Booking> findByBookerIdAndEndIsAfter(
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findByBookerIdAndArchivedFalseAndEndIsAfter(
             Long bookerId, LocalDateTime end, Pageable page);
 
-    Optional<Booking> findFirstByItemIdAndStatusAndStartIsBefore(Long itemId, BookingStatus status,
-                                                                 LocalDateTime end, Sort sort);
+    @Query("select b from Booking as b " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?2 " +
+            "and b.start < ?3 " +
+            "and b.end = (select max(lb.end) from Booking as lb " +
+            "where lb.item.id = b.item.id and lb.status = ?2 and lb.start < ?3)")
+    List<Booking> findLastBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    @Query("select b from Booking as b " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?2 " +
+            "and b.start > ?3 " +
+            "and b.start = (select min(nb.start) from Booking as nb " +
+            "where nb.item.id = b.item.id and nb.status = ?2 and nb.start > ?3)")
+    List<Booking> findNextBookingsByItemIds(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
 
-    Optional<Booking> findFirstByItemIdAndStatusAndStartIsAfter(Long itemId, BookingStatus status,
-                                                                LocalDateTime end, Sort sort);
+    List<Booking> findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime end);
 
     @Query("select count(b.id) as count " +
             "from Booking as b " +
@@ -45,4 +95,32 @@ public interface BookingRepository extends JpaRepository<Booking, Long>, Queryds
             "group by b.id ")
     Long isFindBooking(Long itemId, Long userId, LocalDateTime end);
 
+    // Меняет статус, только если бронирование всё ещё в статусе expected. Возвращает 0, если статус
+    // успел изменить другой запрос. Версия увеличивается, чтобы загруженные ранее копии не затёрли новый статус.
+    @Modifying
+    @Query("update Booking as b " +
+            "set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId and b.status = :expected")
+    int updateStatus(@Param("bookingId") Long bookingId, @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+    // Для строк, уже заблокированных findAllByIdInAndStatusForUpdate
+    @Modifying
+    @Query("update Booking as b " +
+            "set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :bookingIds")
+    int updateStatuses(@Param("bookingIds") Collection<Long> bookingIds, @Param("status") BookingStatus status);
+
+    // Помечает архивными не больше limit бронирований, завершившихся до cutoff.
+    // Ожидающие подтверждения бронирования остаются в горячем разделе.
+    @Transactional
+    @Modifying
+    @Query(value = "update bookings set archived = true " +
+            "where id in (select id from bookings " +
+            "where archived = false " +
+            "and end_date < :cutoff " +
+            "and status <> 'WAITING' " +
+            "limit :limit)", nativeQuery = true)
+    int archiveEndedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+public interface BookingRepositoryCustom {
+
+    // Бронирования сразу в виде BookingResponseDto: вещь присоединяется в том же запросе (алиас QItem.item),
+    // запрос count не выполняется
+    Slice<BookingResponseDto> findAllResponses(Predicate predicate, Pageable page, OrderSpecifier<?>... orders);
+
+}
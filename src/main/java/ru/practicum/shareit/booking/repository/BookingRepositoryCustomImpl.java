@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.user.dto.UserShortDto;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookingResponseDto> findAllResponses(Predicate predicate, Pageable page,
+                                                      OrderSpecifier<?>... orders) {
+        QBooking booking = QBooking.booking;
+        QItem item = QItem.item;
+
+        List<BookingResponseDto> bookings = new JPAQuery<BookingResponseDto>(entityManager)
+                .select(Projections.bean(BookingResponseDto.class,
+                        booking.id,
+                        booking.start,
+                        booking.end,
+                        booking.status,
+                        ExpressionUtils.as(Projections.bean(ItemShortDto.class, item.id, item.name), "item"),
+                        ExpressionUtils.as(Projections.bean(UserShortDto.class, booking.booker.id), "booker")))
+                .from(booking)
+                .innerJoin(booking.item, item)
+                .where(predicate)
+                .orderBy(orders)
+                .offset(page.getOffset())
+                .limit(page.getPageSize() + 1L)
+                .fetch();
+
+        boolean hasNext = bookings.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? bookings.subList(0, page.getPageSize()) : bookings, page, hasNext);
+    }
+
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary as s where s.itemId = ?1")
+    Optional<ItemBookingSummary> findByItemIdForUpdate(Long itemId);
+
+    // Порядок по itemId: параллельные пакетные подтверждения блокируют сводки в одном порядке
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary as s where s.itemId in ?1 order by s.itemId")
+    List<ItemBookingSummary> findAllByItemIdInForUpdate(Collection<Long> itemIds);
+
+    // Одна вставка на всю пачку вещей
+    @Modifying
+    @Query(value = "insert into item_booking_summary (item_id, version) " +
+            "select i.id, 0 from items as i where i.id in ?1", nativeQuery = true)
+    void createAll(Collection<Long> itemIds);
+
+    @Modifying
+    @Query("update ItemBookingSummary as s " +
+            "set s.lastBookingId = :#{#summary.lastBookingId}, " +
+            "s.lastBookerId = :#{#summary.lastBookerId}, " +
+            "s.lastBookingEnd = :#{#summary.lastBookingEnd}, " +
+            "s.nextBookingId = :#{#summary.nextBookingId}, " +
+            "s.nextBookerId = :#{#summary.nextBookerId}, " +
+            "s.nextBookingStart = :#{#summary.nextBookingStart}, " +
+            "s.refreshAfter = :#{#summary.refreshAfter}, " +
+            "s.version = s.version + 1 " +
+            "where s.itemId = :#{#summary.itemId} and s.version = :version")
+    int rollForward(@Param("summary") ItemBookingSummary summary, @Param("version") Long version);
+
+    @Modifying
+    @Query("update ItemBookingSummary as s " +
+            "set s.refreshAfter = :staleSince, s.version = s.version + 1 " +
+            "where s.lastBookerId = :bookerId or s.nextBookerId = :bookerId")
+    int markStaleByBookerId(@Param("bookerId") Long bookerId, @Param("staleSince") LocalDateTime staleSince);
+
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Переносит бронирования, завершившиеся раньше горизонта архивирования, в архивный раздел
+ * таблицы bookings. Архивные бронирования по-прежнему видны в лентах ALL, PAST и REJECTED,
+ * а ленты CURRENT, FUTURE и WAITING читают только горячий раздел.
+ * Бронирования переносятся пачками, каждая в своей транзакции, чтобы не держать долгие блокировки.
+ */
+@Component
+@Slf4j
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+    private final Clock clock;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public BookingArchiver(BookingRepository bookingRepository, Clock clock,
+                           @Value("${shareit.bookings.archive.horizon:180d}") Duration horizon,
+                           @Value("${shareit.bookings.archive.batch-size:1000}") int batchSize) {
+        // Ленты CURRENT и FUTURE не смотрят в архив, поэтому туда не должно попасть незавершённое бронирование
+        if (horizon.isNegative()) {
+            throw new IllegalArgumentException("Горизонт архивирования бронирований не может быть отрицательным: "
+                    + horizon);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки архивирования бронирований должен быть положительным: "
+                    + batchSize);
+        }
+        this.bookingRepository = bookingRepository;
+        this.clock = clock;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron:0 30 3 * * *}")
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(horizon);
+        int total = 0;
+        int archived;
+        do {
+            archived = bookingRepository.archiveEndedBefore(cutoff, batchSize);
+            total += archived;
+        } while (archived == batchSize);
+        log.info("Перенесено в архив бронирований, завершившихся до {}: {}", cutoff, total);
+        return total;
+    }
+
+}
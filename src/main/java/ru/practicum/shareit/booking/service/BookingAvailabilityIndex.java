@@ -0,0 +1,264 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.clock.RequestClock;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Индекс занятости вещей: для каждой вещи хранит объединение интервалов
+ * бронирований в статусах WAITING и APPROVED, которые ещё не закончились.
+ * Расписание вещи загружается из базы при первом обращении и дальше
+ * поддерживается при создании и отклонении бронирований. Хранятся расписания
+ * не больше чем maxItems вещей, давно не запрошенные вытесняются и при следующем
+ * обращении загружаются заново.
+ * Индекс только ускоряет чтение свободных периодов. Решение о пересечении при создании
+ * бронирования принимает база: индекс не видит изменений с других экземпляров приложения
+ * и может потерять незакоммиченное бронирование при вытеснении или сбросе.
+ */
+@Component
+public class BookingAvailabilityIndex {
+
+    static final List<BookingStatus> BLOCKING_STATUSES =
+            Arrays.asList(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final RequestClock requestClock;
+    private final int maxItems;
+    private final Map<Long, ItemSchedule> schedules;
+    // Увеличивается при каждом сбросе, чтобы загрузка, начатая до сброса, не вернула в индекс старые данные
+    private long generation;
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository, RequestClock requestClock,
+                                    @Value("${shareit.bookings.availability.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.requestClock = requestClock;
+        this.maxItems = maxItems;
+        this.schedules = new LinkedHashMap<Long, ItemSchedule>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemSchedule> eldest) {
+                return size() > BookingAvailabilityIndex.this.maxItems;
+            }
+        };
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemSchedule schedule = getSchedule(itemId, null);
+        synchronized (schedule) {
+            return schedule.isFree(start, end);
+        }
+    }
+
+    public List<AvailabilityWindowDto> findFreeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        ItemSchedule schedule = getSchedule(itemId, null);
+        synchronized (schedule) {
+            return schedule.findFreeWindows(from, to);
+        }
+    }
+
+    // Отмечает период уже проверенного базой бронирования как занятый, при откате метка снимается.
+    // Бронирование к этому моменту уже записано в базу, поэтому при загрузке расписания
+    // в той же транзакции оно пропускается и добавляется один раз
+    public void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        ItemSchedule schedule = getSchedule(itemId, booking.getId());
+        synchronized (schedule) {
+            schedule.removeFinished(requestClock.now());
+            schedule.add(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        afterCompletion(false, () -> remove(itemId, booking.getId()));
+    }
+
+    public void release(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        afterCompletion(true, () -> remove(itemId, booking.getId()));
+    }
+
+    // Сбрасывает все расписания после коммита, например когда вместе с пользователем
+    // удалены его вещи и бронирования
+    public void invalidateAll() {
+        afterCompletion(true, () -> {
+            synchronized (this) {
+                generation++;
+                schedules.clear();
+            }
+        });
+    }
+
+    public synchronized int size() {
+        return schedules.size();
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        ItemSchedule schedule;
+        synchronized (this) {
+            schedule = schedules.get(itemId);
+        }
+        if (schedule == null) {
+            return;
+        }
+        synchronized (schedule) {
+            schedule.remove(bookingId);
+        }
+    }
+
+    // Изменения индекса должны совпадать с результатом транзакции: занятый интервал
+    // освобождается при откате, а освобождение после отклонения - только после коммита
+    private void afterCompletion(boolean onCommit, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                action.run();
+            }
+            return;
+        }
+        int expectedStatus = onCommit ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == expectedStatus) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private ItemSchedule getSchedule(Long itemId, Long skippedBookingId) {
+        long loadGeneration;
+        synchronized (this) {
+            ItemSchedule schedule = schedules.get(itemId);
+            if (schedule != null) {
+                return schedule;
+            }
+            loadGeneration = generation;
+        }
+        ItemSchedule loaded = new ItemSchedule();
+        for (Booking booking : bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(
+                itemId, BLOCKING_STATUSES, requestClock.now())) {
+            if (!booking.getId().equals(skippedBookingId)) {
+                loaded.add(booking.getId(), booking.getStart(), booking.getEnd());
+            }
+        }
+        synchronized (this) {
+            ItemSchedule existing = schedules.get(itemId);
+            if (existing != null) {
+                return existing;
+            }
+            if (generation == loadGeneration) {
+                schedules.put(itemId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private static class ItemSchedule {
+
+        private final Map<Long, LocalDateTime[]> bookings = new HashMap<>();
+        // Интервалы бронирований по началу: начало -> (id бронирования -> конец)
+        private final TreeMap<LocalDateTime, Map<Long, LocalDateTime>> starts = new TreeMap<>();
+        // Непересекающиеся занятые интервалы: начало -> конец
+        private final TreeMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = busy.lowerEntry(end);
+            return before == null || !before.getValue().isAfter(start);
+        }
+
+        List<AvailabilityWindowDto> findFreeWindows(LocalDateTime from, LocalDateTime to) {
+            List<AvailabilityWindowDto> windows = new ArrayList<>();
+            LocalDateTime cursor = from;
+            LocalDateTime first = busy.floorKey(from);
+            for (Map.Entry<LocalDateTime, LocalDateTime> interval
+                    : busy.subMap(first != null ? first : from, true, to, false).entrySet()) {
+                if (interval.getKey().isAfter(cursor)) {
+                    windows.add(new AvailabilityWindowDto(cursor, interval.getKey()));
+                }
+                if (interval.getValue().isAfter(cursor)) {
+                    cursor = interval.getValue();
+                }
+            }
+            if (cursor.isBefore(to)) {
+                windows.add(new AvailabilityWindowDto(cursor, to));
+            }
+            return windows;
+        }
+
+        void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            bookings.put(bookingId, new LocalDateTime[]{start, end});
+            starts.computeIfAbsent(start, key -> new HashMap<>()).put(bookingId, end);
+            merge(start, end);
+        }
+
+        // Заново сливаются только бронирования из того занятого интервала, куда входило удалённое
+        void remove(Long bookingId) {
+            LocalDateTime[] interval = bookings.remove(bookingId);
+            if (interval == null) {
+                return;
+            }
+            Map<Long, LocalDateTime> sameStart = starts.get(interval[0]);
+            sameStart.remove(bookingId);
+            if (sameStart.isEmpty()) {
+                starts.remove(interval[0]);
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> block = busy.floorEntry(interval[0]);
+            busy.remove(block.getKey());
+            for (Map.Entry<LocalDateTime, Map<Long, LocalDateTime>> rest
+                    : starts.subMap(block.getKey(), true, block.getValue(), false).entrySet()) {
+                for (LocalDateTime end : rest.getValue().values()) {
+                    merge(rest.getKey(), end);
+                }
+            }
+        }
+
+        // Отбрасываются занятые интервалы, закончившиеся целиком, вместе с их бронированиями.
+        // Закончившиеся бронирования внутри ещё идущего интервала уйдут вместе с ним
+        void removeFinished(LocalDateTime now) {
+            Map.Entry<LocalDateTime, LocalDateTime> block = busy.firstEntry();
+            while (block != null && !block.getValue().isAfter(now)) {
+                busy.remove(block.getKey());
+                SortedMap<LocalDateTime, Map<Long, LocalDateTime>> finished =
+                        starts.subMap(block.getKey(), true, block.getValue(), false);
+                for (Map<Long, LocalDateTime> ids : finished.values()) {
+                    bookings.keySet().removeAll(ids.keySet());
+                }
+                finished.clear();
+                block = busy.firstEntry();
+            }
+        }
+
+        private void merge(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = busy.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)) {
+                start = before.getKey();
+                if (before.getValue().isAfter(end)) {
+                    end = before.getValue();
+                }
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> next = busy.ceilingEntry(start);
+            while (next != null && !next.getKey().isAfter(end)) {
+                if (next.getValue().isAfter(end)) {
+                    end = next.getValue();
+                }
+                busy.remove(next.getKey());
+                next = busy.higherEntry(next.getKey());
+            }
+            busy.put(start, end);
+        }
+    }
+
+}
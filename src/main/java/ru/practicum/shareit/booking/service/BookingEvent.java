@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+// Изменение бронирования для потока GET /bookings/stream: кому отправить и что.
+// Ответ собирается в транзакции, а рассылается после её коммита
+@Getter
+@RequiredArgsConstructor
+public class BookingEvent {
+
+    private final Long recipientId;
+    private final BookingResponseDto booking;
+
+}
@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+
+/**
+ * Рассылка изменений бронирований подписчикам GET /bookings/stream внутри процесса.
+ * События приходят после коммита транзакции и раскладываются по ограниченным очередям
+ * подписчиков, а в SSE-соединения их пишут отдельные потоки. Публикация никогда не ждёт
+ * клиента: подписчик, чья очередь переполнилась, отключается и после переподключения
+ * перечитывает бронирования обычными запросами.
+ */
+@Component
+@Slf4j
+public class BookingEventBus {
+
+    private static final String EVENT_NAME = "booking";
+
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookingEventBus(@Value("${shareit.bookings.stream.buffer-size:100}") int bufferSize,
+                           @Value("${shareit.bookings.stream.timeout:30m}") Duration timeout,
+                           @Value("${shareit.bookings.stream.sender-threads:2}") int senderThreads) {
+        this(bufferSize, timeout, Executors.newFixedThreadPool(senderThreads, senderThreadFactory()));
+    }
+
+    public BookingEventBus(int bufferSize, Duration timeout, ExecutorService sender) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Размер очереди событий подписчика должен быть положительным: "
+                    + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = sender;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, new SseEmitter(timeoutMillis));
+    }
+
+    public SseEmitter subscribe(Long userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter);
+        subscriptions.compute(userId, (id, userSubscriptions) -> {
+            Set<Subscription> result = userSubscriptions == null
+                    ? ConcurrentHashMap.newKeySet()
+                    : userSubscriptions;
+            result.add(subscription);
+            return result;
+        });
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onError(e -> remove(subscription));
+        // Без complete() истечение соединения закончится ответом 503
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+
+    // Откат транзакции отменяет и событие: клиент не узнает о несохранённом изменении
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        publish(event);
+    }
+
+    public void publish(BookingEvent event) {
+        Set<Subscription> recipients = subscriptions.get(event.getRecipientId());
+        if (recipients == null) {
+            return;
+        }
+        for (Subscription subscription : recipients) {
+            subscription.offer(event.getBooking());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::close));
+        subscriptions.clear();
+        sender.shutdownNow();
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static CustomizableThreadFactory senderThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("booking-events-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private class Subscription {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<BookingResponseDto> queue;
+        // Очередь одного подписчика разбирает не больше одного потока, так события не меняются местами
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(BookingResponseDto booking) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(booking)) {
+                log.info("Подписчик на бронирования пользователя с id = {} не успевает читать события " +
+                        "и отключён.", userId);
+                closed = true;
+                remove(this);
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Приложение останавливается, отправлять события уже некому
+                scheduled.set(false);
+                completed.set(true);
+            }
+        }
+
+        private void drain() {
+            try {
+                BookingResponseDto booking;
+                while (!closed && (booking = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .name(EVENT_NAME)
+                            .data(booking, MediaType.APPLICATION_JSON));
+                }
+                if (closed && completed.compareAndSet(false, true)) {
+                    queue.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или соединение уже закрыто по таймауту
+                log.debug("Поток бронирований пользователя с id = {} закрыт: {}", userId, e.getMessage());
+                closed = true;
+                completed.set(true);
+                queue.clear();
+                remove(this);
+            } finally {
+                scheduled.set(false);
+            }
+            // Событие могло прийти, пока поток выходил из цикла
+            if (!completed.get() && (closed || !queue.isEmpty())) {
+                schedule();
+            }
+        }
+
+    }
+
+}
@@ -3,16 +3,24 @@ package ru.practicum.shareit.booking.service;
 
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.exception.*;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionResult;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.QBooking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.clock.RequestClock;
 import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
 import ru.practicum.shareit.common.utils.ValidPage;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemOwnershipException;
@@ -20,35 +28,56 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.DateTimePath;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final RequestClock requestClock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingEventBus bookingEventBus;
+    private final OutboxService outboxService;
+
+    // Новые бронирования вещей пользователя и решения по его бронированиям
+    public SseEmitter streamBookings(Long userId) {
+        userCache.checkExists(userId);
+        return bookingEventBus.subscribe(userId);
+    }
 
     public List<BookingResponseDto> getAllBookingsByUser(Long userId, BookingState state, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        userCache.checkExists(userId);
 
         PageRequest page = ValidPage.validate(from, size);
         PageRequest pageRequest = PageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "start"));
+        LocalDateTime now = requestClock.now();
         List<Booking> bookings;
 
         switch (state) {
@@ -56,19 +85,19 @@ public class BookingService {
                 bookings = bookingRepository.findByBookerIdOrderByEndDesc(userId, page);
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
-                        userId, LocalDateTime.now(), LocalDateTime.now(), page);
+                bookings = bookingRepository.findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
+                        userId, now, now, page);
                 break;
             case PAST:
                 bookings = bookingRepository.findByBookerIdAndEndIsBefore(
-                        userId, LocalDateTime.now(), pageRequest);
+                        userId, now, pageRequest);
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByBookerIdAndEndIsAfter(userId,
-                        LocalDateTime.now(), pageRequest);
+                bookings = bookingRepository.findByBookerIdAndArchivedFalseAndEndIsAfter(userId,
+                        now, pageRequest);
                 break;
             case WAITING:
-                bookings = bookingRepository.findByBookerIdAndStatusOrderByEndDesc(
+                bookings = bookingRepository.findByBookerIdAndStatusAndArchivedFalseOrderByEndDesc(
                         userId, BookingStatus.WAITING, page);
                 break;
             case REJECTED:
@@ -84,53 +113,48 @@ public class BookingService {
 
     public List<BookingResponseDto> getAllBookingsAllItemsByOwner(
             Long userId, BookingState state, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        userCache.checkExists(userId);
 
         ValidPage.validate(from, size);
-        PageRequest page = PageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "start"));
-        List<Booking> bookings = new ArrayList<>();
-        BooleanExpression byOwnerId = QItem.item.owner.id.eq(userId);
-
-        switch (state) {
-            case ALL:
-                bookings.addAll(bookingRepository.findAll(byOwnerId, page).getContent());
-                break;
+        PageRequest page = PageRequest.of(from, size);
+        BooleanExpression predicate = QItem.item.owner.id.eq(userId).and(byState(state, requestClock.now()));
 
-            case CURRENT:
-                BooleanExpression byStart = QBooking.booking.start.before(LocalDateTime.now());
-                BooleanExpression byEnd = QBooking.booking.end.after(LocalDateTime.now());
-                bookings.addAll(bookingRepository
-                        .findAll(byOwnerId.and(byStart).and(byEnd), page)
-                        .getContent());
-                break;
+        return bookingRepository.findAllResponses(predicate, page,
+                QBooking.booking.start.desc(), QBooking.booking.id.desc()).getContent();
+    }
 
-            case PAST:
-                BooleanExpression byBeforeEnd = QBooking.booking.end.before(LocalDateTime.now());
-                bookings.addAll(bookingRepository.findAll(byOwnerId.and(byBeforeEnd), page)
-                        .getContent());
-                break;
+    public CursorPage<BookingResponseDto> getAllBookingsByUserAfter(
+            Long userId, BookingState state, String after, Integer size) {
+        userCache.checkExists(userId);
 
-            case FUTURE:
-                BooleanExpression byAfterEnd = QBooking.booking.end.after(LocalDateTime.now());
-                bookings.addAll(bookingRepository.findAll(byOwnerId.and(byAfterEnd), page).getContent());
-                break;
+        // Порядок совпадает с постраничным режимом: по концу бронирования, для PAST и FUTURE - по началу
+        DateTimePath<LocalDateTime> sortKey = state == BookingState.PAST || state == BookingState.FUTURE
+                ? QBooking.booking.start : QBooking.booking.end;
+        return findBookingsAfter(QBooking.booking.booker.id.eq(userId), state, sortKey, after, size);
+    }
 
-            case WAITING:
-                BooleanExpression byStatusWaiting = QBooking.booking.status.eq(BookingStatus.WAITING);
-                bookings.addAll(bookingRepository.findAll(byOwnerId.and(byStatusWaiting), page)
-                        .getContent());
-                break;
+    // Ожидающие решения бронирования всех вещей владельца в порядке создания, первыми самые старые
+    public CursorPage<BookingResponseDto> getOwnerInbox(Long userId, String after, Integer size) {
+        userCache.checkExists(userId);
 
-            case REJECTED:
-                BooleanExpression byStatusRejected = QBooking.booking.status.eq(BookingStatus.REJECTED);
-                bookings.addAll(bookingRepository.findAll(byOwnerId.and(byStatusRejected), page)
-                        .getContent());
-                break;
-            default:
-                throw new ValidationException("Unknown state: " + state);
+        int limit = ValidPage.validateSize(size);
+        PageCursor cursor = PageCursor.decode(after);
+        BooleanExpression predicate = QItem.item.owner.id.eq(userId)
+                .and(byState(BookingState.WAITING, requestClock.now()));
+        if (cursor != null) {
+            predicate = predicate.and(QBooking.booking.id.gt(cursor.getId()));
         }
-        return BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(bookings);
+        return CursorPage.of(bookingRepository.findAllResponses(predicate, PageRequest.of(0, limit),
+                        QBooking.booking.id.asc()),
+                booking -> PageCursor.of(booking.getId(), booking.getId()));
+    }
+
+    public CursorPage<BookingResponseDto> getAllBookingsAllItemsByOwnerAfter(
+            Long userId, BookingState state, String after, Integer size) {
+        userCache.checkExists(userId);
+
+        return findBookingsAfter(QItem.item.owner.id.eq(userId), state,
+                QBooking.booking.start, after, size);
     }
 
     public BookingResponseDto getBookingById(Long userId, Long bookingId) {
@@ -147,9 +171,10 @@ public class BookingService {
     @Transactional
     public BookingResponseDto createBooking(BookingRequestDto bookingRequestDto, Long userId) {
         BookingRequestDto bookingInDtoNew = validateBookingDto(bookingRequestDto);
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
-        Item item = itemRepository.findById(bookingInDtoNew.getItemId()).orElseThrow(() ->
+        User user = userCache.getReference(userId);
+        // Блокировка строки вещи упорядочивает одновременные бронирования одной вещи, в том числе
+        // с разных экземпляров приложения: следующее проверит пересечение уже после коммита предыдущего
+        Item item = itemRepository.findByIdForUpdate(bookingInDtoNew.getItemId()).orElseThrow(() ->
                 new ItemNotFoundException(bookingInDtoNew.getItemId()));
 
         if (!item.getAvailable()) {
@@ -159,12 +184,22 @@ public class BookingService {
         if (item.getOwner().getId().equals(userId)) {
             throw new BookingItemOwnerException(userId, item.getId());
         }
+        if (bookingRepository.existsByItemIdAndStatusInAndArchivedFalseAndStartIsBeforeAndEndIsAfter(
+                item.getId(), BookingAvailabilityIndex.BLOCKING_STATUSES,
+                bookingInDtoNew.getEnd(), bookingInDtoNew.getStart())) {
+            throw new BookingOverlapException(item.getId(), bookingInDtoNew.getStart(), bookingInDtoNew.getEnd());
+        }
 
         bookingInDtoNew.setStatus(BookingStatus.WAITING);
         Booking booking = BookingMapper.INSTANCE.toBooking(bookingInDtoNew, user, item);
 
         try {
-            return BookingMapper.INSTANCE.toBookingResponseDto(bookingRepository.save(booking));
+            Booking savedBooking = bookingRepository.saveAndFlush(booking);
+            bookingAvailabilityIndex.reserve(savedBooking);
+            BookingResponseDto bookingResponseDto = BookingMapper.INSTANCE.toBookingResponseDto(savedBooking);
+            outboxService.append(OutboxEventType.BOOKING_CREATED, savedBooking.getId(), bookingResponseDto);
+            eventPublisher.publishEvent(new BookingEvent(item.getOwner().getId(), bookingResponseDto));
+            return bookingResponseDto;
         } catch (DataIntegrityViolationException e) {
             throw new BookingNotSavedException();
         }
@@ -173,7 +208,7 @@ public class BookingService {
 
     @Transactional
     public BookingResponseDto updateBooking(Long bookingId, Boolean approved, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+        Booking booking = bookingRepository.findWithItemById(bookingId).orElseThrow(() ->
                 new BookingNotFoundException(bookingId));
         Item item = booking.getItem();
 
@@ -185,16 +220,144 @@ public class BookingService {
                     " не был изменён пользователем с id = " + userId);
         }
 
+        // Статус меняется условным UPDATE, а не сохранением загруженной сущности: из двух одновременных
+        // решений по одному бронированию применится только первое, второе получит 409.
+        // Загруженная сущность остаётся со старым статусом и не должна меняться, иначе при коммите
+        // Hibernate попробует записать её со старой версией.
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, status) == 0) {
+            throw new BookingConflictException(bookingId);
+        }
+
         if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
+            itemBookingSummaryService.approve(booking, requestClock.now());
         } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            bookingAvailabilityIndex.release(booking);
         }
+        BookingResponseDto bookingResponseDto = BookingMapper.INSTANCE.toBookingResponseDto(booking);
+        bookingResponseDto.setStatus(status);
+        outboxService.append(OutboxEventType.BOOKING_STATUS_CHANGED, bookingId, bookingResponseDto);
+        eventPublisher.publishEvent(new BookingEvent(booking.getBooker().getId(), bookingResponseDto));
+        return bookingResponseDto;
+    }
 
-        try {
-            return BookingMapper.INSTANCE.toBookingResponseDto(bookingRepository.saveAndFlush(booking));
-        } catch (DataIntegrityViolationException e) {
-            throw new BookingNotSavedException();
+    // Решения владельца по пачке бронирований в одной транзакции. Бронирования читаются, блокируются
+    // и обновляются общими запросами, поэтому число запросов не зависит от размера пачки.
+    // Результат возвращается по каждому id в порядке запроса.
+    @Transactional
+    public List<BookingDecisionResultDto> updateBookings(List<BookingDecisionDto> decisions, Long userId) {
+        userCache.checkExists(userId);
+
+        Map<Long, Boolean> approvals = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (approvals.put(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new ValidationException("Решение по бронированию с id = " + decision.getBookingId() +
+                        " передано несколько раз.");
+            }
+        }
+
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(approvals.keySet())
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> ownedIds = bookings.values()
+                .stream()
+                .filter(booking -> booking.getItem().getOwner().getId().equals(userId))
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        // Статус проверяется под блокировкой: бронирования, которые успел изменить другой запрос, сюда не попадут
+        Set<Long> waitingIds = ownedIds.isEmpty()
+                ? Collections.emptySet()
+                : bookingRepository.findAllByIdInAndStatusForUpdate(ownedIds, BookingStatus.WAITING)
+                        .stream()
+                        .map(Booking::getId)
+                        .collect(Collectors.toSet());
+
+        List<Booking> approved = new ArrayList<>();
+        List<Booking> rejected = new ArrayList<>();
+        for (Long bookingId : waitingIds) {
+            if (approvals.get(bookingId)) {
+                approved.add(bookings.get(bookingId));
+            } else {
+                rejected.add(bookings.get(bookingId));
+            }
+        }
+        // Как и в updateBooking, загруженные сущности не меняются: статус пишут только эти запросы
+        if (!approved.isEmpty()) {
+            bookingRepository.updateStatuses(ids(approved), BookingStatus.APPROVED);
+            itemBookingSummaryService.approveAll(approved, requestClock.now());
+        }
+        if (!rejected.isEmpty()) {
+            bookingRepository.updateStatuses(ids(rejected), BookingStatus.REJECTED);
+            rejected.forEach(bookingAvailabilityIndex::release);
+        }
+
+        List<BookingDecisionResultDto> results = new ArrayList<>(approvals.size());
+        approvals.forEach((bookingId, approve) -> {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.add(new BookingDecisionResultDto(bookingId, BookingDecisionResult.NOT_FOUND, null));
+            } else if (!ownedIds.contains(bookingId)) {
+                results.add(new BookingDecisionResultDto(bookingId, BookingDecisionResult.NOT_OWNER, null));
+            } else if (!waitingIds.contains(bookingId)) {
+                results.add(new BookingDecisionResultDto(bookingId, BookingDecisionResult.NOT_WAITING, null));
+            } else {
+                BookingResponseDto bookingResponseDto = BookingMapper.INSTANCE.toBookingResponseDto(booking);
+                bookingResponseDto.setStatus(approve ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+                results.add(new BookingDecisionResultDto(bookingId, BookingDecisionResult.APPLIED,
+                        bookingResponseDto));
+                eventPublisher.publishEvent(new BookingEvent(booking.getBooker().getId(), bookingResponseDto));
+            }
+        });
+        outboxService.appendAll(OutboxEventType.BOOKING_STATUS_CHANGED, results.stream()
+                        .map(BookingDecisionResultDto::getBooking)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()),
+                BookingResponseDto::getId);
+        return results;
+    }
+
+    private List<Long> ids(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
+
+    private CursorPage<BookingResponseDto> findBookingsAfter(BooleanExpression byUser, BookingState state,
+                                                             DateTimePath<LocalDateTime> sortKey,
+                                                             String after, Integer size) {
+        int limit = ValidPage.validateSize(size);
+        PageCursor cursor = PageCursor.decode(after);
+        BooleanExpression predicate = byUser.and(byState(state, requestClock.now()));
+        if (cursor != null) {
+            LocalDateTime key = cursor.getKeyAsDateTime();
+            predicate = predicate.and(sortKey.lt(key)
+                    .or(sortKey.eq(key).and(QBooking.booking.id.lt(cursor.getId()))));
+        }
+
+        boolean byStart = sortKey == QBooking.booking.start;
+        return CursorPage.of(bookingRepository.findAllResponses(predicate, PageRequest.of(0, limit),
+                        sortKey.desc(), QBooking.booking.id.desc()),
+                booking -> PageCursor.of(byStart ? booking.getStart() : booking.getEnd(), booking.getId()));
+    }
+
+    private BooleanExpression byState(BookingState state, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return null;
+            case CURRENT:
+                return QBooking.booking.archived.isFalse()
+                        .and(QBooking.booking.start.before(now))
+                        .and(QBooking.booking.end.after(now));
+            case PAST:
+                return QBooking.booking.end.before(now);
+            case FUTURE:
+                return QBooking.booking.archived.isFalse().and(QBooking.booking.end.after(now));
+            case WAITING:
+                return QBooking.booking.archived.isFalse().and(QBooking.booking.status.eq(BookingStatus.WAITING));
+            case REJECTED:
+                return QBooking.booking.status.eq(BookingStatus.REJECTED);
+            default:
+                throw new ValidationException("Unknown state: " + state);
         }
     }
 
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сводки бронирований вещей для их владельцев: последнее и следующее подтверждённые
+ * бронирования. Сводка создаётся вместе с вещью и обновляется при подтверждении
+ * бронирования, а когда следующее бронирование начинается, пересчитывается при первом
+ * чтении. Для вещей без сводки (добавленных в базу в обход сервиса) она собирается
+ * из бронирований при каждом чтении.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+
+    // Значение refresh_after у сводки, которую нужно пересчитать при следующем чтении
+    public static final LocalDateTime STALE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    public void create(Collection<Long> itemIds) {
+        itemBookingSummaryRepository.createAll(itemIds);
+    }
+
+    // Пересчитанные сводки сохраняются, поэтому вызывать нужно в транзакции на запись
+    public Map<Long, ItemBookingSummary> getSummaries(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Long> staleItemIds = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId) || summaries.get(itemId).isStale(now))
+                .collect(Collectors.toList());
+        if (staleItemIds.isEmpty()) {
+            return summaries;
+        }
+
+        Map<Long, Booking> lastBookings = groupFirstByItemId(
+                bookingRepository.findLastBookingsByItemIds(staleItemIds, BookingStatus.APPROVED, now));
+        Map<Long, Booking> nextBookings = groupFirstByItemId(
+                bookingRepository.findNextBookingsByItemIds(staleItemIds, BookingStatus.APPROVED, now));
+        for (Long itemId : staleItemIds) {
+            ItemBookingSummary summary = new ItemBookingSummary();
+            summary.setItemId(itemId);
+            setLastBooking(summary, lastBookings.get(itemId));
+            setNextBooking(summary, nextBookings.get(itemId));
+            summary.setRefreshAfter(summary.getNextBookingStart());
+
+            ItemBookingSummary stored = summaries.put(itemId, summary);
+            if (stored != null) {
+                // Если сводку уже изменило подтверждение или другое чтение, версия не совпадёт
+                // и пересчёт не сохранится: более свежая сводка в базе важнее
+                itemBookingSummaryRepository.rollForward(summary, stored.getVersion());
+            }
+        }
+        return summaries;
+    }
+
+    // Вызывается в транзакции подтверждения после сохранения бронирования.
+    // Блокировка строки не даёт параллельным подтверждениям затереть друг друга.
+    public void approve(Booking booking, LocalDateTime now) {
+        itemBookingSummaryRepository.findByItemIdForUpdate(booking.getItem().getId())
+                .ifPresent(summary -> apply(summary, booking, now));
+    }
+
+    // То же для пачки подтверждений: сводки всех вещей блокируются одним запросом
+    public void approveAll(List<Booking> bookings, LocalDateTime now) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllByItemIdInForUpdate(
+                        bookings.stream()
+                                .map(booking -> booking.getItem().getId())
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Booking booking : bookings) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (summary != null) {
+                apply(summary, booking, now);
+            }
+        }
+    }
+
+    // Бронирования пользователя удаляются вместе с ним, сводки с ними пересчитываются при чтении
+    public void invalidateBooker(Long bookerId) {
+        itemBookingSummaryRepository.markStaleByBookerId(bookerId, STALE);
+    }
+
+    private void apply(ItemBookingSummary summary, Booking booking, LocalDateTime now) {
+        if (booking.getStart().isBefore(now)) {
+            if (summary.getLastBookingEnd() == null || booking.getEnd().isAfter(summary.getLastBookingEnd())) {
+                setLastBooking(summary, booking);
+            }
+        } else if (booking.getStart().isAfter(now)) {
+            if (summary.getNextBookingStart() == null
+                    || booking.getStart().isBefore(summary.getNextBookingStart())) {
+                setNextBooking(summary, booking);
+            }
+            // Устаревшая сводка должна остаться устаревшей
+            if (summary.getRefreshAfter() == null || booking.getStart().isBefore(summary.getRefreshAfter())) {
+                summary.setRefreshAfter(booking.getStart());
+            }
+        }
+    }
+
+    private void setLastBooking(ItemBookingSummary summary, Booking booking) {
+        summary.setLastBookingId(booking == null ? null : booking.getId());
+        summary.setLastBookerId(booking == null ? null : booking.getBooker().getId());
+        summary.setLastBookingEnd(booking == null ? null : booking.getEnd());
+    }
+
+    private void setNextBooking(ItemBookingSummary summary, Booking booking) {
+        summary.setNextBookingId(booking == null ? null : booking.getId());
+        summary.setNextBookerId(booking == null ? null : booking.getBooker().getId());
+        summary.setNextBookingStart(booking == null ? null : booking.getStart());
+    }
+
+    private Map<Long, Booking> groupFirstByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first));
+    }
+
+}
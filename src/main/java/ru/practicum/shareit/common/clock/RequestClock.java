@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common.clock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * Текущее время, одно на весь HTTP-запрос: момент запоминается при первом обращении
+ * в запросе, и все проверки состояния бронирований в нём сравниваются с одним и тем же
+ * моментом. Вне HTTP-запроса (фоновые задачи) каждый вызов читает часы заново.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestClock {
+
+    private static final String NOW_ATTRIBUTE = RequestClock.class.getName() + ".now";
+
+    private final Clock clock;
+
+    public LocalDateTime now() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return LocalDateTime.now(clock);
+        }
+        LocalDateTime now = (LocalDateTime) attributes.getAttribute(NOW_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (now == null) {
+            now = LocalDateTime.now(clock);
+            attributes.setAttribute(NOW_ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        }
+        return now;
+    }
+
+}
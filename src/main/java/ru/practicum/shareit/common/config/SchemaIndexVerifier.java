@@ -0,0 +1,81 @@
+package ru.practicum.shareit.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.sql.DataSource;
+
+// Проверяет после миграций, что в схеме есть индексы, на которые рассчитаны запросы репозиториев.
+// Отсутствие индекса не ломает запросы, а превращает их в полное чтение таблицы, поэтому
+// приложение лучше не запускать вовсе.
+@Component
+@ConditionalOnProperty(name = "shareit.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final List<String> expectedIndexes = new ArrayList<>();
+
+    public SchemaIndexVerifier(DataSource dataSource,
+                               @Value("${shareit.schema.expected-indexes:}") List<String> expectedIndexes,
+                               @Value("${shareit.schema.expected-vendor-indexes:}") List<String> vendorIndexes) {
+        this.dataSource = dataSource;
+        this.expectedIndexes.addAll(expectedIndexes);
+        this.expectedIndexes.addAll(vendorIndexes);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        List<String> missingIndexes = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String expectedIndex : expectedIndexes) {
+                String[] tableAndIndex = expectedIndex.trim().split("\\.");
+                if (tableAndIndex.length != 2) {
+                    throw new IllegalStateException("Некорректное описание индекса: " + expectedIndex +
+                            ", ожидается формат таблица.индекс");
+                }
+                if (!findIndexes(connection, metaData, tableAndIndex[0]).contains(
+                        tableAndIndex[1].toLowerCase(Locale.ROOT))) {
+                    missingIndexes.add(expectedIndex.trim());
+                }
+            }
+        }
+
+        if (!missingIndexes.isEmpty()) {
+            throw new IllegalStateException("В схеме базы данных отсутствуют индексы: " + missingIndexes);
+        }
+        log.info("Проверка индексов схемы базы данных пройдена, проверено индексов: {}.", expectedIndexes.size());
+    }
+
+    private Set<String> findIndexes(Connection connection, DatabaseMetaData metaData, String table)
+            throws SQLException {
+        String tableName = metaData.storesUpperCaseIdentifiers()
+                ? table.toUpperCase(Locale.ROOT) : table.toLowerCase(Locale.ROOT);
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                tableName, false, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                if (indexName != null) {
+                    indexes.add(indexName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+
+}
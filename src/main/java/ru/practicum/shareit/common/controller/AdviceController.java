@@ -1,6 +1,11 @@
 package ru.practicum.shareit.common.controller;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -14,50 +19,98 @@ import ru.practicum.shareit.common.exception.NotFoundException;
 import ru.practicum.shareit.common.exception.NotSavedException;
 import ru.practicum.shareit.common.exception.ValidationException;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.validation.ConstraintViolationException;
 
 
 @RestControllerAdvice
 @Slf4j
 public class AdviceController {
+
+    // Постоянные тела ответов заданы константами. Сообщения 404 и 409 содержат id из запроса и собираются
+    // на каждый ответ: кэш по сообщению рос бы с каждым новым id, а поиск в нём стоит не меньше конкатенации
+    private static final String ERROR_PREFIX = "Ошибка: ";
+    private static final String OPTIMISTIC_LOCKING_FAILURE_BODY =
+            ERROR_PREFIX + "данные одновременно изменены другим запросом, повторите запрос.";
+    private static final String UNHANDLED_EXCEPTION_BODY = "Произошла непредвиденная ошибка.";
+
+    // Счётчик на каждый тип исключения создаётся один раз, а не ищется в реестре при каждой ошибке
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    public void setMeterRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public String handleNotSavedException(final NotSavedException e) {
-        log.debug("Ошибка: 409 CONFLICT {}", e.getMessage(), e);
-        return "Ошибка: " + e.getMessage();
+        count(e, HttpStatus.CONFLICT);
+        log.debug("Ошибка: 409 CONFLICT {}", e.getMessage());
+        return ERROR_PREFIX + e.getMessage();
+    }
+
+    // Запись с устаревшей версией (@Version): данные успел изменить параллельный запрос
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        count(e, HttpStatus.CONFLICT);
+        log.debug("Ошибка: 409 CONFLICT {}", e.getMessage());
+        return OPTIMISTIC_LOCKING_FAILURE_BODY;
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public String handleNotFoundException(final NotFoundException e) {
-        log.debug("Ошибка: 404 NOT_FOUND {}", e.getMessage(), e);
-        return "Ошибка: " + e.getMessage();
+        count(e, HttpStatus.NOT_FOUND);
+        log.debug("Ошибка: 404 NOT_FOUND {}", e.getMessage());
+        return ERROR_PREFIX + e.getMessage();
     }
 
     @ExceptionHandler({ValidationException.class, HttpMessageNotReadableException.class,
             MissingRequestHeaderException.class, MethodArgumentNotValidException.class,
-            MethodArgumentTypeMismatchException.class})
+            MethodArgumentTypeMismatchException.class, ConstraintViolationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationExceptions(final Exception e) {
+        count(e, HttpStatus.BAD_REQUEST);
         String message;
         if (e instanceof MethodArgumentNotValidException) {
             message = Objects.requireNonNull(Objects.requireNonNull(((MethodArgumentNotValidException) e)
                     .getFieldError()).getDefaultMessage());
+        } else if (e instanceof ConstraintViolationException
+                && !((ConstraintViolationException) e).getConstraintViolations().isEmpty()) {
+            message = ((ConstraintViolationException) e).getConstraintViolations().iterator().next().getMessage();
         } else if (e instanceof MethodArgumentTypeMismatchException
                 && ((MethodArgumentTypeMismatchException) e).getName().equals("state")) {
             message = "Unknown state: " + ((MethodArgumentTypeMismatchException) e).getValue();
         } else {
             message = e.getMessage();
         }
-        log.debug("Ошибка валидации: 400 BAD_REQUEST {}", message, e);
+        log.debug("Ошибка валидации: 400 BAD_REQUEST {}", message);
         return new ErrorResponse(message);
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public String handleAllUnhandledExceptions(final Throwable e) {
+        count(e, HttpStatus.INTERNAL_SERVER_ERROR);
         log.debug("Ошибка: 500 INTERNAL_SERVER_ERROR {}", e.getMessage(), e);
-        return "Произошла непредвиденная ошибка.";
+        return UNHANDLED_EXCEPTION_BODY;
+    }
+
+    private void count(Throwable e, HttpStatus status) {
+        MeterRegistry registry = meterRegistry == null ? null : meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        errorCounters.computeIfAbsent(e.getClass(), type -> Counter.builder("shareit.errors")
+                        .tag("status", String.valueOf(status.value()))
+                        .tag("exception", type.getSimpleName())
+                        .register(registry))
+                .increment();
     }
 
 }
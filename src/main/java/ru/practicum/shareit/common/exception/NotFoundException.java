@@ -1,9 +1,11 @@
 package ru.practicum.shareit.common.exception;
 
+// Ожидаемая ошибка клиента (например, неверный id от бота): стек вызовов не собирается,
+// для ответа и журнала достаточно сообщения
 public class NotFoundException extends RuntimeException {
 
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
@@ -1,9 +1,10 @@
 package ru.practicum.shareit.common.exception;
 
+// Конфликт с сохранёнными данными - ответ клиенту, а не сбой сервера, поэтому тоже без стека вызовов
 public class NotSavedException extends RuntimeException {
 
     public NotSavedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
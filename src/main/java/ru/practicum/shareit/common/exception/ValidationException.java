@@ -1,8 +1,9 @@
 package ru.practicum.shareit.common.exception;
 
+// Неверный запрос клиента, стек вызовов для него не нужен
 public class ValidationException extends RuntimeException {
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
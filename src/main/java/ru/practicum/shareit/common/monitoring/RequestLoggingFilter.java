@@ -0,0 +1,83 @@
+package ru.practicum.shareit.common.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.common.utils.Constants;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Журнал HTTP-запросов: одна строка на запрос с эндпоинтом, id пользователя, статусом,
+ * временем и числом SQL-запросов, без тел запросов и ответов. Пишется только доля запросов
+ * sample-rate, а ошибки сервера и медленные запросы - всегда. Тела ответов контроллеры
+ * пишут сами на уровне TRACE.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "shareit.request-log.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(@Value("${shareit.request-log.sample-rate:0.1}") double sampleRate,
+                                @Value("${shareit.request-log.slow-threshold:500ms}") Duration slowThreshold) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Доля журналируемых запросов должна быть от 0 до 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            // Исключение, вылетевшее из цепочки, контейнер превратит в 500
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            if (isLogged(status, nanos)) {
+                log(request, status, nanos);
+            }
+        }
+    }
+
+    private boolean isLogged(int status, long nanos) {
+        if (!log.isInfoEnabled()) {
+            return false;
+        }
+        return status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                || nanos >= slowThresholdNanos
+                || sampleRate >= 1
+                || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void log(HttpServletRequest request, int status, long nanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        SqlStatistics statistics = SqlStatistics.current();
+        log.info("{} {} пользователь = {}, статус = {}, время = {} мс, SQL-запросов = {}",
+                request.getMethod(), pattern != null ? pattern : request.getRequestURI(),
+                request.getHeader(Constants.HEADER_USER_ID), status, TimeUnit.NANOSECONDS.toMillis(nanos),
+                statistics != null ? statistics.getStatements() : "-");
+    }
+
+}
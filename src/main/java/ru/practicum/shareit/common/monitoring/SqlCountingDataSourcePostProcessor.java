@@ -0,0 +1,21 @@
+package ru.practicum.shareit.common.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+@ConditionalOnProperty(name = "shareit.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource) {
+            return SqlCountingProxy.wrap((DataSource) bean);
+        }
+        return bean;
+    }
+
+}
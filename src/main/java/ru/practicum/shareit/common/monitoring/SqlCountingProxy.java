@@ -0,0 +1,173 @@
+package ru.practicum.shareit.common.monitoring;
+
+import lombok.experimental.UtilityClass;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+// JDBC-обёртки, которые сообщают о выполненных запросах и прочитанных строках в SqlStatistics текущего потока
+@UtilityClass
+public class SqlCountingProxy {
+
+    // Источник данных оборачивается подклассом своего класса, чтобы обёртка оставалась, например,
+    // HikariDataSource для метрик пула и unwrap
+    public static DataSource wrap(DataSource dataSource) {
+        if (dataSource instanceof Advised) {
+            for (Advisor advisor : ((Advised) dataSource).getAdvisors()) {
+                if (advisor.getAdvice() instanceof ConnectionInterceptor) {
+                    return dataSource;
+                }
+            }
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(dataSource);
+        proxyFactory.setProxyTargetClass(!Modifier.isFinal(dataSource.getClass().getModifiers()));
+        proxyFactory.addAdvice(new ConnectionInterceptor());
+        return (DataSource) proxyFactory.getProxy(dataSource.getClass().getClassLoader());
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlCountingProxy.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private abstract static class DelegatingHandler<T> implements InvocationHandler {
+
+        protected final T target;
+
+        DelegatingHandler(T target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        protected Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        protected abstract Object handle(Method method, Object[] args) throws Throwable;
+
+    }
+
+    private static class ConnectionInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            if (result instanceof Connection) {
+                return SqlCountingProxy.proxy(Connection.class, new ConnectionHandler((Connection) result));
+            }
+            return result;
+        }
+
+    }
+
+    private static class ConnectionHandler extends DelegatingHandler<Connection> {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if (SqlStatistics.current() == null || !(result instanceof Statement)) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (result instanceof CallableStatement) {
+                return SqlCountingProxy.proxy(CallableStatement.class, new StatementHandler((Statement) result, sql));
+            }
+            if (result instanceof PreparedStatement) {
+                return SqlCountingProxy.proxy(PreparedStatement.class, new StatementHandler((Statement) result, sql));
+            }
+            return SqlCountingProxy.proxy(Statement.class, new StatementHandler((Statement) result, sql));
+        }
+
+    }
+
+    private static class StatementHandler extends DelegatingHandler<Statement> {
+
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return wrapResultSet(delegate(method, args));
+            }
+
+            long start = System.nanoTime();
+            try {
+                return wrapResultSet(delegate(method, args));
+            } finally {
+                SqlStatistics statistics = SqlStatistics.current();
+                if (statistics != null) {
+                    String executedSql = args != null && args.length > 0 && args[0] instanceof String
+                            ? (String) args[0] : sql;
+                    statistics.statementExecuted(executedSql, System.nanoTime() - start);
+                }
+            }
+        }
+
+        private Object wrapResultSet(Object result) {
+            if (result instanceof ResultSet) {
+                return SqlCountingProxy.proxy(ResultSet.class, new ResultSetHandler((ResultSet) result));
+            }
+            return result;
+        }
+
+    }
+
+    private static class ResultSetHandler extends DelegatingHandler<ResultSet> {
+
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        protected Object handle(Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlStatistics statistics = SqlStatistics.current();
+                if (statistics != null) {
+                    statistics.rowRead();
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
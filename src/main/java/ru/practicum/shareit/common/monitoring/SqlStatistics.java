@@ -0,0 +1,60 @@
+package ru.practicum.shareit.common.monitoring;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Счётчики SQL в рамках одного HTTP-запроса. Живут в ThreadLocal потока, обрабатывающего запрос,
+// поэтому обращения к базе из других потоков в них не попадают.
+@Getter
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long timeNanos;
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public long getTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(timeNanos);
+    }
+
+    // Один и тот же SQL, выполненный в запросе много раз, - типичный признак N+1
+    public Map<String, Integer> findRepeatedStatements(int threshold) {
+        return executions.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        timeNanos += nanos;
+        if (sql != null) {
+            executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.common.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "shareit.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final int statementBudget;
+    private final int repeatedStatementThreshold;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SqlStatisticsFilter(@Value("${shareit.sql.statement-budget:10}") int statementBudget,
+                               @Value("${shareit.sql.repeated-statement-threshold:3}") int repeatedStatementThreshold,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.statementBudget = statementBudget;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatistics.stop();
+            report(request, statistics);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+
+        if (statistics.getStatements() > statementBudget) {
+            log.warn("Запрос {} выполнил {} SQL-запросов при бюджете {}, прочитано строк: {}, время в базе: {} мс.",
+                    endpoint, statistics.getStatements(), statementBudget, statistics.getRows(),
+                    statistics.getTimeMillis());
+        }
+        Map<String, Integer> repeatedStatements = statistics.findRepeatedStatements(repeatedStatementThreshold);
+        if (!repeatedStatements.isEmpty()) {
+            log.warn("Возможная проблема N+1 в запросе {}: повторяющиеся SQL-запросы {}", endpoint, repeatedStatements);
+        }
+
+        meterRegistry.ifAvailable(registry -> {
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("shareit.sql.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statistics.getStatements());
+            DistributionSummary.builder("shareit.sql.rows")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statistics.getRows());
+            Timer.builder("shareit.sql.time")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statistics.getTimeNanos(), TimeUnit.NANOSECONDS);
+        });
+    }
+
+}
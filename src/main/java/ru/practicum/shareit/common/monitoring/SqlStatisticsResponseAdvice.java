@@ -0,0 +1,36 @@
+package ru.practicum.shareit.common.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.practicum.shareit.common.utils.Constants;
+
+// Заголовки выставляются перед записью тела ответа, пока ответ ещё не отправлен клиенту
+@RestControllerAdvice
+@ConditionalOnProperty(name = "shareit.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(Constants.HEADER_SQL_STATEMENTS, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(Constants.HEADER_SQL_ROWS, String.valueOf(statistics.getRows()));
+            response.getHeaders().set(Constants.HEADER_SQL_TIME, String.valueOf(statistics.getTimeMillis()));
+        }
+        return body;
+    }
+
+}
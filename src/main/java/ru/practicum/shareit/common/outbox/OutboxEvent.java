@@ -0,0 +1,38 @@
+package ru.practicum.shareit.common.outbox;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import javax.persistence.*;
+
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "outbox_events", schema = "public")
+@NoArgsConstructor
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventType type;
+
+    // Тело события в JSON: DTO, которое вернул бы REST API
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.common.outbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Тип события и сущность, к которой оно относится. Отзыв меняет карточку вещи, поэтому его событие - событие вещи
+@Getter
+@RequiredArgsConstructor
+public enum OutboxEventType {
+
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_STATUS_CHANGED("BOOKING"),
+    ITEM_CREATED("ITEM"),
+    ITEM_UPDATED("ITEM"),
+    COMMENT_ADDED("ITEM"),
+    ITEM_REQUEST_MATCHED("REQUEST"),
+    USER_CREATED("USER"),
+    USER_UPDATED("USER"),
+    // Вместе с пользователем удаляются его вещи, бронирования и отзывы, отдельных событий о них нет
+    USER_DELETED("USER");
+
+    private final String aggregateType;
+
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Ретранслятор исходящих событий: забирает из outbox_events самые старые события пачками
+ * в порядке id, передаёт каждую пачку всем приёмникам и удаляет её в той же транзакции.
+ * Доставка "хотя бы один раз": если приёмник упал или удаление не закоммитилось, пачка
+ * останется в таблице и будет отправлена всем приёмникам снова при следующем запуске.
+ * Без приёмников OutboxService событий не пишет, а оставшиеся с прежнего запуска события
+ * не отправляются и видны по метрике shareit.outbox.lag.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    // Null, если реестра метрик нет в контексте
+    private final Counter relayed;
+    private final Counter failures;
+    // Возраст самого старого неотправленного события после последнего запуска
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository, ObjectProvider<OutboxSink> sinks,
+                       PlatformTransactionManager transactionManager, Clock clock,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${shareit.outbox.relay.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки исходящих событий должен быть положительным: "
+                    + batchSize);
+        }
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks.orderedStream().collect(Collectors.toList());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.batchSize = batchSize;
+        if (this.sinks.isEmpty()) {
+            log.warn("Не настроен ни один приёмник исходящих событий, события не записываются и не отправляются.");
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            this.relayed = null;
+            this.failures = null;
+            return;
+        }
+        this.relayed = Counter.builder("shareit.outbox.relayed")
+                .register(registry);
+        this.failures = Counter.builder("shareit.outbox.failures")
+                .register(registry);
+        Gauge.builder("shareit.outbox.lag", this, OutboxRelay::getLagSeconds)
+                .description("Возраст самого старого неотправленного события, секунды")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay.interval:1s}")
+    public int relay() {
+        int total = 0;
+        if (!sinks.isEmpty()) {
+            try {
+                int relayedInBatch;
+                do {
+                    relayedInBatch = transactionTemplate.execute(status -> relayBatch());
+                    count(relayed, relayedInBatch);
+                    total += relayedInBatch;
+                } while (relayedInBatch == batchSize);
+            } catch (RuntimeException e) {
+                count(failures, 1);
+                log.warn("Не удалось отправить исходящие события, повтор при следующем запуске: {}", e.toString());
+            }
+        }
+        updateLag();
+        return total;
+    }
+
+    public double getLagSeconds() {
+        return lagMillis.get() / 1000.0;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findBatchForUpdate(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        outboxRepository.deleteAllByIdInBatch(events.stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList()));
+        return events.size();
+    }
+
+    private void count(Counter counter, double amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+
+    private void updateLag() {
+        LocalDateTime oldest = outboxRepository.findFirstByOrderByIdAsc()
+                .map(OutboxEvent::getCreatedAt)
+                .orElse(null);
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now(clock)).toMillis()));
+    }
+
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common.outbox;
+
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Ретранслятор на другом узле ждёт коммита этой пачки и уже не увидит удалённые из неё события
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent as e order by e.id")
+    List<OutboxEvent> findBatchForUpdate(Pageable page);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.clock.RequestClock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Запись исходящих событий в таблицу outbox_events. Событие сохраняется в транзакции самого
+ * изменения, поэтому внешние системы узнают об изменении тогда и только тогда, когда оно
+ * закоммичено. Отправляет события OutboxRelay. Если не настроен ни один приёмник, события
+ * не записываются: отправить их некому, и таблица росла бы без ограничений.
+ */
+@Component
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final RequestClock requestClock;
+    private final boolean enabled;
+
+    public OutboxService(OutboxRepository outboxRepository, ObjectMapper objectMapper, RequestClock requestClock,
+                         ObjectProvider<OutboxSink> sinks) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.requestClock = requestClock;
+        this.enabled = sinks.stream().findAny().isPresent();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Long aggregateId, Object payload) {
+        if (!enabled) {
+            return;
+        }
+        outboxRepository.save(toEvent(type, aggregateId, payload, requestClock.now()));
+    }
+
+    // События пачки вставляются пакетами JDBC, как и сами сущности
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void appendAll(OutboxEventType type, List<T> payloads, Function<T, Long> aggregateId) {
+        if (!enabled || payloads.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = requestClock.now();
+        outboxRepository.saveAll(payloads.stream()
+                .map(payload -> toEvent(type, aggregateId.apply(payload), payload, now))
+                .collect(Collectors.toList()));
+    }
+
+    private OutboxEvent toEvent(OutboxEventType type, Long aggregateId, Object payload, LocalDateTime now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(type.getAggregateType());
+        event.setAggregateId(aggregateId);
+        event.setType(type);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось записать событие " + type + " для id = " + aggregateId, e);
+        }
+        event.setCreatedAt(now);
+        return event;
+    }
+
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.common.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Приёмник исходящих событий. Пачка приходит в порядке id, то есть в порядке записи событий на всех
+ * узлах; событие из долгой транзакции может прийти позже событий с большими id. После сбоя пачка
+ * может прийти снова, поэтому повторы нужно отбрасывать по id события.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws IOException;
+
+}
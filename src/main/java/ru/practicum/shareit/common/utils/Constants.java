@@ -8,6 +8,11 @@ import java.time.format.DateTimeFormatter;
 public class Constants {
 
     public static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String HEADER_SQL_STATEMENTS = "X-Sql-Statements";
+    public static final String HEADER_SQL_ROWS = "X-Sql-Rows";
+    public static final String HEADER_SQL_TIME = "X-Sql-Time-Ms";
+    public static final int MAX_BATCH_SIZE = 500;
     public static final String PATTERN_FOR_DATETIME = "yyyy-MM-dd'T'HH:mm:ss.SS";
     public static final DateTimeFormatter FORMATTER_FOR_DATETIME = DateTimeFormatter.ofPattern(PATTERN_FOR_DATETIME);
 
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.common.utils;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    // rows выбираются с запасом в одну запись: её наличие означает, что следующая страница существует
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, PageCursor> cursor,
+                                          Function<List<E>, List<T>> mapper) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(mapper.apply(rows), null);
+        }
+        List<E> page = rows.subList(0, size);
+        return new CursorPage<>(mapper.apply(page), cursor.apply(page.get(size - 1)).encode());
+    }
+
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, PageCursor> cursor) {
+        List<T> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return new CursorPage<>(content, null);
+        }
+        return new CursorPage<>(content, cursor.apply(content.get(content.size() - 1)).encode());
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(Constants.HEADER_NEXT_CURSOR, nextCursor);
+        }
+        return response.body(content);
+    }
+
+}
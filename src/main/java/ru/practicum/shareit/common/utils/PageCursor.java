@@ -0,0 +1,76 @@
+package ru.practicum.shareit.common.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.common.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Курсор постраничной выдачи: значение ключа сортировки и id последней записи страницы.
+// Клиенту передаётся в виде непрозрачной строки.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String key;
+    private final Long id;
+
+    public static PageCursor of(Object key, Long id) {
+        return new PageCursor(String.valueOf(key), id);
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new PageCursor(value.substring(0, separator), Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw invalidCursor(cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeException e) {
+            throw invalidCursor(encode());
+        }
+    }
+
+    public Instant getKeyAsInstant() {
+        try {
+            return Instant.parse(key);
+        } catch (DateTimeException e) {
+            throw invalidCursor(encode());
+        }
+    }
+
+    public double getKeyAsDouble() {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw invalidCursor(encode());
+        }
+    }
+
+    private static ValidationException invalidCursor(String cursor) {
+        return new ValidationException("Некорректное значение параметра after: " + cursor);
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.common.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@UtilityClass
+public class TransactionHooks {
+
+    // Действие выполняется после коммита текущей транзакции, а вне транзакции - сразу.
+    // Регистрировать его нужно до коммита: зарегистрированное из другого afterCommit уже не вызовется
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -9,10 +9,15 @@ public class ValidPage {
         if (from < 0) {
             throw new ValidationException("Параметр from не может быть меньше 0.");
         }
+        validateSize(size);
+        return PageRequest.of(from > 0 ? from / size : 0, size);
+    }
+
+    public static int validateSize(Integer size) {
         if (size <= 0) {
             throw new ValidationException("Параметр size должен быть положительным.");
         }
-        return PageRequest.of(from > 0 ? from / size : 0, size);
+        return size;
     }
 
 }
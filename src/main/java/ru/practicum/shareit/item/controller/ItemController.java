@@ -1,61 +1,151 @@
 package ru.practicum.shareit.item.controller;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.common.utils.CursorPage;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.service.ItemCard;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
+@Validated
 @RequestMapping("/items")
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @GetMapping
     public List<ItemDto> getAllItemsByUser(@RequestHeader(Constants.HEADER_USER_ID) Long userId,
                                            @RequestParam(defaultValue = "0") Integer from,
                                            @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Запрос на получение всех вещей для пользователя с id = " + userId);
         List<ItemDto> items = itemService.getAllItemsByUser(userId, from, size);
-        log.info("Ответ на получение всех вещей для пользователя с id = " + userId + ": " + items);
+        log.debug("Получен список вещей пользователя с id = {}, количество = {}.", userId, items.size());
+        log.trace("Вещи пользователя с id = {}: {}", userId, items);
         return items;
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<List<ItemDto>> getAllItemsByUserAfter(@RequestHeader(Constants.HEADER_USER_ID) Long userId,
+                                                                @RequestParam String after,
+                                                                @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<ItemDto> page = itemService.getAllItemsByUserAfter(userId, after, size);
+        log.debug("Получена страница вещей пользователя с id = {}, количество = {}.",
+                userId, page.getContent().size());
+        log.trace("Вещи пользователя с id = {}: {}", userId, page.getContent());
+        return page.toResponseEntity();
+    }
+
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@PathVariable Long itemId, @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
-        log.info("Запрос на получение информации по вещи с  id = " + itemId);
-        ItemDto item = itemService.getItemById(itemId, userId);
-        log.info("Ответ на получение информации по вещи с  id = " + itemId + ": " + item);
+    public ItemDto getItemById(@PathVariable Long itemId, @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+                               WebRequest request) {
+        // Версии отдельным запросом читаются только для условного запроса: при совпадении
+        // If-None-Match ответ 304 отдаётся без сборки карточки. Иначе тег берётся из самой карточки
+        boolean conditional = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (conditional) {
+            String tag = itemService.getItemTag(itemId, userId);
+            if (tag != null && request.checkNotModified(tag)) {
+                log.debug("Вещь с id = {} для пользователя с id = {} не изменилась.", itemId, userId);
+                return null;
+            }
+        }
+        ItemCard card = itemService.getItemCard(itemId, userId);
+        if (!conditional && card.getTag() != null) {
+            request.checkNotModified(card.getTag());
+        }
+        ItemDto item = card.getItem();
+        log.debug("Получена вещь с id = {} для пользователя с id = {}.", itemId, userId);
+        log.trace("Вещь с id = {}: {}", itemId, item);
         return item;
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityWindowDto> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam @DateTimeFormat(pattern = Constants.PATTERN_FOR_BOOKING) LocalDateTime from,
+            @RequestParam @DateTimeFormat(pattern = Constants.PATTERN_FOR_BOOKING) LocalDateTime to) {
+        List<AvailabilityWindowDto> windows = itemService.getItemAvailability(itemId, from, to);
+        log.debug("Получены свободные периоды вещи с id = {} с {} по {}, количество = {}.",
+                itemId, from, to, windows.size());
+        log.trace("Свободные периоды вещи с id = {}: {}", itemId, windows);
+        return windows;
+    }
+
+    @GetMapping("/{itemId}/matching-requests")
+    public List<ItemRequestDto> getMatchingRequests(@PathVariable Long itemId,
+                                                    @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+                                                    @RequestParam(defaultValue = "10") Integer size) {
+        List<ItemRequestDto> itemRequests = itemService.getMatchingRequests(itemId, userId, size);
+        log.debug("Получены открытые запросы, подходящие под вещь с id = {}, количество = {}.",
+                itemId, itemRequests.size());
+        log.trace("Запросы, подходящие под вещь с id = {}: {}", itemId, itemRequests);
+        return itemRequests;
+    }
+
     @PostMapping
     @Validated
     public ItemDto createItem(@Valid @RequestBody ItemDto itemDto,
                               @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
-        log.info("Запрос на создание вещи: " + itemDto + " для пользователя с id = " + userId);
         ItemDto createdItem = itemService.createItem(itemDto, userId);
-        log.info("Ответ на создание вещи: " + createdItem);
+        log.debug("Добавлена вещь с id = {} пользователя с id = {}.", createdItem.getId(), userId);
+        log.trace("Добавлена вещь: {}", createdItem);
         return createdItem;
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(
+            @RequestBody @NotEmpty(message = "Список вещей не может быть пустым.")
+            @Size(max = Constants.MAX_BATCH_SIZE, message = "За один запрос можно создать не больше "
+                    + Constants.MAX_BATCH_SIZE + " вещей.") List<@Valid ItemDto> itemDtos,
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
+        List<ItemDto> createdItems = itemService.createItems(itemDtos, userId);
+        log.debug("Добавлены вещи пользователя с id = {}, количество = {}.", userId, createdItems.size());
+        log.trace("Добавлены вещи: {}", createdItems);
+        return createdItems;
+    }
+
+    // Тело не собирается в список целиком: строки читаются и сохраняются пачками по мере поступления
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ItemImportDto importItems(InputStream body,
+                                     @RequestHeader(Constants.HEADER_USER_ID) Long userId) throws IOException {
+        ItemImportDto result = itemImportService.importItems(body, userId);
+        log.debug("Импортированы вещи пользователя с id = {}: создано {}, отклонено {}.",
+                userId, result.getCreated(), result.getRejected());
+        return result;
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@PathVariable Long itemId, @RequestBody ItemDto itemDto,
                               @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
-        log.info("Запрос на обновление вещи: " + itemDto + " для пользователя с id = " + userId);
         ItemDto updatedItem = itemService.updateItem(itemId, itemDto, userId);
-        log.info("Ответ на обновление вещи: " + updatedItem);
+        log.debug("Обновлена вещь с id = {} пользователя с id = {}.", itemId, userId);
+        log.trace("Обновлена вещь: {}", updatedItem);
         return updatedItem;
     }
 
@@ -64,21 +154,33 @@ public class ItemController {
                                    @RequestHeader(Constants.HEADER_USER_ID) Long userId,
                                    @RequestParam(defaultValue = "0") Integer from,
                                    @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Получен запрос на поиск вещей");
         List<ItemDto> items = itemService.findItems(text, userId, from, size);
-        log.info("Ответ на поиск вещей: " + items);
+        log.debug("Найдены вещи для пользователя с id = {}, количество = {}.", userId, items.size());
+        log.trace("Найдены вещи: {}", items);
         return items;
     }
 
+    @GetMapping(path = "/search", params = "after")
+    public ResponseEntity<List<ItemDto>> findItemsAfter(@RequestParam String text,
+                                                        @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+                                                        @RequestParam String after,
+                                                        @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<ItemDto> page = itemService.findItemsAfter(text, userId, after, size);
+        log.debug("Найдена страница вещей для пользователя с id = {}, количество = {}.",
+                userId, page.getContent().size());
+        log.trace("Найдены вещи: {}", page.getContent());
+        return page.toResponseEntity();
+    }
+
     @PostMapping("/{itemId}/comment")
     @Validated
     public CommentDto saveComment(@Valid @RequestBody CommentDto commentDto,
                                   @RequestHeader(Constants.HEADER_USER_ID) Long userId,
                                   @PathVariable Long itemId) {
-        log.info("Получен запрос на сохранение комментария");
         commentDto = itemService.saveComment(commentDto, itemId, userId);
-        log.info("Добавлен новый комментарий: {} \n пользователем с id = {} для вещи с id = {}.",
-                commentDto, userId, itemId);
+        log.debug("Добавлен комментарий с id = {} пользователем с id = {} для вещи с id = {}.",
+                commentDto.getId(), userId, itemId);
+        log.trace("Добавлен комментарий: {}", commentDto);
         return commentDto;
     }
 
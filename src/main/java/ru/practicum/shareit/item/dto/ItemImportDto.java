@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ItemImportDto {
+
+    private int created;
+    private int rejected;
+    // false, если разбор прервался на синтаксической ошибке и оставшиеся строки не прочитаны
+    private boolean completed = true;
+    private List<ItemImportRowDto> rows = new ArrayList<>();
+
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Результат импорта одной строки: id созданной вещи или причина отказа
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportRowDto {
+
+    private int row;
+    private Long itemId;
+    private String error;
+
+    public static ItemImportRowDto created(int row, Long itemId) {
+        return new ItemImportRowDto(row, itemId, null);
+    }
+
+    public static ItemImportRowDto rejected(int row, String error) {
+        return new ItemImportRowDto(row, null, error);
+    }
+
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.mapper;
 import ru.practicum.shareit.booking.dto.BookingOwnerDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
@@ -36,18 +37,48 @@ public interface ItemMapper {
     @Mapping(target = "comments", source = "comments")
     ItemOwnerDto toItemOwnerDto(Item item, Booking lastBooking, Booking nextBooking, List<Comment> comments);
 
+    @Mapping(target = "id", source = "item.id")
+    @Mapping(target = "lastBooking", source = "summary", qualifiedByName = "SummaryToLastBooking")
+    @Mapping(target = "nextBooking", source = "summary", qualifiedByName = "SummaryToNextBooking")
+    @Mapping(target = "comments", source = "comments")
+    ItemOwnerDto toItemOwnerDto(Item item, ItemBookingSummary summary, List<Comment> comments);
+
     @Named("BookingToBookingOwnerDto")
     static BookingOwnerDto toBookingOwnerDto(Booking booking) {
         return BookingMapper.INSTANCE.toBookingOwnerDto(booking);
     }
 
+    @Named("SummaryToLastBooking")
+    static BookingOwnerDto toLastBooking(ItemBookingSummary summary) {
+        if (summary == null || summary.getLastBookingId() == null) {
+            return null;
+        }
+        BookingOwnerDto booking = new BookingOwnerDto();
+        booking.setId(summary.getLastBookingId());
+        booking.setBookerId(summary.getLastBookerId());
+        return booking;
+    }
+
+    @Named("SummaryToNextBooking")
+    static BookingOwnerDto toNextBooking(ItemBookingSummary summary) {
+        if (summary == null || summary.getNextBookingId() == null) {
+            return null;
+        }
+        BookingOwnerDto booking = new BookingOwnerDto();
+        booking.setId(summary.getNextBookingId());
+        booking.setBookerId(summary.getNextBookerId());
+        return booking;
+    }
+
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "name", source = "itemDto.name")
     @Mapping(target = "request", ignore = true)
     @Mapping(target = "owner", source = "owner")
     Item toItem(ItemDto itemDto, User owner);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "name", source = "itemDto.name")
     @Mapping(target = "description", source = "itemDto.description")
     @Mapping(target = "request", source = "itemRequest")
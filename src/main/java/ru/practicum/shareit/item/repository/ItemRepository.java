@@ -3,9 +3,14 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -14,10 +19,61 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerId(Long userId, Pageable page);
 
-    @Query("select i from Item i " +
-            "where i.available = true " +
-            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text, Pageable page);
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable page);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query(value = "select i.id, " +
+            "ts_rank(setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B'), to_tsquery('simple', ?1)) as rank " +
+            "from items as i " +
+            "where i.is_available = true " +
+            "and to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', ?1) " +
+            "order by rank desc, i.id", nativeQuery = true)
+    List<Object[]> fullTextSearch(String query, Pageable page);
+
+    @Query(value = "select i.id, " +
+            "ts_rank(setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B'), to_tsquery('simple', ?1)) as rank " +
+            "from items as i " +
+            "where i.is_available = true and i.owner_id <> ?2 " +
+            "and to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', ?1) " +
+            "order by rank desc, i.id", nativeQuery = true)
+    List<Object[]> fullTextSearchExcludingOwner(String query, Long ownerId, Pageable page);
+
+    @Query(value = "select hits.id, hits.rank from (" +
+            "select i.id, " +
+            "ts_rank(setweight(to_tsvector('simple', i.name), 'A') || " +
+            "setweight(to_tsvector('simple', i.description), 'B'), to_tsquery('simple', ?1)) as rank " +
+            "from items as i " +
+            "where i.is_available = true " +
+            "and to_tsvector('simple', i.name || ' ' || i.description) @@ to_tsquery('simple', ?1)) as hits " +
+            "where hits.rank < ?2 or (hits.rank = ?2 and hits.id > ?3) " +
+            "order by hits.rank desc, hits.id " +
+            "limit ?4", nativeQuery = true)
+    List<Object[]> fullTextSearchAfter(String query, double rank, Long id, int limit);
+
+    // Вещь блокируется до конца транзакции: бронирования одной вещи проверяют пересечение по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    // Версии вещи и её сводки бронирований для ETag одним запросом: владелец, версия вещи,
+    // версия сводки и момент её пересчёта
+    @Query("select i.owner.id, i.version, s.version, s.refreshAfter from Item as i " +
+            "left join ItemBookingSummary as s on s.itemId = i.id " +
+            "where i.id = ?1")
+    List<Object[]> findVersions(Long itemId);
+
+    // Новый отзыв меняет карточку вещи, но не саму вещь
+    @Modifying
+    @Query("update Item as i set i.version = i.version + 1 where i.id = ?1")
+    void incrementVersion(Long itemId);
+
+    // Имя автора входит в отзывы, поэтому его изменение меняет карточки вещей, которые он комментировал
+    @Modifying
+    @Query("update Item as i set i.version = i.version + 1 " +
+            "where i.id in (select c.item.id from Comment as c where c.author.id = ?1)")
+    void incrementVersionsCommentedBy(Long authorId);
 
 }
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.common.utils.TextTokenizer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile({"ci", "test"})
+@RequiredArgsConstructor
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final ItemRepository itemRepository;
+
+    private final ConcurrentNavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedItem> documents = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        itemRepository.findAll().forEach(this::index);
+    }
+
+    @Override
+    public List<ItemSearchHit> search(String text, Pageable page) {
+        return rank(text, true, null)
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemSearchHit> searchAfter(String text, ItemSearchHit after, int limit) {
+        return rank(text, true, null)
+                .filter(hit -> after == null || hit.getRank() < after.getRank() ||
+                        (hit.getRank() == after.getRank() && hit.getItemId() > after.getItemId()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemSearchHit> searchAny(String text, Long excludedOwnerId, Pageable page) {
+        return rank(text, false, excludedOwnerId)
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void index(Item item) {
+        IndexedItem previous = documents.remove(item.getId());
+        if (previous != null) {
+            previous.tokens().forEach(token -> removePosting(token, item.getId()));
+        }
+
+        IndexedItem document = new IndexedItem(
+                new HashSet<>(TextTokenizer.tokenize(item.getName())),
+                new HashSet<>(TextTokenizer.tokenize(item.getDescription())),
+                Boolean.TRUE.equals(item.getAvailable()),
+                item.getOwner() == null ? null : item.getOwner().getId());
+        document.tokens().forEach(token -> postings
+                .computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet())
+                .add(item.getId()));
+        documents.put(item.getId(), document);
+    }
+
+    // allTerms = true - вещь должна содержать все слова запроса, false - хотя бы одно
+    private Stream<ItemSearchHit> rank(String text, boolean allTerms, Long excludedOwnerId) {
+        List<String> terms = TextTokenizer.tokenize(text);
+        if (terms.isEmpty()) {
+            return Stream.empty();
+        }
+
+        Map<Long, Double> ranks = null;
+        for (String term : terms) {
+            Map<Long, Double> termRanks = rankTerm(term, excludedOwnerId);
+            if (ranks == null) {
+                ranks = termRanks;
+            } else if (allTerms) {
+                ranks.keySet().retainAll(termRanks.keySet());
+                ranks.replaceAll((itemId, rank) -> rank + termRanks.get(itemId));
+            } else {
+                for (Map.Entry<Long, Double> termRank : termRanks.entrySet()) {
+                    ranks.merge(termRank.getKey(), termRank.getValue(), Double::sum);
+                }
+            }
+            if (allTerms && ranks.isEmpty()) {
+                return Stream.empty();
+            }
+        }
+
+        return ranks.entrySet()
+                .stream()
+                .map(entry -> new ItemSearchHit(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(ItemSearchHit::getRank).reversed()
+                        .thenComparing(ItemSearchHit::getItemId));
+    }
+
+    private Map<Long, Double> rankTerm(String term, Long excludedOwnerId) {
+        Map<Long, Double> ranks = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> posting : postings
+                .subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            for (Long itemId : posting.getValue()) {
+                IndexedItem document = documents.get(itemId);
+                if (document == null || !document.available
+                        || (excludedOwnerId != null && excludedOwnerId.equals(document.ownerId))) {
+                    continue;
+                }
+                double weight = document.nameTokens.contains(posting.getKey()) ? NAME_WEIGHT : DESCRIPTION_WEIGHT;
+                ranks.merge(itemId, weight, Math::max);
+            }
+        }
+        return ranks;
+    }
+
+    private void removePosting(String token, Long itemId) {
+        Set<Long> itemIds = postings.get(token);
+        if (itemIds != null) {
+            itemIds.remove(itemId);
+            if (itemIds.isEmpty()) {
+                postings.remove(token, itemIds);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class IndexedItem {
+
+        private final Set<String> nameTokens;
+        private final Set<String> descriptionTokens;
+        private final boolean available;
+        private final Long ownerId;
+
+        private Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(nameTokens);
+            tokens.addAll(descriptionTokens);
+            return tokens;
+        }
+
+    }
+
+}
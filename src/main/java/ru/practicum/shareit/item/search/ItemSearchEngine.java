@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+
+public interface ItemSearchEngine {
+
+    List<ItemSearchHit> search(String text, Pageable page);
+
+    // Следующие limit совпадений после after в порядке (rank desc, id asc); after == null - с начала выдачи
+    List<ItemSearchHit> searchAfter(String text, ItemSearchHit after, int limit);
+
+    // Вещи, в которых встречается хотя бы одно слово из text, кроме вещей владельца excludedOwnerId,
+    // в порядке (rank desc, id asc)
+    List<ItemSearchHit> searchAny(String text, Long excludedOwnerId, Pageable page);
+
+    void index(Item item);
+
+}
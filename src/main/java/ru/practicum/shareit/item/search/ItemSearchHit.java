@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ItemSearchHit {
+
+    private Long itemId;
+    private double rank;
+
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.common.utils.TextTokenizer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("!ci & !test")
+@RequiredArgsConstructor
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemSearchHit> search(String text, Pageable page) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return toHits(itemRepository.fullTextSearch(query, page));
+    }
+
+    @Override
+    public List<ItemSearchHit> searchAfter(String text, ItemSearchHit after, int limit) {
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (after == null) {
+            return toHits(itemRepository.fullTextSearch(query, PageRequest.of(0, limit)));
+        }
+
+        return toHits(itemRepository.fullTextSearchAfter(query, after.getRank(), after.getItemId(), limit));
+    }
+
+    @Override
+    public List<ItemSearchHit> searchAny(String text, Long excludedOwnerId, Pageable page) {
+        String query = toTsQuery(text, " | ");
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return toHits(itemRepository.fullTextSearchExcludingOwner(query, excludedOwnerId, page));
+    }
+
+    @Override
+    public void index(Item item) {
+        // tsvector-индекс items поддерживается самой базой данных
+    }
+
+    private String toTsQuery(String text) {
+        return toTsQuery(text, " & ");
+    }
+
+    private String toTsQuery(String text, String operator) {
+        return TextTokenizer.tokenize(text)
+                .stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(operator));
+    }
+
+    private List<ItemSearchHit> toHits(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new ItemSearchHit(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue()))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+// Карточка вещи вместе с ETag, собранным из версий, прочитанных для неё же
+@Getter
+@RequiredArgsConstructor
+public class ItemCard {
+
+    private final ItemDto item;
+    private final String tag;
+
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.exception.ItemNotSavedException;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+/**
+ * Импорт вещей из JSON-массива или NDJSON. Тело запроса читается потоково, по одной вещи,
+ * проверенные строки копятся в пачку из chunkSize вещей, и каждая пачка сохраняется
+ * отдельной транзакцией через ItemService.createItems. Ошибка в строке отклоняет только её,
+ * ошибка сохранения - только её пачку; уже сохранённые пачки не откатываются.
+ */
+@Service
+@Slf4j
+public class ItemImportService {
+
+    private final ItemService itemService;
+    private final UserCache userCache;
+    private final Validator validator;
+    private final ObjectReader reader;
+    private final int chunkSize;
+
+    public ItemImportService(ItemService itemService, UserCache userCache, Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.items.import.chunk-size:500}") int chunkSize) {
+        this.itemService = itemService;
+        this.userCache = userCache;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(ItemDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public ItemImportDto importItems(InputStream body, Long userId) throws IOException {
+        userCache.checkExists(userId);
+
+        ItemImportDto result = new ItemImportDto();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<ItemDto> rows = reader.readValues(body)) {
+            int row = 0;
+            while (true) {
+                row++;
+                ItemDto itemDto;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    itemDto = rows.nextValue();
+                } catch (JsonParseException e) {
+                    reject(result, row, "Ошибка разбора JSON: " + e.getOriginalMessage());
+                    result.setCompleted(false);
+                    break;
+                } catch (JsonMappingException e) {
+                    // Разбор продолжается со следующей строки
+                    reject(result, row, "Некорректные данные вещи: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String error = validate(itemDto);
+                if (error != null) {
+                    reject(result, row, error);
+                    continue;
+                }
+                chunk.add(new Row(row, itemDto));
+                if (chunk.size() == chunkSize) {
+                    save(result, chunk, userId);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            save(result, chunk, userId);
+        }
+
+        result.getRows().sort(Comparator.comparingInt(ItemImportRowDto::getRow));
+        log.info("Импорт вещей для пользователя с id = {}: создано {}, отклонено {}", userId,
+                result.getCreated(), result.getRejected());
+        return result;
+    }
+
+    private void save(ItemImportDto result, List<Row> chunk, Long userId) {
+        List<ItemDto> savedItems;
+        try {
+            savedItems = itemService.createItems(chunk.stream()
+                    .map(row -> row.itemDto)
+                    .collect(Collectors.toList()), userId);
+        } catch (ItemNotSavedException e) {
+            chunk.forEach(row -> reject(result, row.row, e.getMessage()));
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            result.getRows().add(ItemImportRowDto.created(chunk.get(i).row, savedItems.get(i).getId()));
+        }
+        result.setCreated(result.getCreated() + chunk.size());
+    }
+
+    // Те же ограничения, что и для POST /items
+    private String validate(ItemDto itemDto) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private void reject(ItemImportDto result, int row, String error) {
+        result.getRows().add(ItemImportRowDto.rejected(row, error));
+        result.setRejected(result.getRejected() + 1);
+    }
+
+    @RequiredArgsConstructor
+    private static class Row {
+
+        private final int row;
+        private final ItemDto itemDto;
+
+    }
+
+}
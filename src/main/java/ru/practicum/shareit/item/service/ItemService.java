@@ -2,11 +2,19 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.exception.CommentNotSavedException;
+import ru.practicum.shareit.common.clock.RequestClock;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
+import ru.practicum.shareit.common.utils.TransactionHooks;
 import ru.practicum.shareit.common.utils.ValidPage;
 import ru.practicum.shareit.item.exception.*;
 import ru.practicum.shareit.common.exception.ValidationException;
@@ -16,17 +24,27 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.exception.UserNotFoundException;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 import ru.practicum.shareit.comment.model.Comment;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
@@ -39,39 +57,119 @@ import org.springframework.data.domain.Sort;
 @RequiredArgsConstructor
 public class ItemService {
 
+    private static final int NOTIFIED_MATCHING_REQUESTS = 10;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final RequestClock requestClock;
+    private final OutboxService outboxService;
 
+    // Ленты и карточка вещи владельца сохраняют пересчитанные сводки бронирований, поэтому транзакция на запись
+    @Transactional
     public List<ItemDto> getAllItemsByUser(Long userId, Integer from, Integer size) {
         ValidPage.validate(from, size);
         PageRequest page = PageRequest.of(from, size, Sort.by(Sort.Direction.ASC, "id"));
 
-        return itemRepository.findAllByOwnerId(userId, page)
-                .stream()
-                .map(item -> getItemById(item.getId(), userId))
-                .collect(Collectors.toList());
+        return toItemOwnerDtos(itemRepository.findAllByOwnerId(userId, page));
     }
 
-    public ItemDto getItemById(Long itemId, Long userId) {
+    @Transactional
+    public CursorPage<ItemDto> getAllItemsByUserAfter(Long userId, String after, Integer size) {
+        int limit = ValidPage.validateSize(size);
+        PageCursor cursor = PageCursor.decode(after);
+
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(
+                userId, cursor == null ? 0L : cursor.getId(), PageRequest.of(0, limit + 1));
+        return CursorPage.of(items, limit, item -> PageCursor.of(item.getId(), item.getId()),
+                this::toItemOwnerDtos);
+    }
+
+    @Transactional
+    public ItemCard getItemCard(Long itemId, Long userId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new ItemNotFoundException(itemId));
 
-        Booking lastBooking = setLastBooking(item, userId);
-        Booking nextBooking = setNextBooking(item, userId);
+        // Бронирования вещи видит только её владелец
+        boolean owner = item.getOwner().getId().equals(userId);
+        ItemBookingSummary summary = owner
+                ? itemBookingSummaryService.getSummaries(Collections.singletonList(itemId), requestClock.now())
+                        .get(itemId)
+                : null;
 
         List<Comment> comments = commentRepository.findAllByItemId(itemId);
 
-        return ItemMapper.INSTANCE.toItemOwnerDto(item, lastBooking, nextBooking, comments);
+        // Пересчитанная в этом чтении сводка ещё не сохранена и версии не имеет, тогда тега нет
+        String tag = toItemTag(itemId, item.getVersion(), owner, summary == null ? null : summary.getVersion());
+        return new ItemCard(ItemMapper.INSTANCE.toItemOwnerDto(item, summary, comments), tag);
+    }
+
+    // ETag карточки вещи: версия вещи, а для владельца ещё и версия сводки бронирований.
+    // Null, если вещи нет или сводку всё равно придётся собирать: её нет или она устарела.
+    // Тег читается до сборки карточки, поэтому может оказаться только старее ответа, но не новее
+    public String getItemTag(Long itemId, Long userId) {
+        List<Object[]> versions = itemRepository.findVersions(itemId);
+        if (versions.isEmpty()) {
+            return null;
+        }
+        Object[] row = versions.get(0);
+        boolean owner = row[0].equals(userId);
+        Long summaryVersion = owner && row[2] != null
+                && !ItemBookingSummary.isStale((LocalDateTime) row[3], requestClock.now()) ? (Long) row[2] : null;
+        return toItemTag(itemId, (Long) row[1], owner, summaryVersion);
+    }
+
+    public List<AvailabilityWindowDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Ошибка! Начало периода должно быть раньше его конца.");
+        }
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new ItemNotFoundException(itemId));
+        if (!item.getAvailable()) {
+            return Collections.emptyList();
+        }
+
+        // Прошедшее время забронировать нельзя, поэтому окна начинаются не раньше текущего момента
+        LocalDateTime now = requestClock.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!start.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return bookingAvailabilityIndex.findFreeWindows(itemId, start, to);
+    }
+
+    public List<ItemRequestDto> getMatchingRequests(Long itemId, Long userId, Integer size) {
+        int limit = ValidPage.validateSize(size);
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new ItemNotFoundException(itemId));
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new ItemOwnershipException(userId, itemId);
+        }
+
+        List<Long> requestIds = itemRequestMatcher.match(item, limit);
+        if (requestIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ItemRequest> itemRequests = itemRequestRepository.findAllById(requestIds)
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        return ItemRequestMapper.INSTANCE.toItemRequestDtos(requestIds.stream()
+                        .map(itemRequests::get)
+                        .filter(itemRequest -> itemRequest != null)
+                        .collect(Collectors.toList()),
+                itemRepository.findAllByRequestIdIn(itemRequests.keySet()));
     }
 
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
         validateItemDto(itemDto);
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        User user = userCache.getReference(userId);
         Item item;
         if (itemDto.getRequestId() != null) {
             Optional<ItemRequest> itemRequest = itemRequestRepository.findById(itemDto.getRequestId());
@@ -84,7 +182,70 @@ public class ItemService {
             item = ItemMapper.INSTANCE.toItem(itemDto, user);
         }
         try {
-            return ItemMapper.INSTANCE.toItemDto(itemRepository.save(item));
+            Item savedItem = itemRepository.saveAndFlush(item);
+            itemBookingSummaryService.create(Collections.singletonList(savedItem.getId()));
+            // В поиске вещь появляется, а запрос, на который она отвечает, закрывается только после
+            // коммита. События о совпадениях пишутся в outbox в этой же транзакции и откатятся вместе с ней
+            TransactionHooks.afterCommit(() -> {
+                itemSearchEngine.index(savedItem);
+                if (savedItem.getRequest() != null) {
+                    itemRequestMatcher.close(savedItem.getRequest().getId());
+                }
+            });
+            ItemDto savedItemDto = ItemMapper.INSTANCE.toItemDto(savedItem);
+            outboxService.append(OutboxEventType.ITEM_CREATED, savedItem.getId(), savedItemDto);
+            appendMatches(findMatches(savedItem, savedItemDto));
+            return savedItemDto;
+        } catch (DataIntegrityViolationException e) {
+            throw new ItemNotSavedException();
+        }
+    }
+
+    // Вещи вставляются пакетами JDBC (id выдаются пулом последовательности), все или ни одной
+    @Transactional
+    public List<ItemDto> createItems(List<ItemDto> itemDtos, Long userId) {
+        itemDtos.forEach(this::validateItemDto);
+        User user = userCache.getReference(userId);
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> itemRequests = requestIds.isEmpty()
+                ? Collections.emptyMap()
+                : itemRequestRepository.findAllById(requestIds)
+                        .stream()
+                        .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = itemDtos.stream()
+                .map(itemDto -> {
+                    ItemRequest itemRequest = itemDto.getRequestId() == null
+                            ? null
+                            : itemRequests.get(itemDto.getRequestId());
+                    return itemRequest == null
+                            ? ItemMapper.INSTANCE.toItem(itemDto, user)
+                            : ItemMapper.INSTANCE.toItemWithRequest(itemDto, user, itemRequest);
+                })
+                .collect(Collectors.toList());
+        try {
+            List<Item> savedItems = itemRepository.saveAll(items);
+            itemRepository.flush();
+            itemBookingSummaryService.create(savedItems.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList()));
+            TransactionHooks.afterCommit(() -> savedItems.forEach(savedItem -> {
+                itemSearchEngine.index(savedItem);
+                if (savedItem.getRequest() != null) {
+                    itemRequestMatcher.close(savedItem.getRequest().getId());
+                }
+            }));
+            List<ItemDto> savedItemDtos = ItemMapper.INSTANCE.convertItemListToItemDtoList(savedItems);
+            List<ItemRequestMatchDto> matches = new ArrayList<>();
+            for (int i = 0; i < savedItems.size(); i++) {
+                matches.addAll(findMatches(savedItems.get(i), savedItemDtos.get(i)));
+            }
+            outboxService.appendAll(OutboxEventType.ITEM_CREATED, savedItemDtos, ItemDto::getId);
+            appendMatches(matches);
+            return savedItemDtos;
         } catch (DataIntegrityViolationException e) {
             throw new ItemNotSavedException();
         }
@@ -97,8 +258,7 @@ public class ItemService {
         if (!item.getOwner().getId().equals(userId)) {
             throw new ItemOwnershipException(userId, itemId);
         }
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        userCache.checkExists(userId);
 
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
@@ -110,7 +270,12 @@ public class ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
         try {
-            return ItemMapper.INSTANCE.toItemDto(itemRepository.saveAndFlush(item));
+            Item savedItem = itemRepository.saveAndFlush(item);
+            TransactionHooks.afterCommit(() -> itemSearchEngine.index(savedItem));
+            ItemDto savedItemDto = ItemMapper.INSTANCE.toItemDto(savedItem);
+            outboxService.append(OutboxEventType.ITEM_UPDATED, itemId, savedItemDto);
+            appendMatches(findMatches(savedItem, savedItemDto));
+            return savedItemDto;
         } catch (DataIntegrityViolationException e) {
             throw new ItemNotSavedException();
         }
@@ -122,62 +287,122 @@ public class ItemService {
             return Collections.EMPTY_LIST;
         }
         PageRequest page = ValidPage.validate(from, size);
+        return toAvailableItemDtos(itemSearchEngine.search(text, page)
+                .stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList()));
+    }
+
+    public CursorPage<ItemDto> findItemsAfter(String text, Long userId, String after, Integer size) {
+        int limit = ValidPage.validateSize(size);
+        if (text.isEmpty()) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        PageCursor cursor = PageCursor.decode(after);
+        ItemSearchHit afterHit = cursor == null ? null : new ItemSearchHit(cursor.getId(), cursor.getKeyAsDouble());
 
-        return ItemMapper.INSTANCE.convertItemListToItemDtoList(
-                itemRepository.search(text, page));
+        // Курсор строится по последнему совпадению, даже если соответствующая вещь отфильтрована
+        return CursorPage.of(itemSearchEngine.searchAfter(text, afterHit, limit + 1), limit,
+                hit -> PageCursor.of(hit.getRank(), hit.getItemId()),
+                hits -> toAvailableItemDtos(hits.stream()
+                        .map(ItemSearchHit::getItemId)
+                        .collect(Collectors.toList())));
     }
 
     @Transactional
     public CommentDto saveComment(CommentDto commentDto, Long itemId, Long userId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new ItemNotFoundException(itemId));
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
-        if (bookingRepository.isFindBooking(itemId, userId, LocalDateTime.now()) == null) {
+        // Копия из кэша, а не ссылка: имя автора для ответа иначе пришлось бы дочитывать из базы
+        User user = userCache.get(userId);
+        LocalDateTime now = requestClock.now();
+        if (bookingRepository.isFindBooking(itemId, userId, now) == null) {
             throw new ValidationException("Ошибка!  Отзыв может оставить только тот пользователь, " +
                     "который брал эту вещь в аренду, и только после окончания срока аренды.");
         }
 
         Comment comment = CommentMapper.INSTANCE.toComment(commentDto, item, user);
-        comment.setCreated(LocalDateTime.now());
+        comment.setCreated(now);
 
         try {
-            return CommentMapper.INSTANCE.toCommentDto(commentRepository.save(comment));
+            CommentDto savedComment = CommentMapper.INSTANCE.toCommentDto(commentRepository.saveAndFlush(comment));
+            itemRepository.incrementVersion(itemId);
+            outboxService.append(OutboxEventType.COMMENT_ADDED, itemId, savedComment);
+            return savedComment;
         } catch (DataIntegrityViolationException e) {
             throw new CommentNotSavedException();
         }
 
     }
 
-    private void validateItemDto(ItemDto itemDto) {
-        if (itemDto.getAvailable() == null) {
-            throw new ValidationException("Ошибка! Статус доступности вещи для аренды " +
-                    "не может быть пустым.");
+    private List<ItemDto> toItemOwnerDtos(List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getSummaries(itemIds,
+                requestClock.now());
+        Map<Long, List<Comment>> comments = commentRepository.findAllByItemIdIn(itemIds)
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+
+        return items.stream()
+                .map(item -> ItemMapper.INSTANCE.toItemOwnerDto(item,
+                        summaries.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> toAvailableItemDtos(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
         }
+
+        Map<Long, Item> items = itemRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ItemMapper.INSTANCE.convertItemListToItemDtoList(itemIds.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.getAvailable())
+                .collect(Collectors.toList()));
     }
 
-    private Booking setLastBooking(Item item, Long userId) {
-        Booking lastBooking;
-        if (item.getOwner().getId().equals(userId)) {
-            lastBooking = bookingRepository.findFirstByItemIdAndStatusAndStartIsBefore(
-                    item.getId(), BookingStatus.APPROVED, LocalDateTime.now(),
-                    Sort.by(Sort.Direction.DESC, "end")).orElse(null);
-        } else {
-            lastBooking = null;
+    // Автор подходящего открытого запроса узнаёт о вещи из события ITEM_REQUEST_MATCHED,
+    // владелец вещи видит такие запросы в GET /items/{itemId}/matching-requests
+    private static String toItemTag(Long itemId, Long itemVersion, boolean owner, Long summaryVersion) {
+        String itemTag = "i" + itemId + "-" + itemVersion;
+        if (!owner) {
+            return itemTag;
         }
-        return lastBooking;
+        return summaryVersion == null ? null : itemTag + "-" + summaryVersion;
     }
 
-    private Booking setNextBooking(Item item, Long userId) {
-        Booking nextBooking;
-        if (item.getOwner().getId().equals(userId)) {
-            nextBooking = bookingRepository.findFirstByItemIdAndStatusAndStartIsAfter(
-                    item.getId(), BookingStatus.APPROVED, LocalDateTime.now(),
-                    Sort.by(Sort.Direction.ASC, "start")).orElse(null);
-        } else {
-            nextBooking = null;
+    private List<ItemRequestMatchDto> findMatches(Item item, ItemDto itemDto) {
+        if (!Boolean.TRUE.equals(item.getAvailable()) || item.getRequest() != null) {
+            return Collections.emptyList();
+        }
+        List<ItemRequestMatchDto> matches = new ArrayList<>();
+        for (Long requestId : itemRequestMatcher.match(item, NOTIFIED_MATCHING_REQUESTS)) {
+            Long requesterId = itemRequestMatcher.getRequesterId(requestId);
+            if (requesterId != null) {
+                matches.add(new ItemRequestMatchDto(requestId, requesterId, itemDto));
+            }
+        }
+        return matches;
+    }
+
+    private void appendMatches(List<ItemRequestMatchDto> matches) {
+        outboxService.appendAll(OutboxEventType.ITEM_REQUEST_MATCHED, matches, ItemRequestMatchDto::getRequestId);
+    }
+
+    private void validateItemDto(ItemDto itemDto) {
+        if (itemDto.getAvailable() == null) {
+            throw new ValidationException("Ошибка! Статус доступности вещи для аренды " +
+                    "не может быть пустым.");
         }
-        return nextBooking;
     }
 
-}
\ No newline at end of file
+}
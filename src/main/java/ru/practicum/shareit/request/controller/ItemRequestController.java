@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.controller;
 
 import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -9,8 +11,10 @@ import javax.validation.Valid;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,9 +26,11 @@ public class ItemRequestController {
 
     @GetMapping
     public List<ItemRequestDto> getAllItemRequestsByUser(
-            @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
-        List<ItemRequestDto> itemRequestDtos = itemRequestService.getAllItemRequestsByUser(userId);
-        log.info("Получен список запросов текущего пользователя вместе с данными об ответах " +
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size) {
+        List<ItemRequestDto> itemRequestDtos = itemRequestService.getAllItemRequestsByUser(userId, from, size);
+        log.debug("Получен список запросов текущего пользователя вместе с данными об ответах " +
                 "на них с id = {}, количество = {}.", userId, itemRequestDtos.size());
         return itemRequestDtos;
     }
@@ -36,27 +42,58 @@ public class ItemRequestController {
             @RequestParam(defaultValue = "10") Integer size) {
         List<ItemRequestDto> itemRequestDtos = itemRequestService
                 .getAllItemRequestsByOtherUsers(userId, from, size);
-        log.info("Получен список запросов пользователя с id = {}, созданных другими, " +
+        log.debug("Получен список запросов пользователя с id = {}, созданных другими, " +
                 "количество = {}.", userId, itemRequestDtos.size());
         return itemRequestDtos;
     }
 
+    @GetMapping(path = "/all", params = "after")
+    public ResponseEntity<List<ItemRequestDto>> getAllItemRequestsByOtherUsersAfter(
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") Integer size) {
+        CursorPage<ItemRequestDto> page = itemRequestService
+                .getAllItemRequestsByOtherUsersAfter(userId, after, size);
+        log.debug("Получена страница запросов пользователя с id = {}, созданных другими, " +
+                "количество = {}.", userId, page.getContent().size());
+        return page.toResponseEntity();
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequestById(
             @PathVariable Long requestId,
-            @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            WebRequest request) {
+        String tag = itemRequestService.getItemRequestTag(requestId, userId);
+        if (tag != null && request.checkNotModified(tag)) {
+            log.debug("Запрос с id = {} не изменился.", requestId);
+            return null;
+        }
         ItemRequestDto itemRequestDto = itemRequestService.getItemRequestById(requestId, userId);
-        log.info("Получен запрос с id = {}.", requestId);
+        log.debug("Получен запрос с id = {}.", requestId);
         return itemRequestDto;
     }
 
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto> getItemRequestSuggestions(
+            @PathVariable Long requestId,
+            @RequestHeader(Constants.HEADER_USER_ID) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "10") Integer size) {
+        List<ItemDto> itemDtos = itemRequestService.getItemRequestSuggestions(requestId, userId, from, size);
+        log.debug("Получен список вещей, подходящих под запрос с id = {}, количество = {}.",
+                requestId, itemDtos.size());
+        return itemDtos;
+    }
+
     @PostMapping
     @Validated
     public ItemRequestDto saveItemRequest(
             @Valid @RequestBody ItemRequestDto itemRequestDto,
             @RequestHeader(Constants.HEADER_USER_ID) Long userId) {
         itemRequestDto = itemRequestService.createItemRequest(itemRequestDto, userId);
-        log.info("Добавлен новый запрос на бронирование: {}", itemRequestDto);
+        log.debug("Добавлен запрос вещи с id = {} от пользователя с id = {}.", itemRequestDto.getId(), userId);
+        log.trace("Добавлен запрос вещи: {}", itemRequestDto);
         return itemRequestDto;
     }
 
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+// Вещь, подходящая под открытый запрос: по requesterId приёмник событий находит, кого уведомить
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestMatchDto {
+
+    private Long requestId;
+
+    private Long requesterId;
+
+    private ItemDto item;
+
+}
@@ -1,27 +1,49 @@
 package ru.practicum.shareit.request.mapper;
 
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Mapper(uses = {UserMapper.class, ItemMapper.class})
 public interface ItemRequestMapper {
 
     ItemRequestMapper INSTANCE = Mappers.getMapper(ItemRequestMapper.class);
 
-    ItemRequestDto toItemRequestDto(ItemRequest itemRequest);
-
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "requester", source = "requester")
     ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requester);
 
-    List<ItemRequestDto> convertItemRequestListToItemRequestDTOList(List<ItemRequest> list);
+    @Named("WithoutItems")
+    @Mapping(target = "items", ignore = true)
+    ItemRequestDto toItemRequestDtoWithoutItems(ItemRequest itemRequest);
+
+    // Ответы на запросы передаются уже загруженными одним запросом, чтобы не обращаться
+    // к ленивой коллекции ItemRequest.items для каждого запроса
+    default List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests, List<Item> items) {
+        Map<Long, List<Item>> itemsByRequestId = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+
+        return itemRequests.stream()
+                .map(itemRequest -> {
+                    ItemRequestDto itemRequestDto = toItemRequestDtoWithoutItems(itemRequest);
+                    itemRequestDto.setItems(new HashSet<>(ItemMapper.INSTANCE.convertItemListToItemDtoList(
+                            itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList()))));
+                    return itemRequestDto;
+                })
+                .collect(Collectors.toList());
+    }
 
 }
\ No newline at end of file
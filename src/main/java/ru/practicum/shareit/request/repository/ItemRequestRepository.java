@@ -2,17 +2,38 @@ package ru.practicum.shareit.request.repository;
 
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterId(Long requesterId);
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDescIdDesc(Long requesterId, Pageable page);
 
-    List<ItemRequest> findAllByRequesterIdNot(Long requesterId, Pageable page);
+    @Query("select r from ItemRequest as r " +
+            "join fetch r.requester " +
+            "where r.items is empty")
+    List<ItemRequest> findAllOpen();
+
+    List<ItemRequest> findAllByRequesterIdNotOrderByCreatedDescIdDesc(Long requesterId, Pageable page);
+
+    @Query("select r from ItemRequest as r " +
+            "where r.requester.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdNotAfter(Long requesterId, Instant created, Long id, Pageable page);
+
+    // Запрос не меняется, меняются только ответы на него: число ответов, сумма их версий и
+    // последний id вместе дают ETag. Пустой список, если запроса нет
+    @Query("select count(i.id), coalesce(sum(i.version), 0), coalesce(max(i.id), 0) " +
+            "from ItemRequest as r left join r.items as i " +
+            "where r.id = ?1 " +
+            "group by r.id")
+    List<Object[]> findAnswerVersions(Long requestId);
 
 }
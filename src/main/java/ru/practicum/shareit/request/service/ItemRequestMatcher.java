@@ -0,0 +1,140 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.utils.TextTokenizer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+
+/**
+ * Обратный индекс открытых запросов вещей: слово из описания запроса -> id запросов.
+ * Открытым считается запрос, на который ещё не ответили ни одной вещью.
+ * Индекс заполняется из базы при старте и дальше поддерживается при создании
+ * запросов и при добавлении вещей в ответ на них.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemRequestMatcher {
+
+    // Короткие слова ("для", "бы", "на") есть почти в каждом запросе и ничего не говорят о вещи
+    private static final int MIN_TOKEN_LENGTH = 4;
+
+    private final ItemRequestRepository itemRequestRepository;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, OpenRequest> requests = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        itemRequestRepository.findAllOpen().forEach(this::add);
+    }
+
+    // Индекс меняется сразу. Вызывающие делают это после коммита своей транзакции
+    // (TransactionHooks.afterCommit), чтобы откатившийся запрос или ответ на него не попали в выдачу
+    public void open(ItemRequest itemRequest) {
+        add(itemRequest);
+    }
+
+    public void close(Long requestId) {
+        remove(requestId);
+    }
+
+    // Запросы удалённого пользователя удаляются из базы каскадно вместе с ним
+    public synchronized void closeAllOf(Long requesterId) {
+        requests.entrySet()
+                .stream()
+                .filter(request -> request.getValue().requesterId.equals(requesterId))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList())
+                .forEach(this::remove);
+    }
+
+    // Открытые запросы других пользователей, в описании которых встречаются слова из названия
+    // или описания вещи. Редкие слова весят больше частых, при равенстве первыми идут новые запросы.
+    public List<Long> match(Item item, int limit) {
+        Set<String> tokens = tokenize(item.getName());
+        tokens.addAll(tokenize(item.getDescription()));
+        Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : tokens) {
+            Set<Long> requestIds = postings.get(token);
+            if (requestIds == null || requestIds.isEmpty()) {
+                continue;
+            }
+            double weight = Math.log(1.0 + (double) requests.size() / requestIds.size());
+            for (Long requestId : requestIds) {
+                OpenRequest request = requests.get(requestId);
+                if (request != null && !request.requesterId.equals(ownerId)) {
+                    scores.merge(requestId, weight, Double::sum);
+                }
+            }
+        }
+
+        return scores.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    // Автор открытого запроса, null - запрос уже закрыт или не известен индексу
+    public Long getRequesterId(Long requestId) {
+        OpenRequest request = requests.get(requestId);
+        return request == null ? null : request.requesterId;
+    }
+
+    private synchronized void add(ItemRequest itemRequest) {
+        OpenRequest request = new OpenRequest(itemRequest.getRequester().getId(),
+                tokenize(itemRequest.getDescription()));
+        requests.put(itemRequest.getId(), request);
+        request.tokens.forEach(token -> postings
+                .computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet())
+                .add(itemRequest.getId()));
+    }
+
+    private synchronized void remove(Long requestId) {
+        OpenRequest request = requests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String token : request.tokens) {
+            Set<Long> requestIds = postings.get(token);
+            if (requestIds != null) {
+                requestIds.remove(requestId);
+                if (requestIds.isEmpty()) {
+                    postings.remove(token, requestIds);
+                }
+            }
+        }
+    }
+
+    private Set<String> tokenize(String text) {
+        return TextTokenizer.tokenize(text)
+                .stream()
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @RequiredArgsConstructor
+    private static class OpenRequest {
+
+        private final Long requesterId;
+        private final Set<String> tokens;
+
+    }
+
+}
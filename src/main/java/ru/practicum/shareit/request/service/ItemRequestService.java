@@ -1,21 +1,34 @@
 package ru.practicum.shareit.request.service;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.request.exception.ItemRequestNotSavedException;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
+import ru.practicum.shareit.common.utils.TransactionHooks;
 import ru.practicum.shareit.common.utils.ValidPage;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,47 +38,113 @@ import org.springframework.transaction.annotation.Transactional;
 public class ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
-
-    public List<ItemRequestDto> getAllItemRequestsByUser(Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
-
-        return ItemRequestMapper.INSTANCE.convertItemRequestListToItemRequestDTOList(
-                itemRequestRepository.findAllByRequesterId(userId));
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemRequestMatcher itemRequestMatcher;
+
+    public List<ItemRequestDto> getAllItemRequestsByUser(Long userId, Integer from, Integer size) {
+        // Без from и size отдаём все запросы пользователя, как до появления постраничного вывода
+        Pageable page = from == null && size == null
+                ? Pageable.unpaged()
+                : ValidPage.validate(from != null ? from : 0, size != null ? size : 10);
+        userCache.checkExists(userId);
+
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(userId, page));
     }
 
     public List<ItemRequestDto> getAllItemRequestsByOtherUsers(Long userId, Integer from, Integer size) {
         PageRequest page = ValidPage.validate(from, size);
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        userCache.checkExists(userId);
 
-        return ItemRequestMapper.INSTANCE.convertItemRequestListToItemRequestDTOList(
-                itemRequestRepository.findAllByRequesterIdNot(userId, page));
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(userId, page));
+    }
+
+    public CursorPage<ItemRequestDto> getAllItemRequestsByOtherUsersAfter(Long userId, String after, Integer size) {
+        int limit = ValidPage.validateSize(size);
+        PageCursor cursor = PageCursor.decode(after);
+        userCache.checkExists(userId);
+
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<ItemRequest> itemRequests = cursor == null
+                ? itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(userId, page)
+                : itemRequestRepository.findAllByRequesterIdNotAfter(
+                        userId, cursor.getKeyAsInstant(), cursor.getId(), page);
+        return CursorPage.of(itemRequests, limit,
+                itemRequest -> PageCursor.of(itemRequest.getCreated(), itemRequest.getId()),
+                this::toItemRequestDtos);
     }
 
     public ItemRequestDto getItemRequestById(Long requestId, Long userId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        userCache.checkExists(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new ItemRequestNotFoundException(requestId));
+
+        return toItemRequestDtos(Collections.singletonList(itemRequest)).get(0);
+    }
+
+    public String getItemRequestTag(Long requestId, Long userId) {
+        userCache.checkExists(userId);
+        List<Object[]> versions = itemRequestRepository.findAnswerVersions(requestId);
+        if (versions.isEmpty()) {
+            return null;
+        }
+        Object[] row = versions.get(0);
+        return "r" + requestId + "-" + row[0] + "-" + row[1] + "-" + row[2];
+    }
+
+    // Доступные вещи других пользователей, в которых встречается хотя бы одно слово из описания запроса
+    public List<ItemDto> getItemRequestSuggestions(Long requestId, Long userId, Integer from, Integer size) {
+        PageRequest page = ValidPage.validate(from, size);
+        userCache.checkExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
                 new ItemRequestNotFoundException(requestId));
 
-        return ItemRequestMapper.INSTANCE.toItemRequestDto(itemRequest);
+        // Вещи автора запроса отсекает сам поиск, иначе страница выдачи оказалась бы короче size
+        List<Long> itemIds = itemSearchEngine.searchAny(itemRequest.getDescription(),
+                        itemRequest.getRequester().getId(), page)
+                .stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList());
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ItemMapper.INSTANCE.convertItemListToItemDtoList(itemIds.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.getAvailable())
+                .collect(Collectors.toList()));
     }
 
     @Transactional
     public ItemRequestDto createItemRequest(ItemRequestDto itemRequestDto, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId));
+        User user = userCache.getReference(userId);
 
         ItemRequest itemRequest = ItemRequestMapper.INSTANCE.toItemRequest(itemRequestDto, user);
 
         try {
-            return ItemRequestMapper.INSTANCE.toItemRequestDto(itemRequestRepository.save(itemRequest));
+            ItemRequest savedItemRequest = itemRequestRepository.saveAndFlush(itemRequest);
+            TransactionHooks.afterCommit(() -> itemRequestMatcher.open(savedItemRequest));
+            return ItemRequestMapper.INSTANCE.toItemRequestDtoWithoutItems(savedItemRequest);
         } catch (DataIntegrityViolationException e) {
             throw new ItemRequestNotSavedException();
         }
 
     }
 
+    // Страница запросов и все ответы на них загружаются двумя запросами к базе
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        return ItemRequestMapper.INSTANCE.toItemRequestDtos(itemRequests,
+                itemRepository.findAllByRequestIdIn(requestIds));
+    }
+
 }
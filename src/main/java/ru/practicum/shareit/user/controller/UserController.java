@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.common.controller.AdviceController;
+import ru.practicum.shareit.common.utils.Constants;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -11,10 +12,14 @@ import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 
 @RestController
+@Validated
 @RequiredArgsConstructor
 @RequestMapping(path = "/users")
 @Slf4j
@@ -24,42 +29,57 @@ public class UserController extends AdviceController {
 
     @GetMapping
     public List<UserDto> getAllUsers() {
-        log.info("Запрос на поиск всех пользователей");
         List<UserDto> users = userService.getAllUsers();
-        log.info("Ответ на поиск всех пользователей: " + users);
+        log.debug("Получен список всех пользователей, количество = {}.", users.size());
+        log.trace("Пользователи: {}", users);
         return users;
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable Long userId) {
-        log.info("Запрос на получение пользователя с id = " + userId);
+    public UserDto getUserById(@PathVariable Long userId, WebRequest request) {
+        String tag = userService.getUserTag(userId);
+        if (tag != null && request.checkNotModified(tag)) {
+            log.debug("Пользователь с id = {} не изменился.", userId);
+            return null;
+        }
         UserDto user = userService.getUserById(userId);
-        log.info("Ответ на получение пользователя с id = " + userId + ": " + user);
+        log.debug("Получен пользователь с id = {}.", userId);
+        log.trace("Пользователь с id = {}: {}", userId, user);
         return user;
     }
 
     @PostMapping
     @Validated
     public UserDto createUser(@Valid @RequestBody UserDto userDto) {
-        log.info("Запрос на создание пользователя: " + userDto);
         UserDto createdUser = userService.createUser(userDto);
-        log.info("Ответ на создание пользователя: " + createdUser);
+        log.debug("Добавлен пользователь с id = {}.", createdUser.getId());
+        log.trace("Добавлен пользователь: {}", createdUser);
         return createdUser;
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> createUsers(
+            @RequestBody @NotEmpty(message = "Список пользователей не может быть пустым.")
+            @Size(max = Constants.MAX_BATCH_SIZE, message = "За один запрос можно создать не больше "
+                    + Constants.MAX_BATCH_SIZE + " пользователей.") List<@Valid UserDto> userDtos) {
+        List<UserDto> createdUsers = userService.createUsers(userDtos);
+        log.debug("Добавлены пользователи, количество = {}.", createdUsers.size());
+        log.trace("Добавлены пользователи: {}", createdUsers);
+        return createdUsers;
+    }
+
     @PatchMapping("/{userId}")
     public UserDto updateUser(@PathVariable Long userId, @RequestBody UserDto userDto) {
-        log.info("Запрос на обновление пользователя: " + userDto);
         UserDto updatedUser = userService.updateUser(userId, userDto);
-        log.info("Ответ на обновление пользователя: " + updatedUser);
+        log.debug("Обновлён пользователь с id = {}.", userId);
+        log.trace("Обновлён пользователь: {}", updatedUser);
         return updatedUser;
     }
 
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
-        log.info("Запрос на удаление пользователя c id = " + userId);
         userService.deleteUserById(userId);
-        log.info("Удален пользователь c id = " + userId);
+        log.debug("Удалён пользователь с id = {}.", userId);
     }
 
 }
@@ -24,4 +24,6 @@ public interface UserMapper {
 
     List<UserDto> convertUserListToUserDtoList(List<User> list);
 
+    List<User> convertUserDtoListToUserList(List<UserDto> list);
+
 }
\ No newline at end of file
@@ -12,7 +12,8 @@ import javax.persistence.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,4 +22,7 @@ public class User {
     @Column(nullable = false)
     private String email;
 
+    @Version
+    private Long version;
+
 }
\ No newline at end of file
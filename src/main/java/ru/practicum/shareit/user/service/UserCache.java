@@ -0,0 +1,150 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш пользователей для проверок существования, с которых начинается большинство
+ * методов сервисов. Хранит не больше maxSize пользователей, вытесняя давно
+ * не запрошенных, и забывает каждого через ttl после загрузки из базы.
+ * Изменения пользователей через UserService сбрасывают их запись в кэше.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    // Null, если реестра метрик нет в контексте
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Map<Long, CachedUser> entries;
+    // Увеличивается при каждом сбросе, чтобы загрузка, начатая до сброса, не вернула в кэш старые данные
+    private long generation;
+
+    public UserCache(UserRepository userRepository, ObjectProvider<MeterRegistry> meterRegistry,
+                     @Value("${shareit.user-cache.max-size:10000}") int maxSize,
+                     @Value("${shareit.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<Long, CachedUser>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedUser> eldest) {
+                return size() > UserCache.this.maxSize;
+            }
+        };
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            this.hits = null;
+            this.misses = null;
+            return;
+        }
+        this.hits = Counter.builder("shareit.user.cache")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("shareit.user.cache")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("shareit.user.cache.size", this, UserCache::size)
+                .register(registry);
+    }
+
+    // Копия пользователя: сущность из кэша не привязана ни к одной сессии и не должна меняться снаружи
+    public User get(Long userId) {
+        return copy(load(userId));
+    }
+
+    public void checkExists(Long userId) {
+        load(userId);
+    }
+
+    // Ссылка для связей новых сущностей: после проверки существования пользователь не читается из базы
+    public User getReference(Long userId) {
+        load(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    public void evict(Long userId) {
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private User load(Long userId) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedUser cached = entries.get(userId);
+            if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+                count(hits);
+                return cached.user;
+            }
+            entries.remove(userId);
+            loadGeneration = generation;
+        }
+        count(misses);
+
+        User user = copy(userRepository.findById(userId).orElseThrow(() ->
+                new UserNotFoundException(userId)));
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(userId, new CachedUser(user, System.nanoTime() + ttlNanos));
+            }
+        }
+        return user;
+    }
+
+    private synchronized void remove(Long userId) {
+        generation++;
+        entries.remove(userId);
+    }
+
+    private void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedUser {
+
+        private final User user;
+        private final long expiresAt;
+
+    }
+
+}
@@ -4,6 +4,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.common.utils.TransactionHooks;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import ru.practicum.shareit.user.exception.UserNotFoundException;
@@ -12,6 +19,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collections;
 import java.util.List;
 
 @Service
@@ -19,20 +27,48 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemRepository itemRepository;
+    private final OutboxService outboxService;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemRequestMatcher itemRequestMatcher;
 
     public List<UserDto> getAllUsers() {
         return UserMapper.INSTANCE.convertUserListToUserDtoList(userRepository.findAll());
     }
 
     public UserDto getUserById(Long userId) {
-        return UserMapper.INSTANCE.toUserDto(userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(userId)));
+        return UserMapper.INSTANCE.toUserDto(userCache.get(userId));
+    }
+
+    // ETag пользователя берётся из кэша: при изменении запись в нём сбрасывается, а ответ на
+    // GET /users/{userId} собирается из того же кэша, так что тег и тело не расходятся
+    public String getUserTag(Long userId) {
+        return "u" + userId + "-" + userCache.get(userId).getVersion();
     }
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
         try {
-            return UserMapper.INSTANCE.toUserDto(userRepository.save(UserMapper.INSTANCE.toUser(userDto)));
+            UserDto savedUser = UserMapper.INSTANCE.toUserDto(
+                    userRepository.saveAndFlush(UserMapper.INSTANCE.toUser(userDto)));
+            outboxService.append(OutboxEventType.USER_CREATED, savedUser.getId(), savedUser);
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            throw new UserNotSavedException();
+        }
+    }
+
+    // Все пользователи сохраняются одной транзакцией: при повторе email не создаётся ни один
+    @Transactional
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        try {
+            List<User> users = userRepository.saveAll(UserMapper.INSTANCE.convertUserDtoListToUserList(userDtos));
+            userRepository.flush();
+            List<UserDto> savedUsers = UserMapper.INSTANCE.convertUserListToUserDtoList(users);
+            outboxService.appendAll(OutboxEventType.USER_CREATED, savedUsers, UserDto::getId);
+            return savedUsers;
         } catch (DataIntegrityViolationException e) {
             throw new UserNotSavedException();
         }
@@ -46,12 +82,16 @@ public class UserService {
         if (userDto.getEmail() != null) {
             user.setEmail(userDto.getEmail());
         }
-        if (userDto.getName() != null) {
+        if (userDto.getName() != null && !userDto.getName().equals(user.getName())) {
             user.setName(userDto.getName());
+            itemRepository.incrementVersionsCommentedBy(userId);
         }
 
+        userCache.evict(userId);
         try {
-            return UserMapper.INSTANCE.toUserDto(userRepository.saveAndFlush(user));
+            UserDto savedUser = UserMapper.INSTANCE.toUserDto(userRepository.saveAndFlush(user));
+            outboxService.append(OutboxEventType.USER_UPDATED, userId, savedUser);
+            return savedUser;
         } catch (DataIntegrityViolationException e) {
             throw new UserNotSavedException();
         }
@@ -59,7 +99,16 @@ public class UserService {
 
     @Transactional
     public void deleteUserById(Long userId) {
+        itemBookingSummaryService.invalidateBooker(userId);
+        // Отзывы пользователя удаляются вместе с ним
+        itemRepository.incrementVersionsCommentedBy(userId);
         userRepository.deleteById(userId);
+        userCache.evict(userId);
+        // Вместе с пользователем удалены его вещи и бронирования, занятость которых помнит индекс
+        bookingAvailabilityIndex.invalidateAll();
+        // Его запросы тоже удалены, совпадения с ними искать больше не нужно
+        TransactionHooks.afterCommit(() -> itemRequestMatcher.closeAllOf(userId));
+        outboxService.append(OutboxEventType.USER_DELETED, userId, Collections.singletonMap("id", userId));
     }
 
 }
@@ -0,0 +1,2 @@
+-- Версия пользователя для ETag в GET /users/{userId} (@Version в User)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
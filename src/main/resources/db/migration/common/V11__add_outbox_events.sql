@@ -0,0 +1,14 @@
+-- Исходящие события для внешних систем (поисковый индекс, уведомления, аналитика).
+-- Пишутся в транзакции изменения, OutboxRelay отправляет их в порядке id и удаляет.
+-- Шаг 1, без пулов id на узлах: иначе события разных узлов перемешались бы в порядке id
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+  id BIGINT NOT NULL,
+  aggregate_type VARCHAR(32) NOT NULL,
+  aggregate_id BIGINT NOT NULL,
+  event_type VARCHAR(32) NOT NULL,
+  payload TEXT NOT NULL,
+  created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
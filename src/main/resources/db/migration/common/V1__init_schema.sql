@@ -1,9 +1,3 @@
-DROP TABLE IF EXISTS PUBLIC.comments;
-DROP TABLE IF EXISTS PUBLIC.bookings;
-DROP TABLE IF EXISTS PUBLIC.items;
-DROP TABLE IF EXISTS PUBLIC.requests;
-DROP TABLE IF EXISTS PUBLIC.users;
-
 CREATE TABLE IF NOT EXISTS users (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   name VARCHAR(255) NOT NULL,
@@ -54,4 +48,4 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_comment PRIMARY KEY (id),
   CONSTRAINT fk_comment_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON UPDATE RESTRICT ON DELETE CASCADE,
   CONSTRAINT fk_comment_to_users FOREIGN KEY(author_id) REFERENCES users(id) ON UPDATE RESTRICT ON DELETE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,25 @@
+-- BookingRepository: выборки бронирований пользователя, упорядоченные по концу или началу
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_end ON bookings (booker_id, status, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date);
+
+-- BookingRepository: последнее и следующее бронирование вещи, занятость вещи
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+-- BookingRepository.isFindBooking: завершённые бронирования вещи пользователем
+CREATE INDEX IF NOT EXISTS ix_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+-- Бронирования всех вещей владельца, упорядоченные по началу
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date);
+
+-- ItemRepository.findAllByOwnerId: вещи владельца в порядке id
+CREATE INDEX IF NOT EXISTS ix_items_owner_id ON items (owner_id, id);
+-- Вещи, добавленные в ответ на запрос
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+
+-- CommentRepository.findAllByItemId, findAllByItemIdIn
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
+
+-- ItemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc: id нужен для устойчивого порядка
+-- запросов с одинаковым временем создания
+CREATE INDEX IF NOT EXISTS ix_requests_requester_created_id ON requests (requester_id, created, id);
+-- ItemRequestRepository: запросы других пользователей по убыванию даты создания
+CREATE INDEX IF NOT EXISTS ix_requests_created_id ON requests (created, id);
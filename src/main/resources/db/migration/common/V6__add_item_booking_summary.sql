@@ -0,0 +1,20 @@
+-- Последнее и следующее подтверждённые бронирования вещи для её владельца.
+-- Сводка действует, пока не наступил refresh_after (начало следующего бронирования),
+-- NULL - пока не подтверждено новое бронирование.
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+  item_id BIGINT NOT NULL,
+  last_booking_id BIGINT,
+  last_booker_id BIGINT,
+  last_booking_end TIMESTAMP WITHOUT TIME ZONE,
+  next_booking_id BIGINT,
+  next_booker_id BIGINT,
+  next_booking_start TIMESTAMP WITHOUT TIME ZONE,
+  refresh_after TIMESTAMP WITHOUT TIME ZONE,
+  version BIGINT NOT NULL,
+  CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_booking_summary_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON UPDATE RESTRICT ON DELETE CASCADE
+);
+
+-- Сводки уже существующих вещей помечаются устаревшими и собираются при первом чтении
+INSERT INTO item_booking_summary (item_id, refresh_after, version)
+SELECT id, TIMESTAMP '1970-01-01 00:00:00', 0 FROM items;
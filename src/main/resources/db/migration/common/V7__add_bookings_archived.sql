@@ -0,0 +1,6 @@
+-- Завершённые бронирования старше горизонта архивирования помечаются флагом (см. BookingArchiver).
+-- Ленты CURRENT, FUTURE и WAITING читают только неархивные бронирования.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS archived BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- Поиск кандидатов в архив по дате окончания
+CREATE INDEX IF NOT EXISTS ix_bookings_end ON bookings (end_date);
@@ -0,0 +1,3 @@
+-- Версии строк для оптимистических блокировок бронирований и вещей (@Version в Booking и Item)
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
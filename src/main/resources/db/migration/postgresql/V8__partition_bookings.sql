@@ -0,0 +1,53 @@
+-- Таблица бронирований делится по флагу archived на горячий раздел и архивный.
+-- Запросы с условием archived = false (ленты CURRENT, FUTURE, WAITING) читают только горячий раздел,
+-- а архивированная история не раздувает его индексы. Нужен PostgreSQL 11+: первичный ключ
+-- секционированной таблицы и перенос строки между разделами при UPDATE.
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования. Уникальность id
+-- по-прежнему обеспечивает последовательность bookings_seq, из которой id выдаёт приложение.
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned RENAME CONSTRAINT pk_booking TO pk_booking_unpartitioned;
+-- Identity на секционированной таблице не поддерживается, вставки в обход JPA берут id
+-- из собственной последовательности колонки
+ALTER TABLE bookings_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+DROP INDEX IF EXISTS ix_bookings_booker_end;
+DROP INDEX IF EXISTS ix_bookings_booker_status_end;
+DROP INDEX IF EXISTS ix_bookings_booker_start;
+DROP INDEX IF EXISTS ix_bookings_item_status_start;
+DROP INDEX IF EXISTS ix_bookings_item_booker_end;
+DROP INDEX IF EXISTS ix_bookings_item_start;
+DROP INDEX IF EXISTS ix_bookings_end;
+
+CREATE SEQUENCE bookings_id_seq;
+
+CREATE TABLE bookings (
+  id BIGINT DEFAULT nextval('bookings_id_seq') NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(15) NOT NULL,
+  archived BOOLEAN DEFAULT FALSE NOT NULL,
+  CONSTRAINT pk_booking PRIMARY KEY (id, archived),
+  CONSTRAINT fk_booking_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON UPDATE RESTRICT ON DELETE CASCADE,
+  CONSTRAINT fk_booking_to_users FOREIGN KEY(booker_id) REFERENCES users(id) ON UPDATE RESTRICT ON DELETE CASCADE
+) PARTITION BY LIST (archived);
+
+ALTER SEQUENCE bookings_id_seq OWNED BY bookings.id;
+
+CREATE TABLE bookings_hot PARTITION OF bookings FOR VALUES IN (FALSE);
+CREATE TABLE bookings_archive PARTITION OF bookings FOR VALUES IN (TRUE);
+
+INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, archived)
+SELECT id, start_date, end_date, item_id, booker_id, status, archived FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+SELECT setval('bookings_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM bookings), false);
+
+CREATE INDEX ix_bookings_booker_end ON bookings (booker_id, end_date);
+CREATE INDEX ix_bookings_booker_status_end ON bookings (booker_id, status, end_date);
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX ix_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX ix_bookings_end ON bookings (end_date);
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SpringBootTest
+class BookingApprovalConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final User owner = new User();
+    private final User booker = new User();
+    private final Booking booking = new Booking();
+
+    @BeforeEach
+    public void addBooking() {
+        owner.setName("owner");
+        owner.setEmail("owner@mail.ru");
+        booker.setName("booker");
+        booker.setEmail("booker@mail.ru");
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        Item item = new Item();
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.WAITING);
+        bookingRepository.save(booking);
+    }
+
+    @AfterEach
+    public void deleteBooking() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Владелец одновременно подтверждает и отклоняет бронирование из нескольких потоков:
+    // применяется ровно одно решение, остальные получают 409 или, если прочитали бронирование
+    // уже после коммита, 400 как при повторном решении
+    @SneakyThrows
+    @RepeatedTest(5)
+    void updateBooking_whenConcurrentDecisions_thenOnlyOneApplied() {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingResponseDto>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            Callable<BookingResponseDto> decision = () -> {
+                start.await();
+                return bookingService.updateBooking(booking.getId(), approved, owner.getId());
+            };
+            futures.add(executor.submit(decision));
+        }
+        start.countDown();
+
+        List<BookingResponseDto> applied = new ArrayList<>();
+        for (Future<BookingResponseDto> future : futures) {
+            try {
+                applied.add(future.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), anyOf(instanceOf(BookingConflictException.class),
+                        instanceOf(ValidationException.class)));
+            }
+        }
+        executor.shutdown();
+
+        assertThat(1, equalTo(applied.size()));
+        Booking stored = bookingRepository.findById(booking.getId()).get();
+        assertThat(applied.get(0).getStatus(), equalTo(stored.getStatus()));
+        assertThat(1L, equalTo(stored.getVersion()));
+    }
+
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiverTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2023, 7, 1, 12, 0);
+    private final Clock clock = Clock.fixed(now.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Test
+    void archive_whenFullBatches_thenRepeatedUntilPartialBatch() {
+        BookingArchiver bookingArchiver = new BookingArchiver(bookingRepository, clock, Duration.ofDays(180), 2);
+        when(bookingRepository.archiveEndedBefore(any(LocalDateTime.class), eq(2)))
+                .thenReturn(2, 2, 1);
+
+        int archived = bookingArchiver.archive();
+
+        assertThat(5, equalTo(archived));
+        verify(bookingRepository, times(3)).archiveEndedBefore(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void archive_whenNothingToArchive_thenSingleBatch() {
+        BookingArchiver bookingArchiver = new BookingArchiver(bookingRepository, clock, Duration.ofDays(180), 2);
+        when(bookingRepository.archiveEndedBefore(any(LocalDateTime.class), eq(2))).thenReturn(0);
+
+        int archived = bookingArchiver.archive();
+
+        assertThat(0, equalTo(archived));
+        verify(bookingRepository, times(1)).archiveEndedBefore(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void archive_whenInvoked_thenCutoffIsHorizonAgo() {
+        BookingArchiver bookingArchiver = new BookingArchiver(bookingRepository, clock, Duration.ofDays(180), 2);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(bookingRepository.archiveEndedBefore(cutoff.capture(), eq(2))).thenReturn(0);
+
+        bookingArchiver.archive();
+
+        assertThat(now.minusDays(180), equalTo(cutoff.getValue()));
+    }
+
+    @Test
+    void constructor_whenNegativeHorizon_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BookingArchiver(bookingRepository, clock, Duration.ofDays(-1), 2));
+        verifyNoInteractions(bookingRepository);
+    }
+
+}
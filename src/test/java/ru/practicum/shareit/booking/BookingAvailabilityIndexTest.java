@@ -0,0 +1,211 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.common.clock.RequestClock;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAvailabilityIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.systemDefaultZone());
+
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+    private final Item item = new Item();
+
+    @BeforeEach
+    public void createIndex() {
+        bookingAvailabilityIndex = new BookingAvailabilityIndex(bookingRepository, requestClock, 2);
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        item.setId(1L);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+
+    @Test
+    void isFree_whenItemHasBookings_thenOverlapsDetected() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                booking(1L, base, base.plusHours(2)),
+                booking(2L, base.plusHours(4), base.plusHours(6))));
+
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base.minusHours(1), base));
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base.plusHours(2), base.plusHours(4)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(1), base.plusHours(3)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(3), base.plusHours(5)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.minusHours(1), base.plusHours(7)));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(),
+                anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void findFreeWindows_whenItemHasBookings_thenReturnedGapsBetweenThem() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                booking(1L, base, base.plusHours(2)),
+                booking(2L, base.plusHours(1), base.plusHours(3)),
+                booking(3L, base.plusHours(5), base.plusHours(6))));
+
+        List<AvailabilityWindowDto> windows = bookingAvailabilityIndex
+                .findFreeWindows(1L, base.plusHours(1), base.plusHours(8));
+
+        assertThat(Arrays.asList(
+                new AvailabilityWindowDto(base.plusHours(3), base.plusHours(5)),
+                new AvailabilityWindowDto(base.plusHours(6), base.plusHours(8))), equalTo(windows));
+    }
+
+    @Test
+    void reserve_whenPeriodOverlaps_thenBothPeriodsMarkedBusy() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+        bookingAvailabilityIndex.reserve(booking(1L, base, base.plusHours(2)));
+        Booking overlapping = booking(2L, base.plusHours(1), base.plusHours(3));
+
+        bookingAvailabilityIndex.reserve(overlapping);
+
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(2), base.plusHours(3)));
+        bookingAvailabilityIndex.release(overlapping);
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(1), base.plusHours(2)));
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base.plusHours(2), base.plusHours(3)));
+    }
+
+    @Test
+    void reserve_whenScheduleLoadedAfterBookingSaved_thenBookingNotOverlapsItself() {
+        Booking booking = booking(1L, base, base.plusHours(2));
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.singletonList(booking));
+
+        bookingAvailabilityIndex.reserve(booking);
+
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base, base.plusHours(2)));
+    }
+
+    @Test
+    void release_whenBookingInsideMergedInterval_thenOnlyItsPeriodFreed() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Arrays.asList(
+                booking(1L, base, base.plusHours(2)),
+                booking(2L, base.plusHours(1), base.plusHours(4)),
+                booking(3L, base.plusHours(4), base.plusHours(5))));
+        bookingAvailabilityIndex.isFree(1L, base, base.plusHours(1));
+
+        bookingAvailabilityIndex.release(booking(2L, base.plusHours(1), base.plusHours(4)));
+
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(1), base.plusHours(2)));
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base.plusHours(2), base.plusHours(4)));
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base.plusHours(4), base.plusHours(5)));
+    }
+
+    @Test
+    void isFree_whenMoreItemsThanMaxItems_thenLeastRecentScheduleEvicted() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+
+        bookingAvailabilityIndex.isFree(1L, base, base.plusHours(1));
+        bookingAvailabilityIndex.isFree(2L, base, base.plusHours(1));
+        bookingAvailabilityIndex.isFree(3L, base, base.plusHours(1));
+        bookingAvailabilityIndex.isFree(1L, base, base.plusHours(1));
+
+        assertThat(2, equalTo(bookingAvailabilityIndex.size()));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(eq(1L),
+                anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void invalidateAll_whenInvoked_thenSchedulesReloaded() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.singletonList(booking(1L, base, base.plusHours(2))),
+                Collections.emptyList());
+        assertFalse(bookingAvailabilityIndex.isFree(1L, base, base.plusHours(2)));
+
+        bookingAvailabilityIndex.invalidateAll();
+
+        assertThat(0, equalTo(bookingAvailabilityIndex.size()));
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base, base.plusHours(2)));
+    }
+
+    @Test
+    void release_whenBookingRejected_thenPeriodFreed() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+        Booking booking = booking(1L, base, base.plusHours(2));
+        bookingAvailabilityIndex.reserve(booking);
+
+        bookingAvailabilityIndex.release(booking);
+
+        assertTrue(bookingAvailabilityIndex.isFree(1L, base, base.plusHours(2)));
+    }
+
+    @Test
+    void reserve_whenConcurrentRequestsForDifferentPeriods_thenAllPeriodsMarkedBusy() throws Exception {
+        when(bookingRepository.findAllByItemIdAndStatusInAndArchivedFalseAndEndIsAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (long i = 0; i < threads; i++) {
+                Booking booking = booking(i, base.plusHours(2 * i), base.plusHours(2 * i + 1));
+                Callable<Boolean> task = () -> {
+                    startSignal.await();
+                    bookingAvailabilityIndex.reserve(booking);
+                    return true;
+                };
+                results.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            for (Future<Boolean> result : results) {
+                result.get();
+            }
+
+            assertThat(threads, equalTo(bookingAvailabilityIndex.findFreeWindows(1L, base,
+                    base.plusHours(2L * threads)).size()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
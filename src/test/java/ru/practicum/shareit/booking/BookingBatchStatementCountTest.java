@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static ru.practicum.shareit.common.SqlStatisticsMatchers.sqlStatementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingBatchStatementCountTest {
+
+    private static final int BOOKINGS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final User owner = new User();
+    private final User booker = new User();
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    public void addBookings() {
+        owner.setName("owner");
+        owner.setEmail("batch-approve-owner@mail.ru");
+        booker.setName("booker");
+        booker.setEmail("batch-approve-booker@mail.ru");
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            Item item = new Item();
+            item.setName("item " + i);
+            item.setDescription("description " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+            itemIds.add(item.getId());
+
+            Booking booking = new Booking();
+            booking.setStart(now.plusDays(1 + i));
+            booking.setEnd(now.plusDays(2 + i));
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(BookingStatus.WAITING);
+            bookings.add(bookingRepository.save(booking));
+        }
+        transactionTemplate.executeWithoutResult(status -> itemBookingSummaryRepository.createAll(itemIds));
+    }
+
+    @AfterEach
+    public void deleteBookings() {
+        bookingRepository.deleteAll();
+        itemBookingSummaryRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Проверка владельца, загрузка бронирований, их блокировка, по одному обновлению статусов
+    // на подтверждённые и отклонённые, блокировка сводок и один пакет их обновлений,
+    // независимо от числа решений
+    @SneakyThrows
+    @Test
+    void updateBookings_whenInvoked_thenStatementCountDoesNotDependOnBatchSize() {
+        List<BookingDecisionDto> decisions = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingDecisionDto decision = new BookingDecisionDto();
+            decision.setBookingId(bookings.get(i).getId());
+            decision.setApproved(i % 2 == 0);
+            decisions.add(decision);
+        }
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(Constants.HEADER_USER_ID, owner.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(7));
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            assertThat(bookingRepository.findById(bookings.get(i).getId()).get().getStatus(),
+                    equalTo(i % 2 == 0 ? BookingStatus.APPROVED : BookingStatus.REJECTED));
+        }
+    }
+
+}
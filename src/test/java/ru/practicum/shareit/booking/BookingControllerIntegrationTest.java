@@ -2,14 +2,19 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.controller.BookingController;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionResult;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.common.utils.CursorPage;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -20,6 +25,7 @@ import ru.practicum.shareit.user.model.User;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.SneakyThrows;
@@ -30,16 +36,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -130,6 +143,33 @@ class BookingControllerIntegrationTest {
                 .getAllBookingsByUser(userId, BookingState.ALL, 0, 5);
     }
 
+    @SneakyThrows
+    @Test
+    void getAllBookingsByUserAfter_whenInvoked_thenResponseWithNextCursorHeader() {
+        List<BookingResponseDto> bookings = Arrays.asList(bookingResponseDto, bookingResponseDto2);
+        when(bookingService.getAllBookingsByUserAfter(anyLong(), any(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(bookings, "cursor"));
+
+        String result = mockMvc.perform(get("/bookings")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("state", "ALL")
+                        .param("after", "")
+                        .param("size", "2")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(Constants.HEADER_NEXT_CURSOR, "cursor"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(bookings), equalTo(result));
+        verify(bookingService, times(1))
+                .getAllBookingsByUserAfter(userId, BookingState.ALL, "", 2);
+        verify(bookingService, never()).getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt());
+    }
+
     @SneakyThrows
     @Test
     void getAllBookingsByUser_whenStateNotValid_thenResponseStatusBadRequest() {
@@ -175,6 +215,26 @@ class BookingControllerIntegrationTest {
                 .getAllBookingsAllItemsByOwner(userId, BookingState.ALL, 0, 5);
     }
 
+    @SneakyThrows
+    @Test
+    void streamBookings_whenSubscribed_thenEventsWrittenToOpenResponse() {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingService.streamBookings(userId)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/bookings/stream")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("booking").data(bookingResponseDto, MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body, containsString("event:booking"));
+        assertThat(body, containsString("data:" + objectMapper.writeValueAsString(bookingResponseDto)));
+        verify(bookingService, times(1)).streamBookings(userId);
+    }
+
     @SneakyThrows
     @Test
     void getBookingById_whenBookingFound_thenReturnedBooking() {
@@ -280,4 +340,136 @@ class BookingControllerIntegrationTest {
         verify(bookingService, never()).updateBooking(bookingId, true, userId);
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void updateBooking_whenStatusChangedConcurrently_thenConflict() {
+        long bookingId = 0L;
+        when(bookingService.updateBooking(anyLong(), anyBoolean(), anyLong()))
+                .thenThrow(new BookingConflictException(bookingId));
+
+        String result = mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("approved", "true")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("Ошибка: Статус бронирования с id = 0 одновременно изменён другим запросом",
+                equalTo(result));
+    }
+
+    @SneakyThrows
+    @Test
+    void updateBooking_whenOptimisticLockFailed_thenConflict() {
+        long bookingId = 0L;
+        when(bookingService.updateBooking(anyLong(), anyBoolean(), anyLong()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId));
+
+        String result = mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("approved", "true")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("Ошибка: данные одновременно изменены другим запросом, повторите запрос.", equalTo(result));
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnerInbox_whenInvoked_thenResponseWithNextCursorHeader() {
+        List<BookingResponseDto> bookings = Arrays.asList(bookingResponseDto, bookingResponseDto2);
+        when(bookingService.getOwnerInbox(anyLong(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(bookings, "cursor"));
+
+        String result = mockMvc.perform(get("/bookings/owner/inbox")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("size", "2")
+                        .characterEncoding(StandardCharsets.UTF_8))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(Constants.HEADER_NEXT_CURSOR, "cursor"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(bookings), equalTo(result));
+        verify(bookingService, times(1)).getOwnerInbox(userId, null, 2);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateBookings_whenDecisionsValid_thenReturnedResults() {
+        List<BookingDecisionDto> decisions = Arrays.asList(decision(1L, true), decision(2L, false));
+        List<BookingDecisionResultDto> results = Arrays.asList(
+                new BookingDecisionResultDto(1L, BookingDecisionResult.APPLIED, bookingResponseDto2),
+                new BookingDecisionResultDto(2L, BookingDecisionResult.NOT_WAITING, null));
+        when(bookingService.updateBookings(anyList(), anyLong())).thenReturn(results);
+
+        String result = mockMvc.perform(patch("/bookings/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(results), equalTo(result));
+        verify(bookingService, times(1)).updateBookings(decisions, userId);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateBookings_whenDecisionNotValid_thenReturnedBadRequest() {
+        List<BookingDecisionDto> decisions = Collections.singletonList(decision(1L, null));
+
+        String result = mockMvc.perform(patch("/bookings/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"Не указано решение по бронированию.\"}", equalTo(result));
+        verify(bookingService, never()).updateBookings(anyList(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateBookings_whenDecisionsEmpty_thenReturnedBadRequest() {
+        String result = mockMvc.perform(patch("/bookings/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"Список решений не может быть пустым.\"}", equalTo(result));
+        verify(bookingService, never()).updateBookings(anyList(), anyLong());
+    }
+
+    private BookingDecisionDto decision(Long bookingId, Boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
+    }
+
+}
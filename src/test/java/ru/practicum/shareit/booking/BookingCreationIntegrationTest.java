@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Бронирование проходит через настоящий индекс занятости: расписание новой вещи ещё не загружено
+// и читается из базы в той же транзакции, где только что записано само бронирование
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingCreationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    private final User owner = new User();
+    private final User booker = new User();
+    private final Item item = new Item();
+
+    @BeforeEach
+    public void addItem() {
+        owner.setName("owner");
+        owner.setEmail("first-booking-owner@mail.ru");
+        booker.setName("booker");
+        booker.setEmail("first-booking-booker@mail.ru");
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        itemRepository.save(item);
+    }
+
+    @AfterEach
+    public void deleteItem() {
+        bookingRepository.deleteAll();
+        itemBookingSummaryRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @SneakyThrows
+    @Test
+    void createBooking_whenFirstBookingOfNewItem_thenSavedBooking() {
+        BookingRequestDto booking = new BookingRequestDto();
+        booking.setItemId(item.getId());
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+
+        mockMvc.perform(post("/bookings")
+                        .header(Constants.HEADER_USER_ID, booker.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(BookingStatus.WAITING.name()));
+
+        booking.setStart(booking.getStart().plusHours(12));
+        booking.setEnd(booking.getEnd().plusHours(12));
+        mockMvc.perform(post("/bookings")
+                        .header(Constants.HEADER_USER_ID, booker.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking)))
+                .andExpect(status().isConflict());
+    }
+
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingEvent;
+import ru.practicum.shareit.booking.service.BookingEventBus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingEventBusTest {
+
+    private final BookingResponseDto booking = new BookingResponseDto();
+
+    @Test
+    void publish_whenSubscribed_thenEventSentOnlyToRecipient() {
+        BookingEventBus bus = new BookingEventBus(10, Duration.ofMinutes(1),
+                new ExecutorServiceAdapter(new SyncTaskExecutor()));
+        RecordingEmitter recipient = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        bus.subscribe(1L, recipient);
+        bus.subscribe(2L, other);
+
+        bus.publish(new BookingEvent(1L, booking));
+
+        assertThat(1, equalTo(recipient.events.size()));
+        assertThat(true, equalTo(recipient.events.get(0).stream()
+                .anyMatch(data -> data.getData() == booking)));
+        assertThat(0, equalTo(other.events.size()));
+    }
+
+    @Test
+    void publish_whenBufferOverflowed_thenSubscriberDisconnected() {
+        List<Runnable> tasks = new ArrayList<>();
+        BookingEventBus bus = new BookingEventBus(2, Duration.ofMinutes(1), new ExecutorServiceAdapter(tasks::add));
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(1L, emitter);
+
+        // Отправка не успевает начаться: третье событие не помещается в очередь
+        bus.publish(new BookingEvent(1L, booking));
+        bus.publish(new BookingEvent(1L, booking));
+        bus.publish(new BookingEvent(1L, booking));
+        assertThat(1, equalTo(tasks.size()));
+        tasks.remove(0).run();
+
+        assertThat(true, equalTo(emitter.completed));
+        assertThat(0, equalTo(emitter.events.size()));
+
+        bus.publish(new BookingEvent(1L, booking));
+        assertThat(0, equalTo(tasks.size()));
+    }
+
+    @Test
+    void publish_whenClientDisconnected_thenSubscriberRemoved() {
+        BookingEventBus bus = new BookingEventBus(10, Duration.ofMinutes(1),
+                new ExecutorServiceAdapter(new SyncTaskExecutor()));
+        RecordingEmitter emitter = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                throw new IOException("Broken pipe");
+            }
+        };
+        bus.subscribe(1L, emitter);
+
+        bus.publish(new BookingEvent(1L, booking));
+        bus.publish(new BookingEvent(1L, booking));
+
+        assertThat(1, equalTo(emitter.events.size()));
+    }
+
+    @Test
+    void shutdown_whenSubscribed_thenStreamsCompleted() {
+        BookingEventBus bus = new BookingEventBus(10, Duration.ofMinutes(1),
+                new ExecutorServiceAdapter(new SyncTaskExecutor()) {
+                    @Override
+                    public List<Runnable> shutdownNow() {
+                        return new ArrayList<>();
+                    }
+                });
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(1L, emitter);
+
+        bus.shutdown();
+
+        assertThat(true, equalTo(emitter.completed));
+    }
+
+    @Test
+    void constructor_whenBufferSizeNotPositive_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> new BookingEventBus(0, Duration.ofMinutes(1),
+                new ExecutorServiceAdapter(new SyncTaskExecutor())));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<ResponseBodyEmitter.DataWithMediaType>> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            events.add(builder.build());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+    }
+
+}
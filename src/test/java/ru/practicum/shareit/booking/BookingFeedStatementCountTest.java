@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static ru.practicum.shareit.common.SqlStatisticsMatchers.sqlStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingFeedStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final User owner = new User();
+    private final User booker = new User();
+
+    @BeforeEach
+    public void addBookings() {
+        owner.setName("owner");
+        owner.setEmail("owner@mail.ru");
+        booker.setName("booker");
+        booker.setEmail("booker@mail.ru");
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            Item item = new Item();
+            item.setName("item " + i);
+            item.setDescription("description " + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            itemRepository.save(item);
+
+            Booking booking = new Booking();
+            booking.setStart(now.minusDays(1).plusDays(i));
+            booking.setEnd(now.plusHours(1).plusDays(i));
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(i == 0 ? BookingStatus.REJECTED : BookingStatus.WAITING);
+            bookingRepository.save(booking);
+        }
+    }
+
+    @AfterEach
+    public void deleteBookings() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Один запрос на проверку пользователя и один на саму ленту, независимо от числа бронирований.
+    // При повторном обращении пользователь уже в кэше, и остаётся только запрос ленты.
+    @SneakyThrows
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void getAllBookingsByUser_whenInvoked_thenAtMostTwoStatementsExecuted(String state) {
+        mockMvc.perform(get("/bookings")
+                        .header(Constants.HEADER_USER_ID, booker.getId())
+                        .param("state", state))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(2));
+
+        mockMvc.perform(get("/bookings")
+                        .header(Constants.HEADER_USER_ID, booker.getId())
+                        .param("state", state))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements(1));
+    }
+
+}
@@ -1,20 +1,28 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.QBooking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -89,4 +97,118 @@ class BookingRepositoryTest {
         assertThat(1L, equalTo(countBookings));
     }
 
-}
\ No newline at end of file
+    @Test
+    void findLastAndNextBookingsByItemIds() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking pastBooking = new Booking();
+        pastBooking.setStart(now.minusDays(2));
+        pastBooking.setEnd(now.minusDays(1));
+        pastBooking.setItem(item2);
+        pastBooking.setBooker(user);
+        pastBooking.setStatus(BookingStatus.APPROVED);
+        Booking nextBooking = new Booking();
+        nextBooking.setStart(now.plusDays(1));
+        nextBooking.setEnd(now.plusDays(2));
+        nextBooking.setItem(item2);
+        nextBooking.setBooker(user);
+        nextBooking.setStatus(BookingStatus.APPROVED);
+        Booking laterBooking = new Booking();
+        laterBooking.setStart(now.plusDays(3));
+        laterBooking.setEnd(now.plusDays(4));
+        laterBooking.setItem(item2);
+        laterBooking.setBooker(user);
+        laterBooking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(pastBooking);
+        bookingRepository.save(nextBooking);
+        bookingRepository.save(laterBooking);
+
+        List<Booking> lastBookings = bookingRepository.findLastBookingsByItemIds(
+                Collections.singletonList(item2.getId()), BookingStatus.APPROVED, now);
+        List<Booking> nextBookings = bookingRepository.findNextBookingsByItemIds(
+                Collections.singletonList(item2.getId()), BookingStatus.APPROVED, now);
+
+        assertThat(1, equalTo(lastBookings.size()));
+        assertThat(pastBooking, equalTo(lastBookings.get(0)));
+        assertThat(1, equalTo(nextBookings.size()));
+        assertThat(nextBooking, equalTo(nextBookings.get(0)));
+    }
+
+    @Test
+    void findAllResponses_whenOwnerPredicate_thenReturnedDtoSlice() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = new Booking();
+        first.setStart(start);
+        first.setEnd(start.plusHours(1));
+        first.setItem(item2);
+        first.setBooker(user);
+        first.setStatus(BookingStatus.APPROVED);
+        Booking second = new Booking();
+        second.setStart(start.plusDays(1));
+        second.setEnd(start.plusDays(1).plusHours(1));
+        second.setItem(item2);
+        second.setBooker(user);
+        second.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(first);
+        bookingRepository.save(second);
+
+        Slice<BookingResponseDto> firstPage = bookingRepository.findAllResponses(
+                QItem.item.owner.id.eq(user.getId()).and(QBooking.booking.status.eq(BookingStatus.APPROVED)),
+                PageRequest.of(0, 1), QBooking.booking.start.desc(), QBooking.booking.id.desc());
+        Slice<BookingResponseDto> secondPage = bookingRepository.findAllResponses(
+                QItem.item.owner.id.eq(user.getId()).and(QBooking.booking.status.eq(BookingStatus.APPROVED)),
+                PageRequest.of(1, 1), QBooking.booking.start.desc(), QBooking.booking.id.desc());
+
+        assertThat(1, equalTo(firstPage.getContent().size()));
+        BookingResponseDto booking = firstPage.getContent().get(0);
+        assertThat(second.getId(), equalTo(booking.getId()));
+        assertThat(second.getStart(), equalTo(booking.getStart()));
+        assertThat(item2.getId(), equalTo(booking.getItem().getId()));
+        assertThat(item2.getName(), equalTo(booking.getItem().getName()));
+        assertThat(user.getId(), equalTo(booking.getBooker().getId()));
+        assertThat(BookingStatus.APPROVED, equalTo(booking.getStatus()));
+        assertThat(true, equalTo(firstPage.hasNext()));
+        assertThat(first.getId(), equalTo(secondPage.getContent().get(0).getId()));
+        assertThat(false, equalTo(secondPage.hasNext()));
+    }
+
+    @Test
+    void archiveEndedBefore_whenFinishedLongAgo_thenArchivedExceptWaiting() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking oldApproved = new Booking();
+        oldApproved.setStart(now.minusDays(31));
+        oldApproved.setEnd(now.minusDays(30));
+        oldApproved.setItem(item2);
+        oldApproved.setBooker(user);
+        oldApproved.setStatus(BookingStatus.APPROVED);
+        Booking oldWaiting = new Booking();
+        oldWaiting.setStart(now.minusDays(31));
+        oldWaiting.setEnd(now.minusDays(30));
+        oldWaiting.setItem(item2);
+        oldWaiting.setBooker(user);
+        oldWaiting.setStatus(BookingStatus.WAITING);
+        Booking recentApproved = new Booking();
+        recentApproved.setStart(now.minusDays(2));
+        recentApproved.setEnd(now.minusDays(1));
+        recentApproved.setItem(item2);
+        recentApproved.setBooker(user);
+        recentApproved.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(oldApproved);
+        bookingRepository.save(oldWaiting);
+        bookingRepository.save(recentApproved);
+
+        int archived = bookingRepository.archiveEndedBefore(now.minusDays(7), 10);
+        int archivedAgain = bookingRepository.archiveEndedBefore(now.minusDays(7), 10);
+
+        assertThat(1, equalTo(archived));
+        assertThat(0, equalTo(archivedAgain));
+        assertThat(1L, equalTo(bookingRepository.count(QBooking.booking.archived.isTrue()
+                .and(QBooking.booking.id.eq(oldApproved.getId())))));
+        List<Booking> waiting = bookingRepository.findByBookerIdAndStatusAndArchivedFalseOrderByEndDesc(
+                user.getId(), BookingStatus.WAITING, PageRequest.of(0, 10));
+        assertThat(true, equalTo(waiting.contains(oldWaiting)));
+        List<Booking> past = bookingRepository.findByBookerIdAndEndIsBefore(
+                user.getId(), now, PageRequest.of(0, 10));
+        assertThat(true, equalTo(past.contains(oldApproved)));
+    }
+
+}
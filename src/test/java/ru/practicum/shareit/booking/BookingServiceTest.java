@@ -1,18 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.booking.exception.BookingNotSavedException;
 import ru.practicum.shareit.booking.exception.BookingItemOwnerException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.exception.OtherBookerException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecisionResult;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.BookingEvent;
+import ru.practicum.shareit.booking.service.BookingEventBus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.common.clock.RequestClock;
 import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemOwnershipException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -20,10 +34,13 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,19 +49,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import com.querydsl.core.types.Predicate;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -55,7 +77,19 @@ class BookingServiceTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.systemDefaultZone());
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingEventBus bookingEventBus;
+    @Mock
+    private OutboxService outboxService;
 
     @InjectMocks
     private BookingService bookingService;
@@ -63,14 +97,13 @@ class BookingServiceTest {
     @Test
     void getAllBookingsByUser_whenInvoked_thenReturnedEmptyList() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
 
         List<BookingResponseDto> actualItems = bookingService
                 .getAllBookingsByUser(userId, BookingState.ALL, 0, 1);
 
         assertThat(actualItems, empty());
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
                 .findByBookerIdOrderByEndDesc(anyLong(), any(Pageable.class));
     }
@@ -79,8 +112,7 @@ class BookingServiceTest {
     void getAllBookingsByUser_whenInvokedCurrent_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
         List<Booking> expectedBookings = Arrays.asList(new Booking(), new Booking());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
+        when(bookingRepository.findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
                 anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(expectedBookings);
 
@@ -89,18 +121,32 @@ class BookingServiceTest {
 
         assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookings),
                 equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(),
+                .findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(),
                         any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
     }
 
+    @Test
+    void getAllBookingsByUser_whenInvokedCurrent_thenStartAndEndComparedWithSameMoment() {
+        Long userId = 0L;
+        LocalDateTime now = LocalDateTime.of(2023, 7, 1, 12, 0);
+        doReturn(now).when(requestClock).now();
+        when(bookingRepository.findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(
+                eq(userId), eq(now), eq(now), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        List<BookingResponseDto> actualBookings = bookingService
+                .getAllBookingsByUser(userId, BookingState.CURRENT, 0, 1);
+
+        assertThat(actualBookings, empty());
+        verify(requestClock, times(1)).now();
+    }
+
     @Test
     void getAllBookingsByUser_whenInvokedPast_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
         List<Booking> expectedBookings = Arrays.asList(new Booking(), new Booking());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(bookingRepository.findByBookerIdAndEndIsBefore(
                 anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(expectedBookings);
 
@@ -109,8 +155,8 @@ class BookingServiceTest {
 
         assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookings),
                 equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
                 .findByBookerIdAndEndIsBefore(anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
@@ -119,8 +165,7 @@ class BookingServiceTest {
     void getAllBookingsByUser_whenInvokedFuture_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
         List<Booking> expectedBookings = Arrays.asList(new Booking(), new Booking());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findByBookerIdAndEndIsAfter(
+        when(bookingRepository.findByBookerIdAndArchivedFalseAndEndIsAfter(
                 anyLong(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(expectedBookings);
 
         List<BookingResponseDto> actualBookings = bookingService
@@ -128,18 +173,17 @@ class BookingServiceTest {
 
         assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookings),
                 equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findByBookerIdAndEndIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class));
+                .findByBookerIdAndArchivedFalseAndEndIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void getAllBookingsByUser_whenInvokedWaiting_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
         List<Booking> expectedBookings = Arrays.asList(new Booking(), new Booking());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findByBookerIdAndStatusOrderByEndDesc(
+        when(bookingRepository.findByBookerIdAndStatusAndArchivedFalseOrderByEndDesc(
                 anyLong(), any(), any(Pageable.class))).thenReturn(expectedBookings);
 
         List<BookingResponseDto> actualBookings = bookingService
@@ -147,17 +191,16 @@ class BookingServiceTest {
 
         assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookings),
                 equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findByBookerIdAndStatusOrderByEndDesc(anyLong(), any(), any(Pageable.class));
+                .findByBookerIdAndStatusAndArchivedFalseOrderByEndDesc(anyLong(), any(), any(Pageable.class));
     }
 
     @Test
     void getAllBookingsByUser_whenInvokedRejected_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
         List<Booking> expectedBookings = Arrays.asList(new Booking(), new Booking());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(bookingRepository.findByBookerIdAndStatusOrderByEndDesc(
                 anyLong(), any(), any(Pageable.class))).thenReturn(expectedBookings);
 
@@ -166,8 +209,8 @@ class BookingServiceTest {
 
         assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookings),
                 equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
                 .findByBookerIdAndStatusOrderByEndDesc(anyLong(), any(), any(Pageable.class));
     }
@@ -175,161 +218,155 @@ class BookingServiceTest {
     @Test
     void getAllBookingsByUser_whenUserNotFound_thenExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> bookingService.getAllBookingsByUser(userId, BookingState.REJECTED, 0, 1));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
 
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, never())
-                .findByBookerIdAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(),
+                .findByBookerIdAndArchivedFalseAndStartIsBeforeAndEndIsAfterOrderByEndDesc(anyLong(),
                         any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenInvokedAll_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.ALL, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenInvokedCurrent_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.CURRENT, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
 
     void getAllBookingsAllItemsByOwner_whenInvokedPast_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.PAST, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenInvokedFuture_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.FUTURE, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenInvokedWaiting_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.WAITING, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenInvokedRejected_thenReturnedBookingsCollectionInList() {
         Long userId = 0L;
-        List<Booking> expectedBookingsList = Arrays.asList(new Booking(), new Booking());
-        Page<Booking> expectedBookingsPage = new PageImpl<>(
-                expectedBookingsList, PageRequest.of(0, 1), 2);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(bookingRepository.findAll(any(BooleanExpression.class), any(Pageable.class)))
-                .thenReturn(expectedBookingsPage);
+        List<BookingResponseDto> expectedBookingsList = Arrays.asList(
+                new BookingResponseDto(), new BookingResponseDto());
+        Slice<BookingResponseDto> expectedBookingsSlice = new SliceImpl<>(
+                expectedBookingsList, PageRequest.of(0, 1), true);
+        when(bookingRepository.findAllResponses(any(Predicate.class), any(Pageable.class), any(), any()))
+                .thenReturn(expectedBookingsSlice);
 
         List<BookingResponseDto> actualBookings = bookingService
                 .getAllBookingsAllItemsByOwner(userId, BookingState.REJECTED, 0, 1);
 
-        assertThat(BookingMapper.INSTANCE.convertBookingListToBookingResponseDtoList(expectedBookingsList),
-                equalTo(actualBookings));
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(expectedBookingsList, equalTo(actualBookings));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, times(1))
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
     void getAllBookingsAllItemsByOwner_whenUserNotFound_thenExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> bookingService.getAllBookingsAllItemsByOwner(userId, BookingState.REJECTED, 0, 1));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
 
-        InOrder inOrder = inOrder(userRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(bookingRepository, never())
-                .findAll(any(BooleanExpression.class), any(Pageable.class));
+                .findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
     }
 
     @Test
@@ -382,6 +419,72 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void getAllBookingsByUserAfter_whenMoreRowsThanSize_thenReturnedPageWithNextCursor() {
+        Long userId = 0L;
+        LocalDateTime end = LocalDateTime.of(2030, 1, 1, 12, 0);
+        BookingResponseDto booking = new BookingResponseDto();
+        booking.setId(5L);
+        booking.setEnd(end);
+        when(bookingRepository.findAllResponses(any(Predicate.class), eq(PageRequest.of(0, 1)), any(), any()))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(booking), PageRequest.of(0, 1), true));
+
+        CursorPage<BookingResponseDto> actualPage = bookingService
+                .getAllBookingsByUserAfter(userId, BookingState.ALL, "", 1);
+
+        assertThat(1, equalTo(actualPage.getContent().size()));
+        assertThat(5L, equalTo(actualPage.getContent().get(0).getId()));
+        PageCursor nextCursor = PageCursor.decode(actualPage.getNextCursor());
+        assertThat(end, equalTo(nextCursor.getKeyAsDateTime()));
+        assertThat(5L, equalTo(nextCursor.getId()));
+    }
+
+    @Test
+    void getAllBookingsAllItemsByOwnerAfter_whenLastPage_thenReturnedPageWithoutNextCursor() {
+        Long userId = 0L;
+        String after = PageCursor.of(LocalDateTime.of(2030, 1, 1, 12, 0), 5L).encode();
+        when(bookingRepository.findAllResponses(any(Predicate.class), eq(PageRequest.of(0, 10)), any(), any()))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(new BookingResponseDto()),
+                        PageRequest.of(0, 10), false));
+
+        CursorPage<BookingResponseDto> actualPage = bookingService
+                .getAllBookingsAllItemsByOwnerAfter(userId, BookingState.WAITING, after, 10);
+
+        assertThat(1, equalTo(actualPage.getContent().size()));
+        assertThat(null, equalTo(actualPage.getNextCursor()));
+    }
+
+    @Test
+    void getOwnerInbox_whenMoreRowsThanSize_thenReturnedPageWithNextCursor() {
+        Long userId = 0L;
+        BookingResponseDto first = new BookingResponseDto();
+        first.setId(3L);
+        BookingResponseDto second = new BookingResponseDto();
+        second.setId(7L);
+        when(bookingRepository.findAllResponses(any(Predicate.class), eq(PageRequest.of(0, 2)), any()))
+                .thenReturn(new SliceImpl<>(Arrays.asList(first, second), PageRequest.of(0, 2), true));
+
+        CursorPage<BookingResponseDto> actualPage = bookingService.getOwnerInbox(userId, null, 2);
+
+        assertThat(Arrays.asList(first, second), equalTo(actualPage.getContent()));
+        assertThat(7L, equalTo(PageCursor.decode(actualPage.getNextCursor()).getId()));
+        InOrder inOrder = inOrder(userCache, bookingRepository);
+        inOrder.verify(userCache, times(1)).checkExists(userId);
+        inOrder.verify(bookingRepository, times(1))
+                .findAllResponses(any(Predicate.class), eq(PageRequest.of(0, 2)), any());
+    }
+
+    @Test
+    void getAllBookingsByUserAfter_whenCursorNotValid_thenExceptionThrown() {
+        Long userId = 0L;
+
+        final ValidationException exception = assertThrows(ValidationException.class,
+                () -> bookingService.getAllBookingsByUserAfter(userId, BookingState.ALL, "курсор", 10));
+
+        assertThat("Некорректное значение параметра after: курсор", equalTo(exception.getMessage()));
+        verify(bookingRepository, never()).findAllResponses(any(Predicate.class), any(Pageable.class), any(), any());
+    }
+
     @Test
     void createBooking_whenBookingValid_thenSavedBooking() {
         Long userId = 0L;
@@ -398,9 +501,9 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.save(any(Booking.class)))
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenReturn(BookingMapper.INSTANCE.toBooking(bookingToSave, user, item));
 
         BookingResponseDto actualBooking = bookingService.createBooking(bookingToSave, userId);
@@ -412,10 +515,54 @@ class BookingServiceTest {
         assertThat(1L, equalTo(actualBooking.getBooker().getId()));
         assertThat(null, equalTo(actualBooking.getStatus()));
 
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(userId);
-        inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(bookingRepository, times(1)).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(userId);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
+        inOrder.verify(bookingRepository, times(1))
+                .existsByItemIdAndStatusInAndArchivedFalseAndStartIsBeforeAndEndIsAfter(
+                        anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+        inOrder.verify(bookingRepository, times(1)).saveAndFlush(any(Booking.class));
+        verify(bookingAvailabilityIndex, times(1)).reserve(any(Booking.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((BookingEvent event) ->
+                event.getRecipientId().equals(1L) && event.getBooking() == actualBooking));
+        verify(outboxService, times(1)).append(OutboxEventType.BOOKING_CREATED, null, actualBooking);
+    }
+
+    @Test
+    void createBooking_whenPeriodAlreadyBooked_thenExceptionThrown() {
+        Long userId = 0L;
+        User user = new User();
+        user.setId(1L);
+        Item item = new Item();
+        Long itemId = 0L;
+        item.setId(itemId);
+        item.setAvailable(true);
+        item.setOwner(user);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusHours(1);
+        BookingRequestDto bookingToSave = new BookingRequestDto();
+        bookingToSave.setItemId(itemId);
+        bookingToSave.setStart(start);
+        bookingToSave.setEnd(end);
+
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItemIdAndStatusInAndArchivedFalseAndStartIsBeforeAndEndIsAfter(
+                itemId, Arrays.asList(BookingStatus.WAITING, BookingStatus.APPROVED), end, start)).thenReturn(true);
+
+        final BookingOverlapException exception = assertThrows(BookingOverlapException.class,
+                () -> bookingService.createBooking(bookingToSave, userId));
+
+        assertThat("Вещь с id = 0 уже забронирована на период с 2030-01-01T10:00 по 2030-01-01T11:00",
+                equalTo(exception.getMessage()));
+        InOrder inOrder = inOrder(itemRepository, bookingRepository);
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(itemId);
+        inOrder.verify(bookingRepository, times(1))
+                .existsByItemIdAndStatusInAndArchivedFalseAndStartIsBeforeAndEndIsAfter(
+                        anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verifyNoInteractions(bookingAvailabilityIndex);
     }
 
     @Test
@@ -432,10 +579,10 @@ class BookingServiceTest {
 
         assertThat("Ошибка! Дата и время начала бронирования должны быть раньше даты и времени " +
                 "конца бронирования.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, never()).findById(anyLong());
-        inOrder.verify(itemRepository, never()).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, never()).getReference(anyLong());
+        inOrder.verify(itemRepository, never()).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -453,10 +600,10 @@ class BookingServiceTest {
 
         assertThat("Ошибка! Дата и время начала бронирования не могут совпадать с датой и временем " +
                 "конца бронирования.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, never()).findById(anyLong());
-        inOrder.verify(itemRepository, never()).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, never()).getReference(anyLong());
+        inOrder.verify(itemRepository, never()).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -468,16 +615,16 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.getReference(anyLong())).thenThrow(new UserNotFoundException(0L));
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> bookingService.createBooking(bookingToSave, userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRepository, never()).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRepository, never()).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -491,17 +638,17 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
         final ItemNotFoundException exception = assertThrows(ItemNotFoundException.class,
                 () -> bookingService.createBooking(bookingToSave, userId));
 
         assertThat("Вещь с идентификатором 0 не найдена.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
 
@@ -518,18 +665,18 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         final ValidationException exception = assertThrows(ValidationException.class,
                 () -> bookingService.createBooking(bookingToSave, userId));
 
         assertThat("Ошибка! Вещь: " + ItemMapper.INSTANCE.toItemDto(item) +
                 " недоступна для бронирования.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -548,17 +695,17 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         final BookingItemOwnerException exception = assertThrows(BookingItemOwnerException.class,
                 () -> bookingService.createBooking(bookingToSave, userId));
 
         assertThat("Пользователь с id = 0 владелец вещи с id = 0", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(bookingRepository, never()).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -576,19 +723,19 @@ class BookingServiceTest {
         bookingToSave.setStart(LocalDateTime.now());
         bookingToSave.setEnd(LocalDateTime.now().plusMinutes(1));
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.save(any(Booking.class)))
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.saveAndFlush(any(Booking.class)))
                 .thenThrow(new BookingNotSavedException());
 
         final BookingNotSavedException exception = assertThrows(BookingNotSavedException.class,
                 () -> bookingService.createBooking(bookingToSave, userId));
 
         assertThat("Не удалось сохранить бронирование", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository, bookingRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(bookingRepository, times(1)).save(any(Booking.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, bookingRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRepository, times(1)).findByIdForUpdate(anyLong());
+        inOrder.verify(bookingRepository, times(1)).saveAndFlush(any(Booking.class));
     }
 
     @Test
@@ -601,25 +748,29 @@ class BookingServiceTest {
 
         Long bookingId = 0L;
         Booking oldBooking = new Booking();
+        oldBooking.setId(bookingId);
         oldBooking.setItem(item);
+        oldBooking.setBooker(booker());
         oldBooking.setStatus(BookingStatus.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
-
-        Booking newBooking = new Booking();
-        newBooking.setStatus(BookingStatus.APPROVED);
-        when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(newBooking);
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
 
         BookingResponseDto actualBooking = bookingService.updateBooking(bookingId, true, userId);
 
-        assertThat(newBooking.getId(), equalTo(actualBooking.getId()));
-        assertThat(newBooking.getStart(), equalTo(actualBooking.getStart()));
-        assertThat(newBooking.getEnd(), equalTo(actualBooking.getEnd()));
-        assertThat(newBooking.getItem(), equalTo(actualBooking.getItem()));
-        assertThat(newBooking.getBooker(), equalTo(actualBooking.getBooker()));
-        assertThat(newBooking.getStatus(), equalTo(actualBooking.getStatus()));
+        assertThat(oldBooking.getId(), equalTo(actualBooking.getId()));
+        assertThat(BookingStatus.APPROVED, equalTo(actualBooking.getStatus()));
+        assertThat(BookingStatus.WAITING, equalTo(oldBooking.getStatus()));
 
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, times(1)).findWithItemById(anyLong());
+        verify(bookingRepository, times(1))
+                .updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED);
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(bookingAvailabilityIndex, never()).release(any(Booking.class));
+        verify(itemBookingSummaryService, times(1)).approve(eq(oldBooking), any(LocalDateTime.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((BookingEvent event) ->
+                event.getRecipientId().equals(7L) && event.getBooking() == actualBooking));
+        verify(outboxService, times(1)).append(OutboxEventType.BOOKING_STATUS_CHANGED, bookingId, actualBooking);
     }
 
     @Test
@@ -632,45 +783,39 @@ class BookingServiceTest {
 
         Long bookingId = 0L;
         Booking oldBooking = new Booking();
+        oldBooking.setId(bookingId);
         oldBooking.setItem(item);
+        oldBooking.setBooker(booker());
         oldBooking.setStatus(BookingStatus.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
-
-        Booking newBooking = new Booking();
-        newBooking.setStatus(BookingStatus.REJECTED);
-        when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(newBooking);
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.REJECTED))
+                .thenReturn(1);
 
         BookingResponseDto actualBooking = bookingService.updateBooking(bookingId, false, userId);
 
-        assertThat(newBooking.getId(), equalTo(actualBooking.getId()));
-        assertThat(newBooking.getStart(), equalTo(actualBooking.getStart()));
-        assertThat(newBooking.getEnd(), equalTo(actualBooking.getEnd()));
-        assertThat(newBooking.getItem(), equalTo(actualBooking.getItem()));
-        assertThat(newBooking.getBooker(), equalTo(actualBooking.getBooker()));
-        assertThat(newBooking.getStatus(), equalTo(actualBooking.getStatus()));
+        assertThat(oldBooking.getId(), equalTo(actualBooking.getId()));
+        assertThat(BookingStatus.REJECTED, equalTo(actualBooking.getStatus()));
 
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, times(1)).findWithItemById(anyLong());
+        verify(bookingRepository, times(1))
+                .updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.REJECTED);
+        verify(bookingAvailabilityIndex, times(1)).release(oldBooking);
+        verify(itemBookingSummaryService, never()).approve(any(Booking.class), any(LocalDateTime.class));
+        verify(eventPublisher, times(1)).publishEvent(any(BookingEvent.class));
     }
 
     @Test
     void updateBooking_whenBookingNotFound_thenExceptionThrown() {
         Long userId = 0L;
-        User user = new User();
-        user.setId(1L);
-        Item item = new Item();
-        item.setOwner(user);
         Long bookingId = 0L;
-        Booking oldBooking = new Booking();
-        oldBooking.setItem(item);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.empty());
 
         final BookingNotFoundException exception = assertThrows(BookingNotFoundException.class,
                 () -> bookingService.updateBooking(bookingId, true, userId));
 
         assertThat("Бронирование с идентификатором 0 не найдено.", equalTo(exception.getMessage()));
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, times(1)).findWithItemById(anyLong());
+        verify(bookingRepository, never()).updateStatus(anyLong(), any(), any());
     }
 
     @Test
@@ -685,15 +830,15 @@ class BookingServiceTest {
         Long bookingId = 0L;
         Booking oldBooking = new Booking();
         oldBooking.setItem(item);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.of(oldBooking));
 
         final ItemOwnershipException exception = assertThrows(ItemOwnershipException.class,
                 () -> bookingService.updateBooking(bookingId, true, userId));
 
         assertThat("Пользователь с id = 0 не является владельцем вещи c id = 0",
                 equalTo(exception.getMessage()));
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, times(1)).findWithItemById(anyLong());
+        verify(bookingRepository, never()).updateStatus(anyLong(), any(), any());
     }
 
     @Test
@@ -708,19 +853,19 @@ class BookingServiceTest {
         Booking oldBooking = new Booking();
         oldBooking.setItem(item);
         oldBooking.setStatus(BookingStatus.REJECTED);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.of(oldBooking));
 
         final ValidationException exception = assertThrows(ValidationException.class,
                 () -> bookingService.updateBooking(bookingId, false, userId));
 
         assertThat("Статус бронирования с id = 0 не был изменён пользователем с id = 0",
                 equalTo(exception.getMessage()));
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verify(bookingRepository, times(1)).findWithItemById(anyLong());
+        verify(bookingRepository, never()).updateStatus(anyLong(), any(), any());
     }
 
     @Test
-    void updateBooking_whenBookingNotUpdate_thenExceptionThrown() {
+    void updateBooking_whenStatusChangedConcurrently_thenConflictExceptionThrown() {
         Long userId = 0L;
         User user = new User();
         user.setId(userId);
@@ -731,16 +876,141 @@ class BookingServiceTest {
         Booking oldBooking = new Booking();
         oldBooking.setItem(item);
         oldBooking.setStatus(BookingStatus.WAITING);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(oldBooking));
-        when(bookingRepository.saveAndFlush(any(Booking.class)))
-                .thenThrow(new BookingNotSavedException());
+        when(bookingRepository.findWithItemById(anyLong())).thenReturn(Optional.of(oldBooking));
+        when(bookingRepository.updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(0);
 
-        final BookingNotSavedException exception = assertThrows(BookingNotSavedException.class,
+        final BookingConflictException exception = assertThrows(BookingConflictException.class,
                 () -> bookingService.updateBooking(bookingId, true, userId));
 
-        assertThat("Не удалось сохранить бронирование", equalTo(exception.getMessage()));
-        verify(bookingRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).saveAndFlush(any(Booking.class));
+        assertThat("Статус бронирования с id = 0 одновременно изменён другим запросом",
+                equalTo(exception.getMessage()));
+        verify(bookingRepository, times(1))
+                .updateStatus(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED);
+        verify(itemBookingSummaryService, never()).approve(any(Booking.class), any(LocalDateTime.class));
+        verify(bookingAvailabilityIndex, never()).release(any(Booking.class));
+    }
+
+    @Test
+    void updateBookings_whenMixedDecisions_thenResultPerBooking() {
+        Long userId = 0L;
+        User owner = new User();
+        owner.setId(userId);
+        User otherOwner = new User();
+        otherOwner.setId(1L);
+        Item item = new Item();
+        item.setId(10L);
+        item.setOwner(owner);
+        Item otherItem = new Item();
+        otherItem.setId(11L);
+        otherItem.setOwner(otherOwner);
+        Booking toApprove = booking(1L, item, BookingStatus.WAITING);
+        Booking toReject = booking(2L, item, BookingStatus.WAITING);
+        Booking decided = booking(3L, item, BookingStatus.APPROVED);
+        Booking notOwned = booking(4L, otherItem, BookingStatus.WAITING);
+        when(bookingRepository.findAllWithItemByIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(toApprove, toReject, decided, notOwned));
+        when(bookingRepository.findAllByIdInAndStatusForUpdate(anyCollection(), eq(BookingStatus.WAITING)))
+                .thenReturn(Arrays.asList(toApprove, toReject));
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(Arrays.asList(
+                decision(1L, true), decision(2L, false), decision(3L, true), decision(4L, true),
+                decision(5L, true)), userId);
+
+        assertThat(5, equalTo(results.size()));
+        assertThat(BookingDecisionResult.APPLIED, equalTo(results.get(0).getResult()));
+        assertThat(BookingStatus.APPROVED, equalTo(results.get(0).getBooking().getStatus()));
+        assertThat(BookingDecisionResult.APPLIED, equalTo(results.get(1).getResult()));
+        assertThat(BookingStatus.REJECTED, equalTo(results.get(1).getBooking().getStatus()));
+        assertThat(BookingDecisionResult.NOT_WAITING, equalTo(results.get(2).getResult()));
+        assertThat(BookingDecisionResult.NOT_OWNER, equalTo(results.get(3).getResult()));
+        assertThat(null, equalTo(results.get(3).getBooking()));
+        assertThat(BookingDecisionResult.NOT_FOUND, equalTo(results.get(4).getResult()));
+        assertThat(5L, equalTo(results.get(4).getBookingId()));
+
+        verify(bookingRepository, times(1))
+                .findAllByIdInAndStatusForUpdate(new HashSet<>(Arrays.asList(1L, 2L, 3L)), BookingStatus.WAITING);
+        verify(bookingRepository, times(1))
+                .updateStatuses(Collections.singletonList(1L), BookingStatus.APPROVED);
+        verify(bookingRepository, times(1))
+                .updateStatuses(Collections.singletonList(2L), BookingStatus.REJECTED);
+        verify(itemBookingSummaryService, times(1))
+                .approveAll(eq(Collections.singletonList(toApprove)), any(LocalDateTime.class));
+        verify(bookingAvailabilityIndex, times(1)).release(toReject);
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        // Подписчики и внешние системы узнают только о применённых решениях
+        verify(eventPublisher, times(2)).publishEvent(any(BookingEvent.class));
+        verify(outboxService, times(1)).appendAll(eq(OutboxEventType.BOOKING_STATUS_CHANGED),
+                eq(Arrays.asList(results.get(0).getBooking(), results.get(1).getBooking())), any());
+    }
+
+    @Test
+    void updateBookings_whenNothingOwned_thenNothingUpdated() {
+        Long userId = 0L;
+        when(bookingRepository.findAllWithItemByIdIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        List<BookingDecisionResultDto> results = bookingService.updateBookings(
+                Collections.singletonList(decision(1L, true)), userId);
+
+        assertThat(BookingDecisionResult.NOT_FOUND, equalTo(results.get(0).getResult()));
+        verify(bookingRepository, never()).findAllByIdInAndStatusForUpdate(anyCollection(), any());
+        verify(bookingRepository, never()).updateStatuses(anyCollection(), any());
+        verify(itemBookingSummaryService, never()).approveAll(anyList(), any(LocalDateTime.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateBookings_whenBookingRepeated_thenExceptionThrown() {
+        Long userId = 0L;
+
+        final ValidationException exception = assertThrows(ValidationException.class,
+                () -> bookingService.updateBookings(Arrays.asList(decision(1L, true), decision(1L, false)),
+                        userId));
+
+        assertThat("Решение по бронированию с id = 1 передано несколько раз.", equalTo(exception.getMessage()));
+        verify(bookingRepository, never()).findAllWithItemByIdIn(anyCollection());
+    }
+
+    @Test
+    void updateBookings_whenUserNotFound_thenExceptionThrown() {
+        Long userId = 0L;
+        doThrow(new UserNotFoundException(userId)).when(userCache).checkExists(userId);
+
+        assertThrows(UserNotFoundException.class,
+                () -> bookingService.updateBookings(Collections.singletonList(decision(1L, true)), userId));
+
+        verify(bookingRepository, never()).findAllWithItemByIdIn(anyCollection());
+    }
+
+    @Test
+    void streamBookings_whenUserNotFound_thenNotSubscribed() {
+        Long userId = 0L;
+        doThrow(new UserNotFoundException(userId)).when(userCache).checkExists(userId);
+
+        assertThrows(UserNotFoundException.class, () -> bookingService.streamBookings(userId));
+        verifyNoInteractions(bookingEventBus);
+    }
+
+    private Booking booking(Long id, Item item, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setBooker(booker());
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private User booker() {
+        User booker = new User();
+        booker.setId(7L);
+        return booker;
+    }
+
+    private BookingDecisionDto decision(Long bookingId, Boolean approved) {
+        BookingDecisionDto decision = new BookingDecisionDto();
+        decision.setBookingId(bookingId);
+        decision.setApproved(approved);
+        return decision;
     }
 
-}
\ No newline at end of file
+}
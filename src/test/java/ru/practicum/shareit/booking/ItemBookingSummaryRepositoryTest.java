@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+@DataJpaTest
+class ItemBookingSummaryRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    private final User user = new User();
+    private final Item item = new Item();
+
+    @BeforeEach
+    public void addSummary() {
+        user.setName("name");
+        user.setEmail("mail@mail.ru");
+        item.setName("1");
+        item.setDescription("1");
+        item.setAvailable(true);
+        item.setOwner(user);
+        userRepository.save(user);
+        itemRepository.saveAndFlush(item);
+
+        itemBookingSummaryRepository.createAll(Collections.singletonList(item.getId()));
+    }
+
+    @Test
+    void createAll_whenInvoked_thenEmptySummaryCreated() {
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).get();
+
+        assertThat(summary.getLastBookingId(), nullValue());
+        assertThat(summary.getNextBookingId(), nullValue());
+        assertThat(summary.getRefreshAfter(), nullValue());
+        assertThat(summary.getVersion(), equalTo(0L));
+    }
+
+    @Test
+    void rollForward_whenVersionMatches_thenSummaryUpdated() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(item.getId());
+        summary.setNextBookingId(5L);
+        summary.setNextBookerId(user.getId());
+        summary.setNextBookingStart(start);
+        summary.setRefreshAfter(start);
+
+        assertThat(itemBookingSummaryRepository.rollForward(summary, 0L), equalTo(1));
+        assertThat(itemBookingSummaryRepository.rollForward(summary, 0L), equalTo(0));
+
+        entityManager.clear();
+        ItemBookingSummary actualSummary = itemBookingSummaryRepository.findById(item.getId()).get();
+        assertThat(actualSummary.getNextBookingId(), equalTo(5L));
+        assertThat(actualSummary.getRefreshAfter(), equalTo(start));
+        assertThat(actualSummary.getVersion(), equalTo(1L));
+    }
+
+    @Test
+    void markStaleByBookerId_whenBookerInSummary_thenSummaryStale() {
+        ItemBookingSummary summary = itemBookingSummaryRepository.findByItemIdForUpdate(item.getId()).get();
+        summary.setLastBookingId(5L);
+        summary.setLastBookerId(user.getId());
+        itemBookingSummaryRepository.flush();
+
+        assertThat(itemBookingSummaryRepository.markStaleByBookerId(user.getId(),
+                ItemBookingSummaryService.STALE), equalTo(1));
+
+        entityManager.clear();
+        assertThat(itemBookingSummaryRepository.findById(item.getId()).get()
+                .isStale(LocalDateTime.now()), equalTo(true));
+    }
+
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummaryServiceTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2023, 7, 1, 12, 0);
+    private final User booker = new User();
+    private final Item item = new Item();
+
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @BeforeEach
+    public void addItem() {
+        booker.setId(2L);
+        item.setId(1L);
+    }
+
+    @Test
+    void getSummaries_whenSummaryFresh_thenBookingsNotRead() {
+        ItemBookingSummary summary = summary(now.plusDays(1));
+        when(itemBookingSummaryRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(summary));
+
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.getSummaries(
+                Collections.singletonList(1L), now);
+
+        assertThat(summaries.get(1L), equalTo(summary));
+        verifyNoInteractions(bookingRepository);
+        verify(itemBookingSummaryRepository, never()).rollForward(any(ItemBookingSummary.class), anyLong());
+    }
+
+    @Test
+    void getSummaries_whenNextBookingStarted_thenSummaryRolledForward() {
+        ItemBookingSummary summary = summary(now.minusMinutes(1));
+        summary.setVersion(3L);
+        Booking lastBooking = booking(10L, now.minusMinutes(1), now.plusHours(1));
+        Booking nextBooking = booking(11L, now.plusDays(2), now.plusDays(3));
+        when(itemBookingSummaryRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(summary));
+        when(bookingRepository.findLastBookingsByItemIds(Collections.singletonList(1L), BookingStatus.APPROVED, now))
+                .thenReturn(Arrays.asList(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(Collections.singletonList(1L), BookingStatus.APPROVED, now))
+                .thenReturn(Arrays.asList(nextBooking));
+
+        ItemBookingSummary actualSummary = itemBookingSummaryService.getSummaries(
+                Collections.singletonList(1L), now).get(1L);
+
+        assertThat(actualSummary.getLastBookingId(), equalTo(10L));
+        assertThat(actualSummary.getLastBookerId(), equalTo(2L));
+        assertThat(actualSummary.getNextBookingId(), equalTo(11L));
+        assertThat(actualSummary.getRefreshAfter(), equalTo(now.plusDays(2)));
+        verify(itemBookingSummaryRepository, times(1)).rollForward(actualSummary, 3L);
+    }
+
+    @Test
+    void getSummaries_whenSummaryMissing_thenAssembledFromBookingsAndNotSaved() {
+        Booking lastBooking = booking(10L, now.minusDays(1), now.minusHours(1));
+        when(itemBookingSummaryRepository.findAllById(anyIterable())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastBookingsByItemIds(Collections.singletonList(1L), BookingStatus.APPROVED, now))
+                .thenReturn(Arrays.asList(lastBooking));
+
+        ItemBookingSummary actualSummary = itemBookingSummaryService.getSummaries(
+                Collections.singletonList(1L), now).get(1L);
+
+        assertThat(actualSummary.getLastBookingId(), equalTo(10L));
+        assertThat(actualSummary.getNextBookingId(), nullValue());
+        assertThat(actualSummary.getRefreshAfter(), nullValue());
+        verify(itemBookingSummaryRepository, never()).rollForward(any(ItemBookingSummary.class), anyLong());
+    }
+
+    @Test
+    void approve_whenBookingStarted_thenLastBookingReplaced() {
+        ItemBookingSummary summary = summary(null);
+        summary.setLastBookingId(5L);
+        summary.setLastBookingEnd(now.minusDays(1));
+        when(itemBookingSummaryRepository.findByItemIdForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        itemBookingSummaryService.approve(booking(10L, now.minusHours(1), now.plusHours(1)), now);
+
+        assertThat(summary.getLastBookingId(), equalTo(10L));
+        assertThat(summary.getLastBookerId(), equalTo(2L));
+        assertThat(summary.getLastBookingEnd(), equalTo(now.plusHours(1)));
+        assertThat(summary.getRefreshAfter(), nullValue());
+    }
+
+    @Test
+    void approve_whenBookingEarlierThanNext_thenNextBookingReplaced() {
+        ItemBookingSummary summary = summary(now.plusDays(5));
+        summary.setNextBookingId(5L);
+        summary.setNextBookingStart(now.plusDays(5));
+        when(itemBookingSummaryRepository.findByItemIdForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        itemBookingSummaryService.approve(booking(10L, now.plusDays(1), now.plusDays(2)), now);
+
+        assertThat(summary.getNextBookingId(), equalTo(10L));
+        assertThat(summary.getNextBookingStart(), equalTo(now.plusDays(1)));
+        assertThat(summary.getRefreshAfter(), equalTo(now.plusDays(1)));
+    }
+
+    @Test
+    void approve_whenBookingLaterThanNext_thenSummaryNotChanged() {
+        ItemBookingSummary summary = summary(now.plusDays(1));
+        summary.setNextBookingId(5L);
+        summary.setNextBookingStart(now.plusDays(1));
+        when(itemBookingSummaryRepository.findByItemIdForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        itemBookingSummaryService.approve(booking(10L, now.plusDays(2), now.plusDays(3)), now);
+
+        assertThat(summary.getNextBookingId(), equalTo(5L));
+        assertThat(summary.getRefreshAfter(), equalTo(now.plusDays(1)));
+    }
+
+    @Test
+    void approve_whenSummaryStale_thenSummaryStaysStale() {
+        ItemBookingSummary summary = summary(ItemBookingSummaryService.STALE);
+        when(itemBookingSummaryRepository.findByItemIdForUpdate(1L)).thenReturn(Optional.of(summary));
+
+        itemBookingSummaryService.approve(booking(10L, now.plusDays(1), now.plusDays(2)), now);
+
+        assertThat(summary.getNextBookingId(), equalTo(10L));
+        assertThat(summary.isStale(now), equalTo(true));
+    }
+
+    @Test
+    void approve_whenSummaryMissing_thenNothingSaved() {
+        when(itemBookingSummaryRepository.findByItemIdForUpdate(1L)).thenReturn(Optional.empty());
+
+        itemBookingSummaryService.approve(booking(10L, now.plusDays(1), now.plusDays(2)), now);
+
+        verify(itemBookingSummaryRepository, times(1)).findByItemIdForUpdate(1L);
+        verifyNoMoreInteractions(itemBookingSummaryRepository);
+    }
+
+    @Test
+    void approveAll_whenSeveralBookingsOfItem_thenSummaryLockedOnceAndBothApplied() {
+        ItemBookingSummary summary = summary(null);
+        when(itemBookingSummaryRepository.findAllByItemIdInForUpdate(Collections.singleton(1L)))
+                .thenReturn(Collections.singletonList(summary));
+
+        itemBookingSummaryService.approveAll(Arrays.asList(booking(10L, now.minusHours(1), now.plusHours(1)),
+                booking(11L, now.plusDays(1), now.plusDays(2))), now);
+
+        assertThat(summary.getLastBookingId(), equalTo(10L));
+        assertThat(summary.getNextBookingId(), equalTo(11L));
+        assertThat(summary.getRefreshAfter(), equalTo(now.plusDays(1)));
+        verify(itemBookingSummaryRepository, times(1)).findAllByItemIdInForUpdate(Collections.singleton(1L));
+        verify(itemBookingSummaryRepository, never()).findByItemIdForUpdate(anyLong());
+    }
+
+    @Test
+    void approveAll_whenNoBookings_thenSummariesNotRead() {
+        itemBookingSummaryService.approveAll(Collections.emptyList(), now);
+
+        verifyNoInteractions(itemBookingSummaryRepository);
+    }
+
+    @Test
+    void invalidateBooker_whenInvoked_thenSummariesMarkedStale() {
+        itemBookingSummaryService.invalidateBooker(2L);
+
+        verify(itemBookingSummaryRepository, times(1))
+                .markStaleByBookerId(2L, ItemBookingSummaryService.STALE);
+    }
+
+    private ItemBookingSummary summary(LocalDateTime refreshAfter) {
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(1L);
+        summary.setRefreshAfter(refreshAfter);
+        summary.setVersion(0L);
+        return summary;
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+
+}
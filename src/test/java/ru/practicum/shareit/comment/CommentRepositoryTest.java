@@ -8,6 +8,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.*;
@@ -27,17 +28,17 @@ class CommentRepositoryTest {
     @Autowired
     private CommentRepository commentRepository;
 
+    private final User user = new User();
+    private final Item item1 = new Item();
     private final Item item2 = new Item();
     private final Comment comment1 = new Comment();
     private final Comment comment2 = new Comment();
 
     @BeforeEach
     public void addComments() {
-        User user = new User();
         user.setName("name");
         user.setEmail("mail@mail.ru");
 
-        Item item1 = new Item();
         item1.setName("1");
         item1.setDescription("1");
         item1.setAvailable(true);
@@ -79,4 +80,13 @@ class CommentRepositoryTest {
         assertThat(comment2, equalTo(actualComments.get(0)));
     }
 
-}
\ No newline at end of file
+    @Test
+    void findAllByItemIdIn() {
+        List<Comment> actualComments = commentRepository.findAllByItemIdIn(
+                Arrays.asList(item1.getId(), item2.getId()));
+
+        assertThat(2, equalTo(actualComments.size()));
+        assertThat(user.getName(), equalTo(actualComments.get(0).getAuthor().getName()));
+    }
+
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.common.controller.AdviceController;
+import ru.practicum.shareit.common.exception.ErrorResponse;
+import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.exception.UserNotSavedException;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class AdviceControllerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdviceController adviceController = new AdviceController();
+
+    @BeforeEach
+    public void setMeterRegistry() {
+        adviceController.setMeterRegistry(new StaticListableBeanFactory(
+                Collections.singletonMap("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void domainExceptions_whenCreated_thenStackTraceNotCaptured() {
+        assertThat(0, equalTo(new UserNotFoundException(1L).getStackTrace().length));
+        assertThat(0, equalTo(new UserNotSavedException().getStackTrace().length));
+        assertThat(0, equalTo(new ValidationException("ошибка").getStackTrace().length));
+    }
+
+    @Test
+    void handleNotFoundException_whenInvoked_thenCountedPerExceptionType() {
+        adviceController.handleNotFoundException(new UserNotFoundException(1L));
+        adviceController.handleNotFoundException(new UserNotFoundException(2L));
+        String body = adviceController.handleNotFoundException(new ItemNotFoundException(3L));
+
+        assertThat("Ошибка: Вещь с идентификатором 3 не найдена.", equalTo(body));
+        assertThat(2.0, equalTo(meterRegistry.get("shareit.errors")
+                .tag("status", "404")
+                .tag("exception", "UserNotFoundException")
+                .counter()
+                .count()));
+        assertThat(1.0, equalTo(meterRegistry.get("shareit.errors")
+                .tag("exception", "ItemNotFoundException")
+                .counter()
+                .count()));
+    }
+
+    @Test
+    void handleValidationExceptions_whenInvoked_thenCountedWithBadRequestStatus() {
+        ErrorResponse response = adviceController.handleValidationExceptions(new ValidationException("ошибка"));
+
+        assertThat("ошибка", equalTo(response.getError()));
+        assertThat(1.0, equalTo(meterRegistry.get("shareit.errors")
+                .tag("status", "400")
+                .tag("exception", "ValidationException")
+                .counter()
+                .count()));
+    }
+
+    @Test
+    void handleAllUnhandledExceptions_whenMeterRegistryMissing_thenBodyReturned() {
+        AdviceController withoutMetrics = new AdviceController();
+
+        assertThat("Произошла непредвиденная ошибка.",
+                equalTo(withoutMetrics.handleAllUnhandledExceptions(new IllegalStateException())));
+    }
+
+}
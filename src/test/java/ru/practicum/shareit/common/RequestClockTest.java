@@ -0,0 +1,73 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.common.clock.RequestClock;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestClockTest {
+
+    private final LocalDateTime first = LocalDateTime.of(2023, 7, 1, 12, 0);
+    private final LocalDateTime second = first.plusNanos(5_000_000);
+
+    @Mock
+    private Clock clock;
+
+    private RequestClock requestClock;
+
+    @BeforeEach
+    public void tickClock() {
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.instant()).thenReturn(first.toInstant(ZoneOffset.UTC), second.toInstant(ZoneOffset.UTC));
+        requestClock = new RequestClock(clock);
+    }
+
+    @AfterEach
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void now_whenCalledTwiceInRequest_thenSameMomentReturned() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        LocalDateTime firstNow = requestClock.now();
+        LocalDateTime secondNow = requestClock.now();
+
+        assertThat(first, equalTo(firstNow));
+        assertThat(firstNow, equalTo(secondNow));
+        verify(clock, times(1)).instant();
+    }
+
+    @Test
+    void now_whenNextRequest_thenClockReadAgain() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        requestClock.now();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(second, equalTo(requestClock.now()));
+    }
+
+    @Test
+    void now_whenOutsideRequest_thenClockReadOnEveryCall() {
+        assertThat(first, equalTo(requestClock.now()));
+        assertThat(second, equalTo(requestClock.now()));
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.common.config.SchemaIndexVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+class SchemaIndexVerifierTest {
+
+    private final List<String> expectedIndexes = Arrays.asList(
+            "bookings.ix_bookings_booker_end",
+            "bookings.ix_bookings_booker_status_end",
+            "bookings.ix_bookings_booker_start",
+            "bookings.ix_bookings_item_status_start",
+            "bookings.ix_bookings_item_booker_end",
+            "bookings.ix_bookings_item_start",
+            "items.ix_items_owner_id",
+            "items.ix_items_request",
+            "comments.ix_comments_item",
+            "requests.ix_requests_requester_created_id",
+            "requests.ix_requests_created_id");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void run_whenMigrationsApplied_thenAllIndexesFound() {
+        SchemaIndexVerifier verifier = new SchemaIndexVerifier(dataSource, expectedIndexes,
+                Collections.emptyList());
+
+        assertDoesNotThrow(() -> verifier.run(null));
+    }
+
+    @Test
+    void run_whenIndexMissing_thenExceptionThrown() {
+        SchemaIndexVerifier verifier = new SchemaIndexVerifier(dataSource, expectedIndexes,
+                Collections.singletonList("items.ix_items_missing"));
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> verifier.run(null));
+
+        assertThat("В схеме базы данных отсутствуют индексы: [items.ix_items_missing]",
+                equalTo(exception.getMessage()));
+    }
+
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.common;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.practicum.shareit.common.utils.Constants;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+// Проверки бюджета SQL-запросов по заголовкам, которые выставляет SqlStatisticsResponseAdvice
+@UtilityClass
+public class SqlStatisticsMatchers {
+
+    public static ResultMatcher sqlStatements(int expected) {
+        return header().string(Constants.HEADER_SQL_STATEMENTS, String.valueOf(expected));
+    }
+
+    public static ResultMatcher sqlStatementsAtMost(int budget) {
+        return result -> {
+            String statements = result.getResponse().getHeader(Constants.HEADER_SQL_STATEMENTS);
+            assertThat(statements, notNullValue());
+            assertThat(Integer.parseInt(statements), lessThanOrEqualTo(budget));
+        };
+    }
+
+}
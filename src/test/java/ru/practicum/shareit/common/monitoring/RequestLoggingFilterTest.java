@@ -0,0 +1,109 @@
+package ru.practicum.shareit.common.monitoring;
+
+import ru.practicum.shareit.common.utils.Constants;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestLoggingFilterTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Level level;
+
+    @BeforeEach
+    public void attachAppender() {
+        level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void detachAppender() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    @Test
+    void doFilter_whenSampleRateOne_thenRequestLoggedWithoutBody() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(1.0, Duration.ofSeconds(10));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/items");
+        request.addHeader(Constants.HEADER_USER_ID, "7");
+        request.setContent("{\"name\":\"Дрель\"}".getBytes(StandardCharsets.UTF_8));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(1, equalTo(appender.list.size()));
+        String message = appender.list.get(0).getFormattedMessage();
+        assertThat(message, containsString("POST /items пользователь = 7, статус = 200"));
+        assertThat(false, equalTo(message.contains("Дрель")));
+    }
+
+    @Test
+    void doFilter_whenSampleRateZero_thenSuccessfulRequestNotLogged() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0.0, Duration.ofSeconds(10));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertThat(0, equalTo(appender.list.size()));
+    }
+
+    @Test
+    void doFilter_whenSampleRateZeroAndServerError_thenRequestLogged() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0.0, Duration.ofSeconds(10));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), response, new MockFilterChain());
+
+        assertThat(1, equalTo(appender.list.size()));
+        assertThat(appender.list.get(0).getFormattedMessage(), containsString("статус = 500"));
+    }
+
+    @Test
+    void doFilter_whenSampleRateZeroAndChainFailed_thenRequestLoggedAsServerError() {
+        RequestLoggingFilter filter = new RequestLoggingFilter(0.0, Duration.ofSeconds(10));
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws ServletException {
+                throw new ServletException("сбой");
+            }
+        };
+
+        assertThrows(ServletException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/items"),
+                new MockHttpServletResponse(), chain));
+
+        assertThat(1, equalTo(appender.list.size()));
+        assertThat(appender.list.get(0).getFormattedMessage(), containsString("статус = 500"));
+    }
+
+    @Test
+    void constructor_whenSampleRateAboveOne_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestLoggingFilter(1.5, Duration.ofSeconds(10)));
+    }
+
+}
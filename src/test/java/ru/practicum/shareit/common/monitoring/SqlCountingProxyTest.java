@@ -0,0 +1,97 @@
+package ru.practicum.shareit.common.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import javax.sql.DataSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SqlCountingProxyTest {
+
+    private static final String SQL = "select * from users where id = ?";
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement preparedStatement;
+    @Mock
+    private ResultSet resultSet;
+
+    @AfterEach
+    public void stopStatistics() {
+        SqlStatistics.stop();
+    }
+
+    @Test
+    void wrap_whenAlreadyWrapped_thenReturnSameDataSource() {
+        DataSource wrapped = SqlCountingProxy.wrap(dataSource);
+
+        assertThat(wrapped, sameInstance(SqlCountingProxy.wrap(wrapped)));
+    }
+
+    @SneakyThrows
+    @Test
+    void wrap_whenHikariDataSource_thenWrapperKeepsPoolClass() {
+        HikariDataSource hikariDataSource = new HikariDataSource();
+
+        DataSource wrapped = SqlCountingProxy.wrap(hikariDataSource);
+
+        assertThat(wrapped, instanceOf(HikariDataSource.class));
+        assertThat(wrapped.unwrap(HikariDataSource.class), instanceOf(HikariDataSource.class));
+        assertThat(true, equalTo(wrapped.isWrapperFor(HikariDataSource.class)));
+    }
+
+    @SneakyThrows
+    @Test
+    void executeQuery_whenStatisticsStarted_thenStatementsAndRowsCounted() {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false, true, false, true, false);
+        SqlStatistics statistics = SqlStatistics.start();
+
+        Connection wrappedConnection = SqlCountingProxy.wrap(dataSource).getConnection();
+        for (int i = 0; i < 3; i++) {
+            ResultSet rows = wrappedConnection.prepareStatement(SQL).executeQuery();
+            while (rows.next()) {
+                rows.getLong(1);
+            }
+        }
+
+        assertThat(3, equalTo(statistics.getStatements()));
+        assertThat(4L, equalTo(statistics.getRows()));
+        assertThat(Collections.singletonMap(SQL, 3), equalTo(statistics.findRepeatedStatements(3)));
+        assertThat(Collections.<String, Integer>emptyMap(), equalTo(statistics.findRepeatedStatements(4)));
+    }
+
+    @SneakyThrows
+    @Test
+    void prepareStatement_whenStatisticsNotStarted_thenStatementNotWrapped() {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+
+        PreparedStatement statement = SqlCountingProxy.wrap(dataSource).getConnection().prepareStatement(SQL);
+
+        assertThat(preparedStatement, sameInstance(statement));
+        assertThat(SqlStatistics.current(), nullValue());
+    }
+
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.common.monitoring;
+
+import java.util.Collections;
+import javax.servlet.FilterChain;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class SqlStatisticsFilterTest {
+
+    private static final String SQL = "select * from items where id = ?";
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SqlStatisticsFilter.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void doFilter_whenBudgetExceeded_thenWarningLoggedAndMetricsRecorded() throws Exception {
+        SqlStatisticsFilter filter = createFilter(2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), executingDistinct(3));
+
+        assertThat(1, equalTo(appender.list.size()));
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(Level.WARN, equalTo(event.getLevel()));
+        assertThat(event.getFormattedMessage(),
+                containsString("Запрос GET /items/{itemId} выполнил 3 SQL-запросов при бюджете 2"));
+        DistributionSummary statements = meterRegistry.get("shareit.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/items/{itemId}")
+                .summary();
+        assertThat(1L, equalTo(statements.count()));
+        assertThat(3.0, equalTo(statements.totalAmount()));
+        assertThat(SqlStatistics.current(), nullValue());
+    }
+
+    @Test
+    void doFilter_whenWithinBudget_thenNothingLogged() throws Exception {
+        SqlStatisticsFilter filter = createFilter(2);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(), executing(2));
+
+        assertThat(0, equalTo(appender.list.size()));
+    }
+
+    @Test
+    void doFilter_whenStatementRepeated_thenPossibleNPlusOneLogged() throws Exception {
+        SqlStatisticsFilter filter = createFilter(10);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(), executing(3));
+
+        assertThat(1, equalTo(appender.list.size()));
+        assertThat(appender.list.get(0).getFormattedMessage(),
+                containsString("Возможная проблема N+1 в запросе GET /items"));
+    }
+
+    @Test
+    void doFilter_whenMeterRegistryMissing_thenWarningStillLogged() throws Exception {
+        SqlStatisticsFilter filter = new SqlStatisticsFilter(2, 3,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(), executing(3));
+
+        assertThat(2, equalTo(appender.list.size()));
+    }
+
+    private SqlStatisticsFilter createFilter(int statementBudget) {
+        return new SqlStatisticsFilter(statementBudget, 3,
+                new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class));
+    }
+
+    // Цепочка, которая выполняет один и тот же SQL заданное количество раз
+    private FilterChain executing(int statements) {
+        return (request, response) -> {
+            for (int i = 0; i < statements; i++) {
+                SqlStatistics.current().statementExecuted(SQL, 1000);
+            }
+        };
+    }
+
+    // Цепочка с разными SQL, чтобы не сработало предупреждение о повторах
+    private FilterChain executingDistinct(int statements) {
+        return (request, response) -> {
+            for (int i = 0; i < statements; i++) {
+                SqlStatistics.current().statementExecuted(SQL + " and owner_id = " + i, 1000);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.common.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class NdjsonFileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void publish_whenCalledTwice_thenEventsAppendedOnePerLine() throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        NdjsonFileOutboxSink sink = new NdjsonFileOutboxSink(file.toString(), objectMapper);
+
+        sink.publish(Arrays.asList(event(1L, "{\"name\":\"Дрель\"}"), event(2L, "{\"name\":\"Пила\"}")));
+        sink.publish(Collections.singletonList(event(3L, "{\"text\":\"Отлично\"}")));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(3, equalTo(lines.size()));
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(1L, equalTo(first.get("id").asLong()));
+        assertThat("ITEM", equalTo(first.get("aggregateType").asText()));
+        assertThat("ITEM_CREATED", equalTo(first.get("type").asText()));
+        assertThat("2023-07-01T12:00", equalTo(first.get("createdAt").asText()));
+        assertThat("Дрель", equalTo(first.get("payload").get("name").asText()));
+        assertThat("Отлично", equalTo(objectMapper.readTree(lines.get(2)).get("payload").get("text").asText()));
+    }
+
+    private OutboxEvent event(Long id, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType("ITEM");
+        event.setAggregateId(id);
+        event.setType(OutboxEventType.ITEM_CREATED);
+        event.setPayload(payload);
+        event.setCreatedAt(LocalDateTime.of(2023, 7, 1, 12, 0));
+        return event;
+    }
+
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.common.outbox;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2023, 7, 1, 12, 0);
+    private final Clock clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<OutboxEvent>> published = new ArrayList<>();
+
+    @Mock
+    private OutboxRepository outboxRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void relay_whenBatchFull_thenNextBatchRelayedInOrder() {
+        OutboxEvent first = event(1L, now);
+        OutboxEvent second = event(2L, now);
+        OutboxEvent third = event(3L, now);
+        when(outboxRepository.findBatchForUpdate(PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(first, second), Collections.singletonList(third));
+        when(outboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+
+        OutboxRelay relay = createRelay(2, Collections.singletonMap("sink", (OutboxSink) published::add));
+
+        int relayed = relay.relay();
+
+        assertThat(3, equalTo(relayed));
+        assertThat(Arrays.asList(Arrays.asList(first, second), Collections.singletonList(third)),
+                equalTo(published));
+        InOrder inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository, times(1)).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+        inOrder.verify(outboxRepository, times(1)).deleteAllByIdInBatch(Collections.singletonList(3L));
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(3.0, equalTo(meterRegistry.get("shareit.outbox.relayed").counter().count()));
+        assertThat(0.0, equalTo(relay.getLagSeconds()));
+    }
+
+    @Test
+    void relay_whenSinkFailed_thenEventsKeptAndFailureCounted() {
+        OutboxEvent oldest = event(1L, now.minusSeconds(30));
+        when(outboxRepository.findBatchForUpdate(any())).thenReturn(Collections.singletonList(oldest));
+        when(outboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.of(oldest));
+        OutboxSink failing = events -> {
+            throw new IOException("диск заполнен");
+        };
+
+        OutboxRelay relay = createRelay(10, Collections.singletonMap("sink", failing));
+
+        int relayed = relay.relay();
+
+        assertThat(0, equalTo(relayed));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(anyIterable());
+        verify(transactionManager, times(1)).rollback(any());
+        assertThat(1.0, equalTo(meterRegistry.get("shareit.outbox.failures").counter().count()));
+        assertThat(0.0, equalTo(meterRegistry.get("shareit.outbox.relayed").counter().count()));
+        assertThat(30.0, equalTo(meterRegistry.get("shareit.outbox.lag").gauge().value()));
+        assertThat(30.0, equalTo(relay.getLagSeconds()));
+    }
+
+    @Test
+    void relay_whenSecondSinkFailed_thenBatchRedeliveredToAllSinksNextTime() {
+        OutboxEvent event = event(1L, now);
+        when(outboxRepository.findBatchForUpdate(any()))
+                .thenReturn(Collections.singletonList(event), Collections.singletonList(event));
+        when(outboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.of(event), Optional.empty());
+        boolean[] failed = {false};
+        OutboxSink failingOnce = events -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IOException("нет связи");
+            }
+        };
+        Map<String, Object> sinks = new LinkedHashMap<>();
+        sinks.put("first", (OutboxSink) published::add);
+        sinks.put("second", failingOnce);
+        OutboxRelay relay = createRelay(10, sinks);
+
+        relay.relay();
+        int relayed = relay.relay();
+
+        assertThat(1, equalTo(relayed));
+        assertThat(2, equalTo(published.size()));
+        verify(outboxRepository, times(1)).deleteAllByIdInBatch(Collections.singletonList(1L));
+    }
+
+    @Test
+    void relay_whenNoSinks_thenOutboxNotDrained() {
+        when(outboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.of(event(1L, now.minusSeconds(5))));
+
+        OutboxRelay relay = createRelay(10, Collections.emptyMap());
+
+        int relayed = relay.relay();
+
+        assertThat(0, equalTo(relayed));
+        verify(outboxRepository, never()).findBatchForUpdate(any());
+        verifyNoInteractions(transactionManager);
+        assertThat(5.0, equalTo(relay.getLagSeconds()));
+    }
+
+    @Test
+    void relay_whenMeterRegistryMissing_thenEventsRelayed() {
+        OutboxEvent event = event(1L, now);
+        when(outboxRepository.findBatchForUpdate(any())).thenReturn(Collections.singletonList(event));
+        when(outboxRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+        OutboxRelay relay = new OutboxRelay(outboxRepository,
+                new StaticListableBeanFactory(Collections.singletonMap("sink", (OutboxSink) published::add))
+                        .getBeanProvider(OutboxSink.class),
+                transactionManager, clock, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 10);
+
+        int relayed = relay.relay();
+
+        assertThat(1, equalTo(relayed));
+        verify(outboxRepository, times(1)).deleteAllByIdInBatch(Collections.singletonList(1L));
+    }
+
+    @Test
+    void constructor_whenBatchSizeNotPositive_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class, () -> createRelay(0, Collections.emptyMap()));
+    }
+
+    private OutboxRelay createRelay(int batchSize, Map<String, ?> sinks) {
+        ObjectProvider<OutboxSink> sinkProvider = new StaticListableBeanFactory(new LinkedHashMap<>(sinks))
+                .getBeanProvider(OutboxSink.class);
+        return new OutboxRelay(outboxRepository, sinkProvider, transactionManager, clock,
+                new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry))
+                        .getBeanProvider(MeterRegistry.class), batchSize);
+    }
+
+    private OutboxEvent event(Long id, LocalDateTime createdAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType("ITEM");
+        event.setAggregateId(id);
+        event.setType(OutboxEventType.ITEM_CREATED);
+        event.setPayload("{}");
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.common.outbox;
+
+import ru.practicum.shareit.common.clock.RequestClock;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2023, 7, 1, 12, 0);
+
+    private final RequestClock requestClock =
+            new RequestClock(Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Captor
+    private ArgumentCaptor<OutboxEvent> eventArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<List<OutboxEvent>> eventsArgumentCaptor;
+
+    @Test
+    void append_whenInvoked_thenEventSavedWithJsonPayload() {
+        OutboxService outboxService = createService(true);
+
+        outboxService.append(OutboxEventType.USER_DELETED, 3L, Collections.singletonMap("id", 3L));
+
+        verify(outboxRepository).save(eventArgumentCaptor.capture());
+        OutboxEvent event = eventArgumentCaptor.getValue();
+        assertThat("USER", equalTo(event.getAggregateType()));
+        assertThat(3L, equalTo(event.getAggregateId()));
+        assertThat(OutboxEventType.USER_DELETED, equalTo(event.getType()));
+        assertThat("{\"id\":3}", equalTo(event.getPayload()));
+        assertThat(now, equalTo(event.getCreatedAt()));
+    }
+
+    @Test
+    void appendAll_whenInvoked_thenEventsSavedInOneCall() {
+        OutboxService outboxService = createService(true);
+
+        outboxService.appendAll(OutboxEventType.ITEM_CREATED, Arrays.asList(1L, 2L), id -> id);
+
+        verify(outboxRepository, times(1)).saveAll(eventsArgumentCaptor.capture());
+        List<OutboxEvent> events = eventsArgumentCaptor.getValue();
+        assertThat(2, equalTo(events.size()));
+        assertThat(2L, equalTo(events.get(1).getAggregateId()));
+        assertThat("ITEM", equalTo(events.get(1).getAggregateType()));
+        assertThat("2", equalTo(events.get(1).getPayload()));
+    }
+
+    @Test
+    void appendAll_whenNothingToAppend_thenNothingSaved() {
+        OutboxService outboxService = createService(true);
+
+        outboxService.appendAll(OutboxEventType.ITEM_CREATED, Collections.<Long>emptyList(), id -> id);
+
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void append_whenNoSinks_thenNothingSaved() {
+        OutboxService outboxService = createService(false);
+
+        outboxService.append(OutboxEventType.USER_DELETED, 3L, Collections.singletonMap("id", 3L));
+        outboxService.appendAll(OutboxEventType.ITEM_CREATED, Arrays.asList(1L, 2L), id -> id);
+
+        verifyNoInteractions(outboxRepository);
+    }
+
+    private OutboxService createService(boolean withSink) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        if (withSink) {
+            beanFactory.addBean("sink", (OutboxSink) events -> {
+            });
+        }
+        return new OutboxService(outboxRepository, new ObjectMapper(), requestClock,
+                beanFactory.getBeanProvider(OutboxSink.class));
+    }
+
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    public void addItems() {
+        searchEngine.index(createItem(1L, "1", "ОписАнИе 1", true));
+        searchEngine.index(createItem(2L, "2", "опИсание 2", false));
+        searchEngine.index(createItem(3L, "3", "опИсаниЕ 3", true));
+        searchEngine.index(createItem(4L, "Дрель", "Простая дрель", true));
+        searchEngine.index(createItem(5L, "Молоток", "Дрель не нужна", true));
+    }
+
+    @Test
+    void rebuild_whenInvoked_thenIndexedAllItems() {
+        when(itemRepository.findAll()).thenReturn(Arrays.asList(createItem(6L, "Пила", "Ручная пила", true)));
+
+        searchEngine.rebuild();
+
+        assertThat(Arrays.asList(6L), equalTo(ids(searchEngine.search("пила", PageRequest.of(0, 5)))));
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void search_whenPrefixInAnyCase_thenReturnedAvailableItems() {
+        List<ItemSearchHit> hits = searchEngine.search("ОПИСАНИ", PageRequest.of(0, 5));
+
+        assertThat(Arrays.asList(1L, 3L), equalTo(ids(hits)));
+    }
+
+    @Test
+    void search_whenNameMatched_thenRankedHigherThanDescription() {
+        List<ItemSearchHit> hits = searchEngine.search("дРелЬ", PageRequest.of(0, 5));
+
+        assertThat(Arrays.asList(4L, 5L), equalTo(ids(hits)));
+    }
+
+    @Test
+    void search_whenSeveralTerms_thenReturnedItemsMatchedAllTerms() {
+        List<ItemSearchHit> hits = searchEngine.search("дрель простая", PageRequest.of(0, 5));
+
+        assertThat(Arrays.asList(4L), equalTo(ids(hits)));
+    }
+
+    @Test
+    void searchAny_whenSeveralTerms_thenReturnedItemsMatchedAnyTerm() {
+        List<ItemSearchHit> hits = searchEngine.searchAny("нужна простая дрель", null, PageRequest.of(0, 5));
+
+        assertThat(Arrays.asList(4L, 5L), equalTo(ids(hits)));
+        assertThat(searchEngine.searchAny("отвертка пила", null, PageRequest.of(0, 5)), empty());
+    }
+
+    @Test
+    void searchAny_whenOwnerExcluded_thenOwnerItemsSkippedBeforePaging() {
+        User owner = new User();
+        owner.setId(7L);
+        Item ownerDrill = createItem(3L, "Дрель", "Дрель владельца", true);
+        ownerDrill.setOwner(owner);
+        searchEngine.index(ownerDrill);
+
+        List<ItemSearchHit> hits = searchEngine.searchAny("дрель", 7L, PageRequest.of(0, 2));
+
+        assertThat(Arrays.asList(4L, 5L), equalTo(ids(hits)));
+    }
+
+    @Test
+    void search_whenPageRequested_thenReturnedOnlyPage() {
+        List<ItemSearchHit> hits = searchEngine.search("описание", PageRequest.of(1, 1));
+
+        assertThat(Arrays.asList(3L), equalTo(ids(hits)));
+    }
+
+    @Test
+    void search_whenNothingMatched_thenReturnedEmptyList() {
+        assertThat(searchEngine.search("отвертка", PageRequest.of(0, 5)), empty());
+        assertThat(searchEngine.search("!!!", PageRequest.of(0, 5)), empty());
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTokensRemoved() {
+        searchEngine.index(createItem(4L, "Пила", "Простая пила", true));
+
+        assertThat(Arrays.asList(5L), equalTo(ids(searchEngine.search("дрель", PageRequest.of(0, 5)))));
+        assertThat(Arrays.asList(4L), equalTo(ids(searchEngine.search("пила", PageRequest.of(0, 5)))));
+    }
+
+    private List<Long> ids(List<ItemSearchHit> hits) {
+        return hits.stream()
+                .map(ItemSearchHit::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    private Item createItem(Long id, String name, String description, Boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setAvailable(available);
+        return item;
+    }
+
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static ru.practicum.shareit.common.SqlStatisticsMatchers.sqlStatementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemBatchStatementCountTest {
+
+    private static final int ITEMS = 120;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final User owner = new User();
+
+    @BeforeEach
+    public void addOwner() {
+        owner.setName("owner");
+        owner.setEmail("batch-owner@mail.ru");
+        userRepository.save(owner);
+    }
+
+    @AfterEach
+    public void deleteItems() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Проверка владельца, по одному обращению к последовательности на каждые 50 id,
+    // по одному пакету вставок на каждые 50 вещей вместо отдельного INSERT на каждую
+    // и одна вставка сводок бронирований на все вещи
+    @SneakyThrows
+    @Test
+    void createItems_whenInvoked_thenItemsInsertedInBatches() {
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            ItemDto itemDto = new ItemDto();
+            itemDto.setName("item " + i);
+            itemDto.setDescription("description " + i);
+            itemDto.setAvailable(true);
+            items.add(itemDto);
+        }
+
+        mockMvc.perform(post("/items/batch")
+                        .header(Constants.HEADER_USER_ID, owner.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(8));
+
+        assertThat(itemRepository.count(), equalTo((long) ITEMS));
+    }
+
+}
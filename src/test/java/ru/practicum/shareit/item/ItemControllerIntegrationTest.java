@@ -1,14 +1,22 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.common.utils.Constants;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.item.service.ItemCard;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.SneakyThrows;
@@ -27,7 +35,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.common.SqlStatisticsMatchers.sqlStatements;
 
 @WebMvcTest(ItemController.class)
 @AutoConfigureMockMvc
@@ -39,6 +49,8 @@ class ItemControllerIntegrationTest {
     private MockMvc mockMvc;
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private ItemImportService itemImportService;
 
     private final Long userId = 0L;
     private final UserDto userDto = new UserDto();
@@ -75,6 +87,8 @@ class ItemControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
+                // Сервис подменён, поэтому любой SQL здесь выполнил бы сам контроллер
+                .andExpect(sqlStatements(0))
                 .andReturn()
                 .getResponse()
                 .getContentAsString(StandardCharsets.UTF_8);
@@ -106,7 +120,7 @@ class ItemControllerIntegrationTest {
     @Test
     void getItemById_whenItemFound_thenReturnedItem() {
         long itemId = 0L;
-        when(itemService.getItemById(anyLong(), anyLong())).thenReturn(itemDto);
+        when(itemService.getItemCard(anyLong(), anyLong())).thenReturn(new ItemCard(itemDto, "i0-3"));
 
         String result = mockMvc.perform(get("/items/{itemId}", itemId)
                         .header(Constants.HEADER_USER_ID, userId)
@@ -114,12 +128,46 @@ class ItemControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(sqlStatements(0))
+                .andExpect(header().string("ETag", "\"i0-3\""))
                 .andReturn()
                 .getResponse()
                 .getContentAsString(StandardCharsets.UTF_8);
 
         assertThat(objectMapper.writeValueAsString(itemDto), equalTo(result));
-        verify(itemService, times(1)).getItemById(itemId, userId);
+        verify(itemService, times(1)).getItemCard(itemId, userId);
+        verify(itemService, never()).getItemTag(anyLong(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemById_whenIfNoneMatchEqualsTag_thenNotModified() {
+        long itemId = 0L;
+        when(itemService.getItemTag(itemId, userId)).thenReturn("i0-3-1");
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .header("If-None-Match", "\"i0-3-1\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"i0-3-1\""));
+
+        verify(itemService, never()).getItemCard(anyLong(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemById_whenIfNoneMatchOutdated_thenReturnedItemWithNewTag() {
+        long itemId = 0L;
+        when(itemService.getItemTag(itemId, userId)).thenReturn("i0-4");
+        when(itemService.getItemCard(itemId, userId)).thenReturn(new ItemCard(itemDto, "i0-4"));
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .header("If-None-Match", "\"i0-3\""))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"i0-4\""));
     }
 
     @SneakyThrows
@@ -163,6 +211,93 @@ class ItemControllerIntegrationTest {
         verify(itemService, never()).createItem(itemDto, userId);
     }
 
+    @SneakyThrows
+    @Test
+    void createItems_whenItemsValid_thenSavedItems() {
+        List<ItemDto> items = Arrays.asList(itemDto, itemDto2);
+        when(itemService.createItems(anyList(), anyLong())).thenReturn(items);
+
+        String result = mockMvc.perform(post("/items/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(items), equalTo(result));
+        verify(itemService, times(1)).createItems(items, userId);
+    }
+
+    @SneakyThrows
+    @Test
+    void createItems_whenOneItemNotValid_thenReturnedBadRequest() {
+        itemDto2.setDescription(" ");
+
+        String result = mockMvc.perform(post("/items/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(itemDto, itemDto2))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"Описание не может быть пустым\"}", equalTo(result));
+        verify(itemService, never()).createItems(anyList(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void createItems_whenTooManyItems_thenReturnedBadRequest() {
+        String result = mockMvc.perform(post("/items/batch")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Collections.nCopies(Constants.MAX_BATCH_SIZE + 1, itemDto))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"За один запрос можно создать не больше 500 вещей.\"}", equalTo(result));
+        verify(itemService, never()).createItems(anyList(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenNdjson_thenReturnedSummary() {
+        ItemImportDto summary = new ItemImportDto();
+        summary.setCreated(1);
+        summary.setRejected(1);
+        summary.setRows(Arrays.asList(ItemImportRowDto.created(1, 1L),
+                ItemImportRowDto.rejected(2, "Название не может быть пустым")));
+        when(itemImportService.importItems(any(), anyLong())).thenReturn(summary);
+
+        String result = mockMvc.perform(post("/items/import")
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(itemDto) + "\n"
+                                + objectMapper.writeValueAsString(itemDto2)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(summary), equalTo(result));
+        verify(itemImportService, times(1)).importItems(any(), eq(userId));
+        verify(itemService, never()).createItems(anyList(), anyLong());
+    }
+
     @SneakyThrows
     @Test
     void updateItem_whenItemValid_thenUpdatedItem() {
@@ -198,6 +333,7 @@ class ItemControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(sqlStatements(0))
                 .andReturn()
                 .getResponse()
                 .getContentAsString(StandardCharsets.UTF_8);
@@ -206,6 +342,58 @@ class ItemControllerIntegrationTest {
         verify(itemService, times(1)).findItems("текст", userId, 0, 10);
     }
 
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenInvoked_thenResponseStatusOkWithWindowsInBody() {
+        long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 10, 0);
+        List<AvailabilityWindowDto> windows = Arrays.asList(
+                new AvailabilityWindowDto(from, from.plusHours(2)),
+                new AvailabilityWindowDto(from.plusHours(5), to));
+        when(itemService.getItemAvailability(itemId, from, to)).thenReturn(windows);
+
+        String result = mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(windows), equalTo(result));
+        verify(itemService, times(1)).getItemAvailability(itemId, from, to);
+    }
+
+    @SneakyThrows
+    @Test
+    void getMatchingRequests_whenInvoked_thenResponseStatusOkWithRequestsInBody() {
+        long itemId = 0L;
+        ItemRequestDto itemRequestDto = new ItemRequestDto();
+        itemRequestDto.setId(1L);
+        itemRequestDto.setDescription("Нужна дрель");
+        List<ItemRequestDto> itemRequests = Arrays.asList(itemRequestDto);
+        when(itemService.getMatchingRequests(itemId, userId, 5)).thenReturn(itemRequests);
+
+        String result = mockMvc.perform(get("/items/{itemId}/matching-requests", itemId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("size", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(itemRequests), equalTo(result));
+        verify(itemService, times(1)).getMatchingRequests(itemId, userId, 5);
+    }
+
     @SneakyThrows
     @Test
     void saveComment_whenCommentValid_thenSavedComment() {
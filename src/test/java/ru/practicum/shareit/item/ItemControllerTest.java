@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemCard;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.util.Arrays;
@@ -14,6 +15,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -53,11 +57,32 @@ class ItemControllerTest {
         long itemId = 0L;
         long userId = 0L;
         ItemDto expectedItem = new ItemDto();
-        when(itemService.getItemById(itemId, userId)).thenReturn(expectedItem);
+        when(itemService.getItemCard(itemId, userId)).thenReturn(new ItemCard(expectedItem, "i0-1"));
 
-        ItemDto response = itemController.getItemById(itemId, userId);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ItemDto response = itemController.getItemById(itemId, userId,
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/items/0"), servletResponse));
         assertThat(expectedItem, equalTo(response));
-        verify(itemService, times(1)).getItemById(itemId, userId);
+        assertThat("\"i0-1\"", equalTo(servletResponse.getHeader("ETag")));
+        verify(itemService, times(1)).getItemCard(itemId, userId);
+        verify(itemService, never()).getItemTag(anyLong(), anyLong());
+    }
+
+    @Test
+    void getItemById_whenTagMatched_thenItemNotAssembled() {
+        long itemId = 0L;
+        long userId = 0L;
+        when(itemService.getItemTag(itemId, userId)).thenReturn("i0-1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/0");
+        request.addHeader("If-None-Match", "\"i0-1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ItemDto item = itemController.getItemById(itemId, userId, new ServletWebRequest(request, response));
+
+        assertThat(null, equalTo(item));
+        assertThat(304, equalTo(response.getStatus()));
+        verify(itemService, never()).getItemCard(anyLong(), anyLong());
     }
 
     @Test
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.dto.ItemImportRowDto;
+import ru.practicum.shareit.item.exception.ItemNotSavedException;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemImportServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private UserCache userCache;
+
+    private ItemImportService itemImportService;
+
+    @BeforeEach
+    public void createService() {
+        itemImportService = new ItemImportService(itemService, userCache,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Jackson2ObjectMapperBuilder.json().build(), 2);
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenJsonArray_thenItemsSavedInChunks() {
+        when(itemService.createItems(anyList(), anyLong())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(body("[" + item("дрель") + "," + item("палатка") + ","
+                + item("велосипед") + "]"), USER_ID);
+
+        assertThat(result.getCreated(), equalTo(3));
+        assertThat(result.getRejected(), equalTo(0));
+        assertThat(result.isCompleted(), equalTo(true));
+        assertThat(result.getRows(), equalTo(Arrays.asList(ItemImportRowDto.created(1, 1L),
+                ItemImportRowDto.created(2, 2L), ItemImportRowDto.created(3, 1L))));
+        verify(userCache, times(1)).checkExists(USER_ID);
+        verify(itemService, times(2)).createItems(anyList(), eq(USER_ID));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenNdjson_thenItemsSaved() {
+        when(itemService.createItems(anyList(), anyLong())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(body(item("дрель") + "\n" + item("палатка") + "\n"),
+                USER_ID);
+
+        assertThat(result.getCreated(), equalTo(2));
+        verify(itemService, times(1)).createItems(anyList(), eq(USER_ID));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenRowsNotValid_thenOnlyThoseRowsRejected() {
+        when(itemService.createItems(anyList(), anyLong())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(body("["
+                + item("дрель") + ","
+                + "{\"name\":\"\",\"description\":\"описание\",\"available\":true},"
+                + "{\"name\":\"палатка\",\"description\":\"описание\",\"available\":\"да\"},"
+                + item("велосипед") + "]"), USER_ID);
+
+        assertThat(result.getCreated(), equalTo(2));
+        assertThat(result.getRejected(), equalTo(2));
+        assertThat(result.getRows().get(1), equalTo(ItemImportRowDto.rejected(2, "Название не может быть пустым")));
+        assertThat(result.getRows().get(2).getError(), startsWith("Некорректные данные вещи: "));
+        assertThat(result.getRows().get(3), equalTo(ItemImportRowDto.created(4, 2L)));
+        verify(itemService, times(1)).createItems(anyList(), eq(USER_ID));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenJsonMalformed_thenImportStopped() {
+        when(itemService.createItems(anyList(), anyLong())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(body("[" + item("дрель") + ",{\"name\" \"палатка\"},"
+                + item("велосипед") + "]"), USER_ID);
+
+        assertThat(result.getCreated(), equalTo(1));
+        assertThat(result.getRejected(), equalTo(1));
+        assertThat(result.isCompleted(), equalTo(false));
+        assertThat(result.getRows().get(1).getError(), startsWith("Ошибка разбора JSON: "));
+    }
+
+    @SneakyThrows
+    @Test
+    void importItems_whenChunkNotSaved_thenChunkRowsRejected() {
+        when(itemService.createItems(anyList(), anyLong()))
+                .thenThrow(new ItemNotSavedException())
+                .thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        ItemImportDto result = itemImportService.importItems(body("[" + item("дрель") + "," + item("палатка") + ","
+                + item("велосипед") + "]"), USER_ID);
+
+        assertThat(result.getCreated(), equalTo(1));
+        assertThat(result.getRows(), equalTo(Arrays.asList(
+                ItemImportRowDto.rejected(1, "Не удалось сохранить данные вещи"),
+                ItemImportRowDto.rejected(2, "Не удалось сохранить данные вещи"),
+                ItemImportRowDto.created(3, 1L))));
+    }
+
+    @Test
+    void importItems_whenUserNotFound_thenExceptionThrown() {
+        doThrow(new UserNotFoundException(USER_ID)).when(userCache).checkExists(USER_ID);
+
+        assertThrows(UserNotFoundException.class,
+                () -> itemImportService.importItems(body("[" + item("дрель") + "]"), USER_ID));
+        verifyNoInteractions(itemService);
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String item(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"" + name + " в хорошем состоянии\",\"available\":true}";
+    }
+
+    private static List<ItemDto> withIds(List<ItemDto> itemDtos) {
+        long[] id = {1};
+        return itemDtos.stream()
+                .map(itemDto -> {
+                    ItemDto savedItem = new ItemDto();
+                    savedItem.setId(id[0]++);
+                    savedItem.setName(itemDto.getName());
+                    return savedItem;
+                })
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.utils.Constants;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static ru.practicum.shareit.common.SqlStatisticsMatchers.sqlStatementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemOwnerFeedStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final User owner = new User();
+    private final User booker = new User();
+    private ItemDto bookedItem;
+    private BookingResponseDto booking;
+
+    @BeforeEach
+    public void addBookings() {
+        owner.setName("owner");
+        owner.setEmail("feed-owner@mail.ru");
+        booker.setName("booker");
+        booker.setEmail("feed-booker@mail.ru");
+        userRepository.save(owner);
+        userRepository.save(booker);
+
+        bookedItem = createItem("item 1");
+        createItem("item 2");
+
+        BookingRequestDto bookingRequestDto = new BookingRequestDto();
+        bookingRequestDto.setItemId(bookedItem.getId());
+        bookingRequestDto.setStart(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS));
+        bookingRequestDto.setEnd(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS));
+        booking = perform(post("/bookings")
+                .header(Constants.HEADER_USER_ID, booker.getId())
+                .characterEncoding(StandardCharsets.UTF_8)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(write(bookingRequestDto)), BookingResponseDto.class);
+        perform(patch("/bookings/{bookingId}", booking.getId())
+                .header(Constants.HEADER_USER_ID, owner.getId())
+                .param("approved", "true"), BookingResponseDto.class);
+    }
+
+    @AfterEach
+    public void deleteBookings() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // Вещи, сводки бронирований и отзывы - по одному запросу на всю страницу
+    @SneakyThrows
+    @Test
+    void getAllItemsByUser_whenBookingApproved_thenBookingsReadFromSummary() {
+        String result = mockMvc.perform(get("/items")
+                        .header(Constants.HEADER_USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(3))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        ItemOwnerDto[] items = objectMapper.readValue(result, ItemOwnerDto[].class);
+        assertThat(items.length, equalTo(2));
+        assertThat(items[0].getLastBooking(), nullValue());
+        assertThat(items[0].getNextBooking().getId(), equalTo(booking.getId()));
+        assertThat(items[0].getNextBooking().getBookerId(), equalTo(booker.getId()));
+        assertThat(items[1].getNextBooking(), nullValue());
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemById_whenBookingApproved_thenBookingsReadFromSummary() {
+        String result = mockMvc.perform(get("/items/{itemId}", bookedItem.getId())
+                        .header(Constants.HEADER_USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(3))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        ItemOwnerDto item = objectMapper.readValue(result, ItemOwnerDto.class);
+        assertThat(item.getNextBooking().getId(), equalTo(booking.getId()));
+    }
+
+    private ItemDto createItem(String name) {
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName(name);
+        itemDto.setDescription("description");
+        itemDto.setAvailable(true);
+        return perform(post("/items")
+                .header(Constants.HEADER_USER_ID, owner.getId())
+                .characterEncoding(StandardCharsets.UTF_8)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(write(itemDto)), ItemDto.class);
+    }
+
+    @SneakyThrows
+    private <T> T perform(RequestBuilder request, Class<T> type) {
+        String result = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readValue(result, type);
+    }
+
+    @SneakyThrows
+    private String write(Object value) {
+        return objectMapper.writeValueAsString(value);
+    }
+
+}
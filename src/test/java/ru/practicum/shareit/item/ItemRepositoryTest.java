@@ -1,21 +1,37 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.junit.jupiter.api.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 @DataJpaTest
+@Import(InMemoryItemSearchEngine.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class ItemRepositoryTest {
 
@@ -23,6 +39,12 @@ class ItemRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemSearchEngine itemSearchEngine;
 
     private final User user = new User();
     private final Item item1 = new Item();
@@ -55,8 +77,10 @@ class ItemRepositoryTest {
 
     @AfterEach
     public void deleteItems() {
-        userRepository.deleteAll();
+        commentRepository.deleteAll();
         itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
     }
 
     @Test
@@ -70,12 +94,69 @@ class ItemRepositoryTest {
 
     @Test
     @Order(2)
+    void findAllByRequestIdIn() {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription("Нужна дрель");
+        itemRequest.setRequester(user);
+        itemRequest.setCreated(Instant.now());
+        itemRequestRepository.save(itemRequest);
+        item1.setRequest(itemRequest);
+        item3.setRequest(itemRequest);
+        itemRepository.save(item1);
+        itemRepository.save(item3);
+
+        List<Item> actualItems = itemRepository.findAllByRequestIdIn(Collections.singletonList(itemRequest.getId()));
+
+        assertThat(actualItems, containsInAnyOrder(item1, item3));
+    }
+
+    @Test
+    @Order(3)
+    void findVersions() {
+        List<Object[]> versions = itemRepository.findVersions(item1.getId());
+
+        assertThat(1, equalTo(versions.size()));
+        assertThat(user.getId(), equalTo(versions.get(0)[0]));
+        assertThat(item1.getVersion(), equalTo(versions.get(0)[1]));
+        // Сводка бронирований создаётся сервисом, а не репозиторием
+        assertThat(null, equalTo(versions.get(0)[2]));
+        assertThat(0, equalTo(itemRepository.findVersions(-1L).size()));
+    }
+
+    @Test
+    @Order(4)
+    void incrementVersionsCommentedBy() {
+        User author = new User();
+        author.setName("author");
+        author.setEmail("author@mail.ru");
+        userRepository.save(author);
+        Comment comment = new Comment();
+        comment.setText("Отличная вещь");
+        comment.setItem(item1);
+        comment.setAuthor(author);
+        comment.setCreated(LocalDateTime.now());
+        commentRepository.save(comment);
+        Long item1Version = (Long) itemRepository.findVersions(item1.getId()).get(0)[1];
+        Long item2Version = (Long) itemRepository.findVersions(item2.getId()).get(0)[1];
+
+        itemRepository.incrementVersionsCommentedBy(author.getId());
+
+        assertThat(item1Version + 1, equalTo(itemRepository.findVersions(item1.getId()).get(0)[1]));
+        assertThat(item2Version, equalTo(itemRepository.findVersions(item2.getId()).get(0)[1]));
+    }
+
+    @Test
+    @Order(5)
     void search() {
-        List<Item> actualItems = itemRepository.search("ОПИСАНИ", PageRequest.of(0, 5));
+        // На H2 полнотекстового поиска PostgreSQL нет, профиль test подключает поиск в памяти
+        assertThat(itemSearchEngine, instanceOf(InMemoryItemSearchEngine.class));
+        ((InMemoryItemSearchEngine) itemSearchEngine).rebuild();
+
+        List<ItemSearchHit> hits = itemSearchEngine.search("описание", PageRequest.of(0, 5));
+        List<Long> itemIds = hits.stream().map(ItemSearchHit::getItemId).collect(Collectors.toList());
 
-        assertThat(2, equalTo(actualItems.size()));
-        assertThat(item1, equalTo(actualItems.get(0)));
-        assertThat(item3, equalTo(actualItems.get(1)));
+        assertThat(Arrays.asList(item1.getId(), item3.getId()), equalTo(itemIds));
+        assertThat(itemRepository.findAllById(itemIds), containsInAnyOrder(item1, item3));
     }
 
-}
\ No newline at end of file
+}
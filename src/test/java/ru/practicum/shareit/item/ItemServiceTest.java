@@ -1,10 +1,19 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.comment.exception.CommentNotSavedException;
+import ru.practicum.shareit.common.clock.RequestClock;
 import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.*;
@@ -14,26 +23,38 @@ import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.service.ItemCard;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
@@ -47,13 +68,25 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
     @Mock
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private OutboxService outboxService;
+    @Spy
+    private RequestClock requestClock = new RequestClock(Clock.systemDefaultZone());
 
     @InjectMocks
     private ItemService itemService;
@@ -69,7 +102,8 @@ class ItemServiceTest {
 
         assertThat(actualItems, empty());
         verify(itemRepository, never()).findById(anyLong());
-        verify(commentRepository, never()).findAllByItemId(anyLong());
+        verify(commentRepository, never()).findAllByItemIdIn(anyCollection());
+        verify(itemBookingSummaryService, never()).getSummaries(anyList(), any(LocalDateTime.class));
         verify(itemRepository, times(1))
                 .findAllByOwnerId(anyLong(), any(Pageable.class));
     }
@@ -86,7 +120,6 @@ class ItemServiceTest {
         List<Item> expectedItems = Arrays.asList(item);
 
         when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class))).thenReturn(expectedItems);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
 
         List<ItemDto> actualItems = itemService.getAllItemsByUser(userId, 0, 1);
 
@@ -97,36 +130,91 @@ class ItemServiceTest {
         assertThat(expectedItems.get(0).getAvailable(), equalTo(actualItems.get(0).getAvailable()));
         assertThat(expectedItems.get(0).getRequest(), equalTo(actualItems.get(0).getRequestId()));
 
-        InOrder inOrder = inOrder(itemRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, itemBookingSummaryService, commentRepository);
         inOrder.verify(itemRepository, times(1))
                 .findAllByOwnerId(anyLong(), any(Pageable.class));
-        inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(commentRepository, times(1)).findAllByItemId(anyLong());
+        inOrder.verify(itemBookingSummaryService, times(1)).getSummaries(eq(Arrays.asList(itemId)),
+                any(LocalDateTime.class));
+        inOrder.verify(commentRepository, times(1)).findAllByItemIdIn(anyCollection());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(commentRepository, never()).findAllByItemId(anyLong());
     }
 
+    @Test
+    void getAllItemsByUser_whenItemsHaveBookingsAndComments_thenAssembledInMemory() {
+        long userId = 0L;
+        User user = new User();
+        user.setId(userId);
+        Item item1 = new Item();
+        item1.setId(1L);
+        item1.setOwner(user);
+        Item item2 = new Item();
+        item2.setId(2L);
+        item2.setOwner(user);
+
+        Booking lastBooking = new Booking();
+        lastBooking.setId(5L);
+        lastBooking.setItem(item1);
+        lastBooking.setBooker(user);
+        ItemBookingSummary summary1 = new ItemBookingSummary();
+        summary1.setItemId(1L);
+        summary1.setLastBookingId(5L);
+        summary1.setLastBookerId(userId);
+        Booking nextBooking = new Booking();
+        nextBooking.setId(7L);
+        nextBooking.setItem(item2);
+        nextBooking.setBooker(user);
+        ItemBookingSummary summary2 = new ItemBookingSummary();
+        summary2.setItemId(2L);
+        summary2.setNextBookingId(7L);
+        summary2.setNextBookerId(userId);
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        summaries.put(1L, summary1);
+        summaries.put(2L, summary2);
+        Comment comment = new Comment();
+        comment.setId(3L);
+        comment.setText("text");
+        comment.setItem(item2);
+        comment.setAuthor(user);
+
+        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(item1, item2));
+        when(itemBookingSummaryService.getSummaries(anyList(), any(LocalDateTime.class))).thenReturn(summaries);
+        when(commentRepository.findAllByItemIdIn(anyCollection())).thenReturn(Arrays.asList(comment));
+
+        List<ItemDto> actualItems = itemService.getAllItemsByUser(userId, 0, 2);
+
+        assertThat(Arrays.asList(
+                ItemMapper.INSTANCE.toItemOwnerDto(item1, lastBooking, null, Collections.emptyList()),
+                ItemMapper.INSTANCE.toItemOwnerDto(item2, null, nextBooking, Arrays.asList(comment))),
+                equalTo(actualItems));
+    }
 
     @Test
-    void getItemById_whenItemFound_thenReturnedItem() {
+    void getItemCard_whenItemFound_thenReturnedItemWithTag() {
         long itemId = 0L;
         long userId = 0L;
         Item expectedItem = new Item();
+        expectedItem.setVersion(3L);
         User user = new User();
         user.setId(1L);
         expectedItem.setOwner(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
         when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.EMPTY_LIST);
 
-        ItemDto actualItem = itemService.getItemById(itemId, userId);
+        ItemCard actualCard = itemService.getItemCard(itemId, userId);
 
         assertThat(ItemMapper.INSTANCE.toItemOwnerDto(expectedItem,
-                null, null, Collections.EMPTY_LIST), equalTo(actualItem));
+                null, null, Collections.EMPTY_LIST), equalTo(actualCard.getItem()));
+        assertThat("i0-3", equalTo(actualCard.getTag()));
         InOrder inOrder = inOrder(itemRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
         inOrder.verify(commentRepository, times(1)).findAllByItemId(itemId);
+        verify(itemBookingSummaryService, never()).getSummaries(anyList(), any(LocalDateTime.class));
     }
 
     @Test
-    void getItemById_whenItemFound_thenReturnedItemWithBookings() {
+    void getItemCard_whenItemFound_thenReturnedItemWithBookings() {
         long userId = 0L;
         User user = new User();
         user.setId(userId);
@@ -134,6 +222,7 @@ class ItemServiceTest {
         Item expectedItem = new Item();
         expectedItem.setId(itemId);
         expectedItem.setOwner(user);
+        expectedItem.setVersion(3L);
 
         Booking lastBooking = new Booking();
         lastBooking.setId(5L);
@@ -141,12 +230,21 @@ class ItemServiceTest {
         lastBooking.setEnd(LocalDateTime.now().plusHours(1));
         lastBooking.setStatus(BookingStatus.APPROVED);
         lastBooking.setItem(expectedItem);
+        lastBooking.setBooker(user);
         Booking nextBooking = new Booking();
         nextBooking.setId(7L);
         nextBooking.setStart(LocalDateTime.now());
         nextBooking.setEnd(LocalDateTime.now().plusHours(2));
         nextBooking.setStatus(BookingStatus.APPROVED);
         nextBooking.setItem(expectedItem);
+        nextBooking.setBooker(user);
+        ItemBookingSummary summary = new ItemBookingSummary();
+        summary.setItemId(itemId);
+        summary.setLastBookingId(5L);
+        summary.setLastBookerId(userId);
+        summary.setNextBookingId(7L);
+        summary.setNextBookerId(userId);
+        summary.setVersion(7L);
 
         Comment comment = new Comment();
         comment.setId(2L);
@@ -156,55 +254,220 @@ class ItemServiceTest {
         comment.setItem(expectedItem);
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
-        when(bookingRepository.findFirstByItemIdAndStatusAndStartIsBefore(anyLong(), any(BookingStatus.class),
-                any(LocalDateTime.class), any(Sort.class))).thenReturn(Optional.of(lastBooking));
-        when(bookingRepository.findFirstByItemIdAndStatusAndStartIsAfter(anyLong(), any(BookingStatus.class),
-                any(LocalDateTime.class), any(Sort.class))).thenReturn(Optional.of(nextBooking));
+        when(itemBookingSummaryService.getSummaries(anyList(), any(LocalDateTime.class)))
+                .thenReturn(Collections.singletonMap(itemId, summary));
         when(commentRepository.findAllByItemId(anyLong())).thenReturn(Arrays.asList(comment));
 
-        ItemDto actualItem = itemService.getItemById(itemId, userId);
+        ItemCard actualCard = itemService.getItemCard(itemId, userId);
 
         assertThat(ItemMapper.INSTANCE.toItemOwnerDto(expectedItem,
-                lastBooking, nextBooking, Arrays.asList(comment)), equalTo(actualItem));
-        InOrder inOrder = inOrder(itemRepository, bookingRepository, commentRepository);
+                lastBooking, nextBooking, Arrays.asList(comment)), equalTo(actualCard.getItem()));
+        assertThat("i0-3-7", equalTo(actualCard.getTag()));
+        InOrder inOrder = inOrder(itemRepository, itemBookingSummaryService, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(bookingRepository, times(1))
-                .findFirstByItemIdAndStatusAndStartIsBefore(anyLong(), any(BookingStatus.class),
-                        any(LocalDateTime.class), any(Sort.class));
-        inOrder.verify(bookingRepository, times(1))
-                .findFirstByItemIdAndStatusAndStartIsAfter(anyLong(), any(BookingStatus.class),
-                        any(LocalDateTime.class), any(Sort.class));
+        inOrder.verify(itemBookingSummaryService, times(1))
+                .getSummaries(eq(Collections.singletonList(itemId)), any(LocalDateTime.class));
         inOrder.verify(commentRepository, times(1)).findAllByItemId(itemId);
     }
 
     @Test
-    void getItemById_whenItemNotFound_thenExceptionThrown() {
+    void getItemCard_whenItemNotFound_thenExceptionThrown() {
         long itemId = 0L;
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         final ItemNotFoundException exception = assertThrows(ItemNotFoundException.class,
-                () -> itemService.getItemById(itemId, 0L));
+                () -> itemService.getItemCard(itemId, 0L));
 
         assertThat("Вещь с идентификатором 0 не найдена.", equalTo(exception.getMessage()));
         verify(itemRepository, times(1)).findById(itemId);
     }
 
+    @Test
+    void getItemTag_whenNotOwner_thenTagOfItemVersionOnly() {
+        when(itemRepository.findVersions(5L)).thenReturn(Collections.singletonList(
+                new Object[]{1L, 3L, 7L, null}));
+
+        assertThat("i5-3", equalTo(itemService.getItemTag(5L, 2L)));
+    }
+
+    @Test
+    void getItemTag_whenOwnerAndSummaryFresh_thenTagIncludesSummaryVersion() {
+        when(itemRepository.findVersions(5L)).thenReturn(Collections.singletonList(
+                new Object[]{1L, 3L, 7L, LocalDateTime.now().plusDays(1)}));
+
+        assertThat("i5-3-7", equalTo(itemService.getItemTag(5L, 1L)));
+    }
+
+    @Test
+    void getItemTag_whenOwnerAndSummaryStale_thenNoTag() {
+        when(itemRepository.findVersions(5L)).thenReturn(Collections.singletonList(
+                new Object[]{1L, 3L, 7L, LocalDateTime.now().minusMinutes(1)}));
+
+        assertThat(null, equalTo(itemService.getItemTag(5L, 1L)));
+    }
+
+    @Test
+    void getItemTag_whenOwnerAndSummaryMissing_thenNoTag() {
+        when(itemRepository.findVersions(5L)).thenReturn(Collections.singletonList(
+                new Object[]{1L, 3L, null, null}));
+
+        assertThat(null, equalTo(itemService.getItemTag(5L, 1L)));
+    }
+
+    @Test
+    void getItemTag_whenItemNotFound_thenNoTag() {
+        when(itemRepository.findVersions(5L)).thenReturn(Collections.emptyList());
+
+        assertThat(null, equalTo(itemService.getItemTag(5L, 1L)));
+        verifyNoInteractions(commentRepository, itemBookingSummaryService);
+    }
+
+    @Test
+    void getItemAvailability_whenItemFound_thenReturnedFreeWindows() {
+        long itemId = 0L;
+        Item item = new Item();
+        item.setId(itemId);
+        item.setAvailable(true);
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(1);
+        List<AvailabilityWindowDto> expectedWindows = Collections.singletonList(
+                new AvailabilityWindowDto(from, to));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingAvailabilityIndex.findFreeWindows(itemId, from, to)).thenReturn(expectedWindows);
+
+        List<AvailabilityWindowDto> actualWindows = itemService.getItemAvailability(itemId, from, to);
+
+        assertThat(expectedWindows, equalTo(actualWindows));
+        verify(bookingAvailabilityIndex, times(1)).findFreeWindows(itemId, from, to);
+    }
+
+    @Test
+    void getItemAvailability_whenItemNotAvailable_thenReturnedEmptyList() {
+        long itemId = 0L;
+        Item item = new Item();
+        item.setAvailable(false);
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        List<AvailabilityWindowDto> actualWindows = itemService.getItemAvailability(itemId, from, from.plusDays(1));
+
+        assertThat(actualWindows, empty());
+        verifyNoInteractions(bookingAvailabilityIndex);
+    }
+
+    @Test
+    void getItemAvailability_whenPeriodNotValid_thenExceptionThrown() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        final ValidationException exception = assertThrows(ValidationException.class,
+                () -> itemService.getItemAvailability(0L, from, from.minusHours(1)));
+
+        assertThat("Ошибка! Начало периода должно быть раньше его конца.", equalTo(exception.getMessage()));
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getMatchingRequests_whenUserIsOwner_thenReturnedRequestsInMatchOrder() {
+        long itemId = 0L;
+        User owner = new User();
+        owner.setId(1L);
+        Item item = new Item();
+        item.setId(itemId);
+        item.setOwner(owner);
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(2L);
+        itemRequest.setDescription("Нужна дрель");
+        ItemRequest itemRequest2 = new ItemRequest();
+        itemRequest2.setId(3L);
+        itemRequest2.setDescription("Нужна дрель с перфоратором");
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRequestMatcher.match(item, 5)).thenReturn(Arrays.asList(3L, 2L));
+        when(itemRequestRepository.findAllById(Arrays.asList(3L, 2L)))
+                .thenReturn(Arrays.asList(itemRequest, itemRequest2));
+
+        List<ItemRequestDto> actualItemRequests = itemService.getMatchingRequests(itemId, 1L, 5);
+
+        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDtos(
+                Arrays.asList(itemRequest2, itemRequest), Collections.emptyList()), equalTo(actualItemRequests));
+    }
+
+    @Test
+    void getMatchingRequests_whenUserIsNotOwner_thenExceptionThrown() {
+        long itemId = 0L;
+        User owner = new User();
+        owner.setId(1L);
+        Item item = new Item();
+        item.setOwner(owner);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        final ItemOwnershipException exception = assertThrows(ItemOwnershipException.class,
+                () -> itemService.getMatchingRequests(itemId, 2L, 5));
+
+        assertThat("Пользователь с id = 2 не является владельцем вещи c id = 0", equalTo(exception.getMessage()));
+        verifyNoInteractions(itemRequestMatcher);
+    }
+
     @Test
     void createItem_whenItemValid_thenSavedItem() {
         ItemDto itemToSave = new ItemDto();
         itemToSave.setAvailable(true);
         Long userId = 0L;
         User user = new User();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.save(any(Item.class)))
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.saveAndFlush(any(Item.class)))
                 .thenReturn(ItemMapper.INSTANCE.toItem(itemToSave, user));
 
         ItemDto actualItem = itemService.createItem(itemToSave, userId);
 
         assertThat(itemToSave, equalTo(actualItem));
-        InOrder inOrder = inOrder(userRepository, itemRepository);
-        inOrder.verify(userRepository, times(1)).findById(userId);
-        inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        InOrder inOrder = inOrder(userCache, itemRepository, itemSearchEngine);
+        inOrder.verify(userCache, times(1)).getReference(userId);
+        inOrder.verify(itemRepository, times(1)).saveAndFlush(any(Item.class));
+        inOrder.verify(itemSearchEngine, times(1)).index(any(Item.class));
+        verify(outboxService, times(1)).append(OutboxEventType.ITEM_CREATED, null, actualItem);
+    }
+
+    @Test
+    void createItem_whenTransactionActive_thenItemIndexedAfterCommit() {
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setAvailable(true);
+        User user = new User();
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.saveAndFlush(any(Item.class)))
+                .thenReturn(ItemMapper.INSTANCE.toItem(itemToSave, user));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.createItem(itemToSave, 0L);
+            verify(itemSearchEngine, never()).index(any(Item.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(itemSearchEngine, times(1)).index(any(Item.class));
+    }
+
+    @Test
+    void createItem_whenItemMatchesOpenRequests_thenRequestersNotified() {
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setName("Дрель");
+        itemToSave.setAvailable(true);
+        Long userId = 0L;
+        User user = new User();
+        user.setId(userId);
+        Item item = ItemMapper.INSTANCE.toItem(itemToSave, user);
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.saveAndFlush(any(Item.class))).thenReturn(item);
+        when(itemRequestMatcher.match(item, 10)).thenReturn(Arrays.asList(3L, 2L));
+        when(itemRequestMatcher.getRequesterId(3L)).thenReturn(5L);
+        // Запрос 2 успели закрыть между поиском совпадений и чтением его автора
+        when(itemRequestMatcher.getRequesterId(2L)).thenReturn(null);
+
+        ItemDto actualItem = itemService.createItem(itemToSave, userId);
+
+        verify(outboxService, times(1)).appendAll(eq(OutboxEventType.ITEM_REQUEST_MATCHED),
+                eq(Collections.singletonList(new ItemRequestMatchDto(3L, 5L, actualItem))), any());
     }
 
     @Test
@@ -219,18 +482,46 @@ class ItemServiceTest {
         Item item = ItemMapper.INSTANCE.toItem(itemToSave, user);
         item.setRequest(itemRequest);
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.getReference(anyLong())).thenReturn(user);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
-        when(itemRepository.save(any(Item.class)))
+        when(itemRepository.saveAndFlush(any(Item.class)))
                 .thenReturn(item);
 
         ItemDto actualItem = itemService.createItem(itemToSave, userId);
 
         assertThat(itemToSave, equalTo(actualItem));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository, itemRepository);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        InOrder inOrder = inOrder(userCache, itemRequestRepository, itemRepository);
+        inOrder.verify(userCache, times(1)).getReference(userId);
         inOrder.verify(itemRequestRepository, times(1)).findById(1L);
-        inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        inOrder.verify(itemRepository, times(1)).saveAndFlush(any(Item.class));
+        verify(itemRequestMatcher, times(1)).close(1L);
+        verify(itemRequestMatcher, never()).match(any(Item.class), anyInt());
+    }
+
+    @Test
+    void createItem_whenItemWithRequestAndTransactionActive_thenRequestClosedAfterCommit() {
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setAvailable(true);
+        itemToSave.setRequestId(1L);
+        User user = new User();
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(1L);
+        Item item = ItemMapper.INSTANCE.toItem(itemToSave, user);
+        item.setRequest(itemRequest);
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(itemRequest));
+        when(itemRepository.saveAndFlush(any(Item.class))).thenReturn(item);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.createItem(itemToSave, 0L);
+            verify(itemRequestMatcher, never()).close(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(itemRequestMatcher, times(1)).close(1L);
     }
 
     @Test
@@ -242,9 +533,9 @@ class ItemServiceTest {
                 () -> itemService.createItem(itemToSave, userId));
 
         assertThat("Ошибка! Статус доступности вещи для аренды не может быть пустым.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository);
-        inOrder.verify(userRepository, never()).findById(userId);
-        inOrder.verify(itemRepository, never()).save(any(Item.class));
+        InOrder inOrder = inOrder(userCache, itemRepository);
+        inOrder.verify(userCache, never()).getReference(userId);
+        inOrder.verify(itemRepository, never()).saveAndFlush(any(Item.class));
     }
 
     @Test
@@ -252,17 +543,17 @@ class ItemServiceTest {
         ItemDto itemToSave = new ItemDto();
         itemToSave.setAvailable(true);
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(itemRepository.save(any(Item.class)))
+        when(userCache.getReference(anyLong())).thenReturn(new User());
+        when(itemRepository.saveAndFlush(any(Item.class)))
                 .thenThrow(new ItemNotSavedException());
 
         final ItemNotSavedException exception = assertThrows(ItemNotSavedException.class,
                 () -> itemService.createItem(itemToSave, userId));
 
         assertThat("Не удалось сохранить данные вещи", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository);
-        inOrder.verify(userRepository, times(1)).findById(userId);
-        inOrder.verify(itemRepository, times(1)).save(any(Item.class));
+        InOrder inOrder = inOrder(userCache, itemRepository);
+        inOrder.verify(userCache, times(1)).getReference(userId);
+        inOrder.verify(itemRepository, times(1)).saveAndFlush(any(Item.class));
     }
 
     @Test
@@ -270,15 +561,101 @@ class ItemServiceTest {
         ItemDto itemToSave = new ItemDto();
         itemToSave.setAvailable(true);
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.getReference(anyLong())).thenThrow(new UserNotFoundException(0L));
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemService.createItem(itemToSave, userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository);
-        inOrder.verify(userRepository, times(1)).findById(userId);
-        inOrder.verify(itemRepository, never()).save(any(Item.class));
+        InOrder inOrder = inOrder(userCache, itemRepository);
+        inOrder.verify(userCache, times(1)).getReference(userId);
+        inOrder.verify(itemRepository, never()).saveAndFlush(any(Item.class));
+    }
+
+    @Test
+    void createItems_whenItemsValid_thenSavedAllItemsInOneBatch() {
+        Long userId = 0L;
+        User user = new User();
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setName("item 1");
+        itemToSave.setAvailable(true);
+        ItemDto itemToSave2 = new ItemDto();
+        itemToSave2.setName("item 2");
+        itemToSave2.setAvailable(false);
+        List<Item> items = Arrays.asList(ItemMapper.INSTANCE.toItem(itemToSave, user),
+                ItemMapper.INSTANCE.toItem(itemToSave2, user));
+
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRepository.saveAll(anyList())).thenReturn(items);
+
+        List<ItemDto> actualItems = itemService.createItems(Arrays.asList(itemToSave, itemToSave2), userId);
+
+        assertThat(Arrays.asList(itemToSave, itemToSave2), equalTo(actualItems));
+        InOrder inOrder = inOrder(userCache, itemRepository, itemSearchEngine);
+        inOrder.verify(userCache, times(1)).getReference(userId);
+        inOrder.verify(itemRepository, times(1)).saveAll(anyList());
+        inOrder.verify(itemRepository, times(1)).flush();
+        inOrder.verify(itemSearchEngine, times(2)).index(any(Item.class));
+        verify(itemRepository, never()).saveAndFlush(any(Item.class));
+        verifyNoInteractions(itemRequestRepository);
+        verify(outboxService, times(1)).appendAll(eq(OutboxEventType.ITEM_CREATED), eq(actualItems), any());
+    }
+
+    @Test
+    void createItems_whenItemsWithRequests_thenRequestsLoadedOnce() {
+        Long userId = 0L;
+        User user = new User();
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setAvailable(true);
+        itemToSave.setRequestId(1L);
+        ItemDto itemToSave2 = new ItemDto();
+        itemToSave2.setAvailable(true);
+        itemToSave2.setRequestId(1L);
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(1L);
+        Item item = ItemMapper.INSTANCE.toItem(itemToSave, user);
+        item.setRequest(itemRequest);
+
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRequestRepository.findAllById(anySet())).thenReturn(Collections.singletonList(itemRequest));
+        when(itemRepository.saveAll(anyList())).thenReturn(Arrays.asList(item, item));
+
+        List<ItemDto> actualItems = itemService.createItems(Arrays.asList(itemToSave, itemToSave2), userId);
+
+        assertThat(Arrays.asList(itemToSave, itemToSave2), equalTo(actualItems));
+        verify(itemRequestRepository, times(1)).findAllById(Collections.singleton(1L));
+        verify(itemRequestMatcher, times(2)).close(1L);
+        verify(itemRequestMatcher, never()).match(any(Item.class), anyInt());
+    }
+
+    @Test
+    void createItems_whenAvailableNotValid_thenExceptionThrown() {
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setAvailable(true);
+        ItemDto itemToSave2 = new ItemDto();
+        Long userId = 0L;
+
+        final ValidationException exception = assertThrows(ValidationException.class,
+                () -> itemService.createItems(Arrays.asList(itemToSave, itemToSave2), userId));
+
+        assertThat("Ошибка! Статус доступности вещи для аренды не может быть пустым.", equalTo(exception.getMessage()));
+        verifyNoInteractions(userCache, itemRepository);
+    }
+
+    @Test
+    void createItems_whenItemsNotSaved_thenExceptionThrown() {
+        ItemDto itemToSave = new ItemDto();
+        itemToSave.setAvailable(true);
+        Long userId = 0L;
+        when(userCache.getReference(anyLong())).thenReturn(new User());
+        when(itemRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
+        doThrow(new DataIntegrityViolationException("items")).when(itemRepository).flush();
+
+        final ItemNotSavedException exception = assertThrows(ItemNotSavedException.class,
+                () -> itemService.createItems(Collections.singletonList(itemToSave), userId));
+
+        assertThat("Не удалось сохранить данные вещи", equalTo(exception.getMessage()));
+        verifyNoInteractions(itemSearchEngine);
     }
 
 
@@ -294,7 +671,6 @@ class ItemServiceTest {
         oldItem.setAvailable(false);
         oldItem.setOwner(user);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(oldItem));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
 
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setId(5L);
@@ -303,6 +679,7 @@ class ItemServiceTest {
         newItem.setDescription("2");
         newItem.setAvailable(true);
         newItem.setRequest(itemRequest);
+        when(itemRepository.saveAndFlush(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         itemService.updateItem(itemId, ItemMapper.INSTANCE.toItemDto(newItem), userId);
         verify(itemRepository).saveAndFlush(itemArgumentCaptor.capture());
@@ -312,10 +689,11 @@ class ItemServiceTest {
         assertThat(newItem.getDescription(), equalTo(savedItem.getDescription()));
         assertThat(newItem.getAvailable(), equalTo(savedItem.getAvailable()));
 
-        InOrder inOrder = inOrder(userRepository, itemRepository);
+        InOrder inOrder = inOrder(userCache, itemRepository);
         verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).checkExists(userId);
         inOrder.verify(itemRepository, times(1)).saveAndFlush(any(Item.class));
+        verify(outboxService, times(1)).append(eq(OutboxEventType.ITEM_UPDATED), eq(itemId), any());
     }
 
     @Test
@@ -329,7 +707,7 @@ class ItemServiceTest {
 
         assertThat("Вещь с идентификатором 0 не найдена.", equalTo(exception.getMessage()));
         verify(itemRepository, times(1)).findById(anyLong());
-        verify(userRepository, never()).findById(userId);
+        verify(userCache, never()).checkExists(userId);
         verify(itemRepository, never()).saveAndFlush(any(Item.class));
     }
 
@@ -349,7 +727,7 @@ class ItemServiceTest {
         assertThat("Пользователь с id = 0 не является владельцем вещи c id = 0",
                 equalTo(exception.getMessage()));
         verify(itemRepository, times(1)).findById(anyLong());
-        verify(userRepository, never()).findById(userId);
+        verify(userCache, never()).checkExists(userId);
         verify(itemRepository, never()).saveAndFlush(any(Item.class));
     }
 
@@ -363,15 +741,15 @@ class ItemServiceTest {
         oldItem.setOwner(user);
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(oldItem));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemService.updateItem(itemId, new ItemDto(), userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(itemRepository, userRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache);
         inOrder.verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).checkExists(userId);
         verify(itemRepository, never()).saveAndFlush(any(Item.class));
     }
 
@@ -384,7 +762,6 @@ class ItemServiceTest {
         Item oldItem = new Item();
         oldItem.setOwner(user);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(oldItem));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(itemRepository.saveAndFlush(any(Item.class)))
                 .thenThrow(new ItemNotSavedException());
 
@@ -392,9 +769,9 @@ class ItemServiceTest {
                 () -> itemService.updateItem(itemId, new ItemDto(), userId));
 
         assertThat("Не удалось сохранить данные вещи", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRepository);
+        InOrder inOrder = inOrder(userCache, itemRepository);
         verify(itemRepository, times(1)).findById(anyLong());
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).checkExists(userId);
         inOrder.verify(itemRepository, times(1)).saveAndFlush(any(Item.class));
     }
 
@@ -405,7 +782,7 @@ class ItemServiceTest {
         List<ItemDto> actualItems = itemService.findItems("", userId, 0, 1);
 
         assertThat(actualItems, empty());
-        verify(itemRepository, never()).search("", PageRequest.of(0, 1));
+        verify(itemSearchEngine, never()).search(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -415,22 +792,67 @@ class ItemServiceTest {
         List<ItemDto> actualItems = itemService.findItems("1", userId, 0, 1);
 
         assertThat(actualItems, empty());
-        verify(itemRepository, times(1))
+        verify(itemSearchEngine, times(1))
                 .search("1", PageRequest.of(0, 1));
+        verify(itemRepository, never()).findAllById(anyIterable());
     }
 
     @Test
-    void findItems_whenInvoked_thenReturnedItemsCollectionInList() {
+    void findItems_whenInvoked_thenReturnedItemsCollectionInRankOrder() {
         Long userId = 0L;
-        List<Item> expectedItems = Arrays.asList(new Item(), new Item());
-        when(itemRepository.search(anyString(), any(Pageable.class))).thenReturn(expectedItems);
+        Item item1 = new Item();
+        item1.setId(1L);
+        item1.setAvailable(true);
+        Item item2 = new Item();
+        item2.setId(2L);
+        item2.setAvailable(true);
+        when(itemSearchEngine.search(anyString(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(new ItemSearchHit(2L, 2.0), new ItemSearchHit(1L, 1.0)));
+        when(itemRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(item1, item2));
 
         List<ItemDto> actualItems = itemService.findItems("1", userId, 1, 1);
 
-        assertThat(ItemMapper.INSTANCE.convertItemListToItemDtoList(expectedItems),
+        assertThat(ItemMapper.INSTANCE.convertItemListToItemDtoList(Arrays.asList(item2, item1)),
                 equalTo(actualItems));
-        verify(itemRepository, times(1))
+        InOrder inOrder = inOrder(itemSearchEngine, itemRepository);
+        inOrder.verify(itemSearchEngine, times(1))
                 .search("1", PageRequest.of(1, 1));
+        inOrder.verify(itemRepository, times(1)).findAllById(Arrays.asList(2L, 1L));
+    }
+
+    @Test
+    void findItemsAfter_whenCursorPassed_thenReturnedPageAfterCursor() {
+        Item item = new Item();
+        item.setId(3L);
+        item.setAvailable(true);
+        ItemSearchHit hit = new ItemSearchHit(3L, 1.0);
+        ItemSearchHit extraHit = new ItemSearchHit(4L, 1.0);
+        when(itemSearchEngine.searchAfter(eq("text"), any(ItemSearchHit.class), eq(2)))
+                .thenReturn(Arrays.asList(hit, extraHit));
+        when(itemRepository.findAllById(Collections.singletonList(3L)))
+                .thenReturn(Collections.singletonList(item));
+
+        CursorPage<ItemDto> actualPage = itemService.findItemsAfter("text", 0L,
+                PageCursor.of(2.0, 1L).encode(), 1);
+
+        assertThat(ItemMapper.INSTANCE.convertItemListToItemDtoList(Collections.singletonList(item)),
+                equalTo(actualPage.getContent()));
+        assertThat(PageCursor.of(1.0, 3L).encode(), equalTo(actualPage.getNextCursor()));
+        verify(itemSearchEngine).searchAfter(eq("text"), argThat(after ->
+                after.getItemId() == 1L && after.getRank() == 2.0), eq(2));
+    }
+
+    @Test
+    void getAllItemsByUserAfter_whenFirstPage_thenSeekFromStart() {
+        long userId = 0L;
+
+        CursorPage<ItemDto> actualPage = itemService.getAllItemsByUserAfter(userId, "", 5);
+
+        assertThat(actualPage.getContent(), empty());
+        assertThat(null, equalTo(actualPage.getNextCursor()));
+        verify(itemRepository, times(1)).findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(
+                userId, 0L, PageRequest.of(0, 6));
+        verifyNoInteractions(bookingRepository, commentRepository);
     }
 
     @Test
@@ -443,20 +865,22 @@ class ItemServiceTest {
         Item item = new Item();
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userCache.get(anyLong())).thenReturn(user);
         when(bookingRepository.isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
                 .thenReturn(0L);
-        when(commentRepository.save(any(Comment.class))).thenReturn(comment);
+        when(commentRepository.saveAndFlush(any(Comment.class))).thenReturn(comment);
 
         CommentDto actualComment = itemService.saveComment(commentToSave, itemId, userId);
 
         assertThat(commentToSave, equalTo(actualComment));
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache, bookingRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).get(userId);
         inOrder.verify(bookingRepository, times(1))
                 .isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class));
-        inOrder.verify(commentRepository, times(1)).save(any(Comment.class));
+        inOrder.verify(commentRepository, times(1)).saveAndFlush(any(Comment.class));
+        inOrder.verify(itemRepository, times(1)).incrementVersion(itemId);
+        verify(outboxService, times(1)).append(OutboxEventType.COMMENT_ADDED, itemId, actualComment);
     }
 
     @Test
@@ -470,12 +894,12 @@ class ItemServiceTest {
                 () -> itemService.saveComment(commentToSave, itemId, userId));
 
         assertThat("Вещь с идентификатором 0 не найдена.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache, bookingRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, never()).findById(userId);
+        inOrder.verify(userCache, never()).get(userId);
         inOrder.verify(bookingRepository, never())
                 .isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class));
-        inOrder.verify(commentRepository, never()).save(any(Comment.class));
+        inOrder.verify(commentRepository, never()).saveAndFlush(any(Comment.class));
     }
 
     @Test
@@ -484,18 +908,18 @@ class ItemServiceTest {
         Long itemId = 0L;
         Long userId = 0L;
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(new Item()));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.get(anyLong())).thenThrow(new UserNotFoundException(0L));
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemService.saveComment(commentToSave, itemId, userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache, bookingRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).get(userId);
         inOrder.verify(bookingRepository, never())
                 .isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class));
-        inOrder.verify(commentRepository, never()).save(any(Comment.class));
+        inOrder.verify(commentRepository, never()).saveAndFlush(any(Comment.class));
     }
 
     @Test
@@ -505,22 +929,22 @@ class ItemServiceTest {
         Long userId = 0L;
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(new Item()));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        when(userCache.get(anyLong())).thenReturn(new User());
         when(bookingRepository.isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
                 .thenReturn(0L);
-        when(commentRepository.save(any(Comment.class)))
+        when(commentRepository.saveAndFlush(any(Comment.class)))
                 .thenThrow(new CommentNotSavedException());
 
         final CommentNotSavedException exception = assertThrows(CommentNotSavedException.class,
                 () -> itemService.saveComment(commentToSave, itemId, userId));
 
         assertThat("Не удалось сохранить комментарий", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache, bookingRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).get(userId);
         inOrder.verify(bookingRepository, times(1))
                 .isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class));
-        inOrder.verify(commentRepository, times(1)).save(any(Comment.class));
+        inOrder.verify(commentRepository, times(1)).saveAndFlush(any(Comment.class));
     }
 
     @Test
@@ -530,7 +954,7 @@ class ItemServiceTest {
         Long userId = 0L;
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(new Item()));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+        when(userCache.get(anyLong())).thenReturn(new User());
         when(bookingRepository.isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
                 .thenReturn(null);
 
@@ -539,12 +963,12 @@ class ItemServiceTest {
 
         assertThat("Ошибка!  Отзыв может оставить только тот пользователь, который брал эту вещь в аренду, " +
                 "и только после окончания срока аренды.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(itemRepository, userRepository, bookingRepository, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, userCache, bookingRepository, commentRepository);
         inOrder.verify(itemRepository, times(1)).findById(itemId);
-        inOrder.verify(userRepository, times(1)).findById(userId);
+        inOrder.verify(userCache, times(1)).get(userId);
         inOrder.verify(bookingRepository, times(1))
                 .isFindBooking(anyLong(), anyLong(), any(LocalDateTime.class));
-        inOrder.verify(commentRepository, never()).save(any(Comment.class));
+        inOrder.verify(commentRepository, never()).saveAndFlush(any(Comment.class));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.PostgresItemSearchEngine;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private PostgresItemSearchEngine searchEngine;
+
+    @Test
+    void search_whenInvoked_thenAllPrefixTermsRequired() {
+        PageRequest page = PageRequest.of(0, 5);
+        when(itemRepository.fullTextSearch("аккумуляторная:* & дрель:*", page)).thenReturn(Arrays.asList(
+                new Object[]{BigInteger.valueOf(4L), 0.6f},
+                new Object[]{BigInteger.valueOf(1L), 0.2f}));
+
+        List<ItemSearchHit> hits = searchEngine.search("Аккумуляторная ДРЕЛЬ", page);
+
+        assertThat(2, equalTo(hits.size()));
+        assertThat(4L, equalTo(hits.get(0).getItemId()));
+        assertThat((double) 0.6f, equalTo(hits.get(0).getRank()));
+        assertThat(1L, equalTo(hits.get(1).getItemId()));
+    }
+
+    @Test
+    void search_whenTextWithoutWords_thenRepositoryNotInvoked() {
+        List<ItemSearchHit> hits = searchEngine.search(" ,. ", PageRequest.of(0, 5));
+
+        assertThat(hits, empty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void searchAny_whenInvoked_thenAnyPrefixTermMatchesExceptOwnerItems() {
+        PageRequest page = PageRequest.of(0, 5);
+        when(itemRepository.fullTextSearchExcludingOwner("нужна:* | дрель:*", 7L, page))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemSearchHit> hits = searchEngine.searchAny("Нужна дрель", 7L, page);
+
+        assertThat(hits, empty());
+        verify(itemRepository, times(1)).fullTextSearchExcludingOwner("нужна:* | дрель:*", 7L, page);
+    }
+
+    @Test
+    void searchAfter_whenAfterNotSet_thenFirstPageSearched() {
+        when(itemRepository.fullTextSearch("дрель:*", PageRequest.of(0, 3))).thenReturn(Collections.emptyList());
+
+        searchEngine.searchAfter("дрель", null, 3);
+
+        verify(itemRepository, times(1)).fullTextSearch("дрель:*", PageRequest.of(0, 3));
+        verify(itemRepository, never()).fullTextSearchAfter(anyString(), anyDouble(), anyLong(), anyInt());
+    }
+
+    @Test
+    void searchAfter_whenAfterSet_thenSearchedAfterRankAndId() {
+        searchEngine.searchAfter("дрель", new ItemSearchHit(4L, 0.6), 3);
+
+        verify(itemRepository, times(1)).fullTextSearchAfter("дрель:*", 0.6, 4L, 3);
+    }
+
+}
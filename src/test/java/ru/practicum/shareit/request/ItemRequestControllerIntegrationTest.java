@@ -77,7 +77,7 @@ class ItemRequestControllerIntegrationTest {
     @Test
     void getAllItemRequestsByUser_whenInvoked_thenResponseStatusOkWithItemRequestsCollectionInBody() {
         List<ItemRequestDto> itemRequests = Arrays.asList(itemRequestDto, itemRequestDto2);
-        when(itemRequestService.getAllItemRequestsByUser(anyLong()))
+        when(itemRequestService.getAllItemRequestsByUser(anyLong(), isNull(), isNull()))
                 .thenReturn(itemRequests);
 
         String result = mockMvc.perform(get("/requests")
@@ -91,7 +91,7 @@ class ItemRequestControllerIntegrationTest {
                 .getContentAsString(StandardCharsets.UTF_8);
 
         assertThat(objectMapper.writeValueAsString(itemRequests), equalTo(result));
-        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId);
+        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId, null, null);
     }
 
     @SneakyThrows
@@ -136,6 +136,34 @@ class ItemRequestControllerIntegrationTest {
         verify(itemRequestService, times(1)).getItemRequestById(itemRequestId, userId);
     }
 
+    @SneakyThrows
+    @Test
+    void getItemRequestSuggestions_whenInvoked_thenResponseStatusOkWithItemsInBody() {
+        long itemRequestId = 0L;
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(1L);
+        itemDto.setName("Дрель");
+        itemDto.setDescription("Простая дрель");
+        itemDto.setAvailable(true);
+        List<ItemDto> items = Arrays.asList(itemDto);
+        when(itemRequestService.getItemRequestSuggestions(itemRequestId, userId, 0, 5)).thenReturn(items);
+
+        String result = mockMvc.perform(get("/requests/{itemRequestId}/suggestions", itemRequestId)
+                        .header(Constants.HEADER_USER_ID, userId)
+                        .param("from", "0")
+                        .param("size", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(items), equalTo(result));
+        verify(itemRequestService, times(1)).getItemRequestSuggestions(itemRequestId, userId, 0, 5);
+    }
+
     @SneakyThrows
     @Test
     void saveItemRequest_whenItemRequestValid_thenSavedItemRequest() {
@@ -12,6 +12,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -31,23 +34,23 @@ class ItemRequestControllerTest {
     void getAllItemRequestsByUser_whenInvokedDefault_thenResponseStatusOkWithEmptyBody() {
         Long userId = 0L;
         List<ItemRequestDto> response = itemRequestController
-                .getAllItemRequestsByUser(userId);
+                .getAllItemRequestsByUser(userId, null, null);
 
         assertTrue(response.isEmpty());
-        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId);
+        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId, null, null);
     }
 
     @Test
     void getAllItemRequestsByUser_whenInvoked_thenResponseStatusOkWithItemRequestsCollectionInBody() {
         Long userId = 0L;
         List<ItemRequestDto> expectedItemRequests = Arrays.asList(new ItemRequestDto());
-        when(itemRequestService.getAllItemRequestsByUser(userId)).thenReturn(expectedItemRequests);
+        when(itemRequestService.getAllItemRequestsByUser(userId, 0, 10)).thenReturn(expectedItemRequests);
 
         List<ItemRequestDto> response = itemRequestController
-                .getAllItemRequestsByUser(userId);
+                .getAllItemRequestsByUser(userId, 0, 10);
 
         assertThat(expectedItemRequests, equalTo(response));
-        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId);
+        verify(itemRequestService, times(1)).getAllItemRequestsByUser(userId, 0, 10);
     }
 
     @Test
@@ -86,7 +89,8 @@ class ItemRequestControllerTest {
         when(itemRequestService.getItemRequestById(requestId, userId)).thenReturn(expectedItemRequest);
 
         ItemRequestDto response = itemRequestController
-                .getItemRequestById(requestId, userId);
+                .getItemRequestById(requestId, userId,
+                        new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         assertThat(expectedItemRequest, equalTo(response));
         verify(itemRequestService, times(1))
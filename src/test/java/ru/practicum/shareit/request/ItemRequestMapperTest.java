@@ -8,12 +8,14 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.Instant;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.assertj.core.util.Sets;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -22,45 +24,46 @@ class ItemRequestMapperTest {
     private final ItemRequestMapperImpl itemRequestMapper = new ItemRequestMapperImpl();
 
     @Test
-    void toItemRequestDto() {
-        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(null);
+    void toItemRequestDtoWithoutItems() {
+        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDtoWithoutItems(null);
 
         assertThat(itemRequestDto, nullValue());
     }
 
     @Test
-    void toItemRequestDtoWithEmptyItems() {
+    void toItemRequestDtosWithEmptyItems() {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setId(1L);
         itemRequest.setDescription("1");
-        itemRequest.setItems(Sets.set(null));
 
-        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
+        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDtos(Collections.singletonList(itemRequest),
+                Collections.emptyList()).get(0);
 
         assertThat(itemRequest.getId(), equalTo(itemRequestDto.getId()));
         assertThat(itemRequest.getDescription(), equalTo(itemRequestDto.getDescription()));
-        assertThat(itemRequestDto.getItems(), nullValue());
+        assertThat(itemRequestDto.getItems(), empty());
     }
 
     @Test
-    void toItemRequestDtoWithItems() {
-        Item item1 = new Item();
-        item1.setId(1L);
-        Item item2 = new Item();
-        item2.setId(2L);
-
+    void toItemRequestDtosWithItems() {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setId(1L);
         itemRequest.setDescription("1");
         itemRequest.setCreated(Instant.now());
-        itemRequest.setItems(Sets.set(item1, item2));
+        Item item1 = new Item();
+        item1.setId(1L);
+        item1.setRequest(itemRequest);
+        Item item2 = new Item();
+        item2.setId(2L);
+        item2.setRequest(itemRequest);
 
-        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDto(itemRequest);
+        ItemRequestDto itemRequestDto = itemRequestMapper.toItemRequestDtos(Collections.singletonList(itemRequest),
+                Arrays.asList(item1, item2)).get(0);
 
         assertThat(itemRequest.getId(), equalTo(itemRequestDto.getId()));
         assertThat(itemRequest.getDescription(), equalTo(itemRequestDto.getDescription()));
         assertThat(itemRequest.getCreated(), equalTo(itemRequestDto.getCreated()));
-        assertThat(itemRequest.getItems().size(), equalTo(itemRequestDto.getItems().size()));
+        assertThat(2, equalTo(itemRequestDto.getItems().size()));
     }
 
     @Test
@@ -109,12 +112,4 @@ class ItemRequestMapperTest {
         assertThat(itemRequestDto.getItems().size(), equalTo(itemRequest.getItems().size()));
     }
 
-    @Test
-    void convertItemRequestListToItemRequestDTOList() {
-        List<ItemRequestDto> itemRequests = itemRequestMapper
-                .convertItemRequestListToItemRequestDTOList(null);
-
-        assertThat(itemRequests, nullValue());
-    }
-
 }
\ No newline at end of file
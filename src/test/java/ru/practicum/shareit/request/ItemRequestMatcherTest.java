@@ -0,0 +1,121 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemRequestMatcherTest {
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @InjectMocks
+    private ItemRequestMatcher itemRequestMatcher;
+
+    private final User requester = createUser(1L);
+    private final User owner = createUser(2L);
+
+    @BeforeEach
+    public void addRequests() {
+        itemRequestMatcher.open(createItemRequest(1L, "Нужна дрель для ремонта", requester));
+        itemRequestMatcher.open(createItemRequest(2L, "Ищу ударную дрель", requester));
+        itemRequestMatcher.open(createItemRequest(3L, "Нужна лестница для ремонта", requester));
+    }
+
+    @Test
+    void rebuild_whenInvoked_thenIndexedOpenRequests() {
+        when(itemRequestRepository.findAllOpen()).thenReturn(Collections.singletonList(
+                createItemRequest(4L, "Нужна газонокосилка", requester)));
+
+        itemRequestMatcher.rebuild();
+
+        assertThat(Arrays.asList(4L), equalTo(itemRequestMatcher.match(
+                createItem("Газонокосилка", "Бензиновая", owner), 10)));
+        verify(itemRequestRepository, times(1)).findAllOpen();
+    }
+
+    @Test
+    void match_whenItemMatchesSeveralRequests_thenRareWordsRankedHigher() {
+        Item item = createItem("Ударная дрель", "Мощная", owner);
+
+        assertThat(Arrays.asList(2L, 1L), equalTo(itemRequestMatcher.match(item, 10)));
+        assertThat(Arrays.asList(2L), equalTo(itemRequestMatcher.match(item, 1)));
+    }
+
+    @Test
+    void match_whenScoresEqual_thenNewerRequestsFirst() {
+        Item item = createItem("Инструмент", "Для ремонта", owner);
+
+        assertThat(Arrays.asList(3L, 1L), equalTo(itemRequestMatcher.match(item, 10)));
+    }
+
+    @Test
+    void match_whenItemOwnedByRequester_thenOwnRequestsSkipped() {
+        assertThat(itemRequestMatcher.match(createItem("Дрель", "Простая дрель", requester), 10), empty());
+    }
+
+    @Test
+    void match_whenOnlyShortWordsMatched_thenReturnedEmptyList() {
+        assertThat(itemRequestMatcher.match(createItem("Для", "на бы", owner), 10), empty());
+    }
+
+    @Test
+    void close_whenRequestAnswered_thenRequestNotMatched() {
+        itemRequestMatcher.close(2L);
+
+        assertThat(Arrays.asList(1L), equalTo(itemRequestMatcher.match(
+                createItem("Ударная дрель", "Мощная", owner), 10)));
+    }
+
+    @Test
+    void closeAllOf_whenRequesterDeleted_thenOnlyHisRequestsNotMatched() {
+        itemRequestMatcher.open(createItemRequest(4L, "Нужна дрель", createUser(3L)));
+
+        itemRequestMatcher.closeAllOf(requester.getId());
+
+        assertThat(Arrays.asList(4L), equalTo(itemRequestMatcher.match(
+                createItem("Ударная дрель", "Мощная", owner), 10)));
+        assertThat(null, equalTo(itemRequestMatcher.getRequesterId(1L)));
+    }
+
+    private User createUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private ItemRequest createItemRequest(Long id, String description, User requester) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(id);
+        itemRequest.setDescription(description);
+        itemRequest.setRequester(requester);
+        return itemRequest;
+    }
+
+    private Item createItem(String name, String description, User owner) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(description);
+        item.setOwner(owner);
+        return item;
+    }
+
+}
@@ -1,18 +1,30 @@
 package ru.practicum.shareit.request;
 
 import ru.practicum.shareit.common.exception.ValidationException;
+import ru.practicum.shareit.common.utils.CursorPage;
+import ru.practicum.shareit.common.utils.PageCursor;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.request.exception.ItemRequestNotSavedException;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +34,7 @@ import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -39,7 +52,13 @@ class ItemRequestServiceTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
-    private UserRepository userRepository;
+    private UserCache userCache;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
 
     @InjectMocks
     private ItemRequestService itemRequestService;
@@ -47,79 +66,159 @@ class ItemRequestServiceTest {
     @Test
     void getAllItemRequestsByUser_whenInvoked_thenReturnedEmptyList() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
 
-        List<ItemRequestDto> actualItemRequests = itemRequestService.getAllItemRequestsByUser(userId);
+        List<ItemRequestDto> actualItemRequests = itemRequestService.getAllItemRequestsByUser(userId, 0, 10);
 
         assertThat(actualItemRequests, empty());
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, times(1))
-                .findAllByRequesterId(anyLong());
+                .findAllByRequesterIdOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
     void getAllItemRequestsByUser_whenInvoked_thenReturneItemRequestsCollectionInList() {
         Long userId = 0L;
         List<ItemRequest> expectedItemRequests = Arrays.asList(new ItemRequest(), new ItemRequest());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(itemRequestRepository.findAllByRequesterId(anyLong())).thenReturn(expectedItemRequests);
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class))).thenReturn(expectedItemRequests);
 
-        List<ItemRequestDto> actualItemRequests = itemRequestService.getAllItemRequestsByUser(userId);
+        List<ItemRequestDto> actualItemRequests = itemRequestService.getAllItemRequestsByUser(userId, 0, 10);
 
-        assertThat(ItemRequestMapper.INSTANCE.convertItemRequestListToItemRequestDTOList(expectedItemRequests),
+        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDtos(expectedItemRequests, Collections.emptyList()),
                 equalTo(actualItemRequests));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRequestRepository, times(1)).findAllByRequesterId(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
+        inOrder.verify(itemRequestRepository, times(1)).findAllByRequesterIdOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllItemRequestsByUser_whenRequestsHaveItems_thenItemsLoadedOnceForPage() {
+        Long userId = 0L;
+        ItemRequest itemRequest1 = new ItemRequest();
+        itemRequest1.setId(1L);
+        ItemRequest itemRequest2 = new ItemRequest();
+        itemRequest2.setId(2L);
+        User owner = new User();
+        owner.setId(1L);
+        Item item1 = createItem(1L, "Дрель", owner, true);
+        item1.setRequest(itemRequest1);
+        Item item2 = createItem(2L, "Перфоратор", owner, true);
+        item2.setRequest(itemRequest1);
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(userId, PageRequest.of(0, 10)))
+                .thenReturn(Arrays.asList(itemRequest2, itemRequest1));
+        when(itemRepository.findAllByRequestIdIn(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(item1, item2));
+
+        List<ItemRequestDto> actualItemRequests = itemRequestService.getAllItemRequestsByUser(userId, 0, 10);
+
+        assertThat(2, equalTo(actualItemRequests.size()));
+        assertThat(2L, equalTo(actualItemRequests.get(0).getId()));
+        assertThat(actualItemRequests.get(0).getItems(), empty());
+        assertThat(new HashSet<>(ItemMapper.INSTANCE.convertItemListToItemDtoList(Arrays.asList(item1, item2))),
+                equalTo(actualItemRequests.get(1).getItems()));
+        verify(itemRepository, times(1)).findAllByRequestIdIn(anyCollection());
+    }
+
+    @Test
+    void getAllItemRequestsByUser_whenPageNotSet_thenAllRequestsLoaded() {
+        Long userId = 0L;
+
+        itemRequestService.getAllItemRequestsByUser(userId, null, null);
+
+        verify(itemRequestRepository, times(1))
+                .findAllByRequesterIdOrderByCreatedDescIdDesc(userId, Pageable.unpaged());
+    }
+
+    @Test
+    void getAllItemRequestsByUser_whenOnlySizeSet_thenFirstPageLoaded() {
+        Long userId = 0L;
+
+        itemRequestService.getAllItemRequestsByUser(userId, null, 5);
+
+        verify(itemRequestRepository, times(1))
+                .findAllByRequesterIdOrderByCreatedDescIdDesc(userId, PageRequest.of(0, 5));
     }
 
     @Test
     void getAllItemRequestsByUser_whenUserNotFound_thenExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
-                () -> itemRequestService.getAllItemRequestsByUser(userId));
+                () -> itemRequestService.getAllItemRequestsByUser(userId, 0, 10));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRequestRepository, never()).findAllByRequesterId(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
+        inOrder.verify(itemRequestRepository, never()).findAllByRequesterIdOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
     void getAllItemRequestsByOtherUsers_whenInvoked_thenReturnedEmptyList() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
 
         List<ItemRequestDto> actualItemRequests = itemRequestService
                 .getAllItemRequestsByOtherUsers(userId, 0, 1);
 
         assertThat(actualItemRequests, empty());
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, times(1))
-                .findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+                .findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
     void getAllItemRequestsByOtherUsers_whenInvoked_thenReturneItemRequestsCollectionInList() {
         Long userId = 0L;
         List<ItemRequest> expectedItemRequests = Arrays.asList(new ItemRequest(), new ItemRequest());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(itemRequestRepository.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
+        when(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class)))
                 .thenReturn(expectedItemRequests);
 
         List<ItemRequestDto> actualItemRequests = itemRequestService
                 .getAllItemRequestsByOtherUsers(userId, 0, 1);
 
-        assertThat(ItemRequestMapper.INSTANCE.convertItemRequestListToItemRequestDTOList(expectedItemRequests),
+        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDtos(expectedItemRequests, Collections.emptyList()),
                 equalTo(actualItemRequests));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, times(1))
-                .findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+                .findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllItemRequestsByOtherUsersAfter_whenFirstPage_thenReturnedPageWithNextCursor() {
+        Long userId = 0L;
+        Instant created = Instant.parse("2030-01-01T10:00:00Z");
+        ItemRequest itemRequest1 = new ItemRequest();
+        itemRequest1.setId(2L);
+        itemRequest1.setCreated(created);
+        ItemRequest itemRequest2 = new ItemRequest();
+        itemRequest2.setId(1L);
+        itemRequest2.setCreated(created);
+        when(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(itemRequest1, itemRequest2));
+
+        CursorPage<ItemRequestDto> actualPage = itemRequestService
+                .getAllItemRequestsByOtherUsersAfter(userId, "", 1);
+
+        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDtos(
+                Arrays.asList(itemRequest1), Collections.emptyList()), equalTo(actualPage.getContent()));
+        assertThat(PageCursor.of(created, 2L).encode(), equalTo(actualPage.getNextCursor()));
+        verify(itemRequestRepository, never()).findAllByRequesterIdNotAfter(anyLong(), any(Instant.class),
+                anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllItemRequestsByOtherUsersAfter_whenCursorPassed_thenSeekQueryUsed() {
+        Long userId = 0L;
+        Instant created = Instant.parse("2030-01-01T10:00:00Z");
+
+        CursorPage<ItemRequestDto> actualPage = itemRequestService
+                .getAllItemRequestsByOtherUsersAfter(userId, PageCursor.of(created, 2L).encode(), 1);
+
+        assertThat(actualPage.getContent(), empty());
+        assertThat(null, equalTo(actualPage.getNextCursor()));
+        verify(itemRequestRepository, times(1)).findAllByRequesterIdNotAfter(eq(userId), eq(created),
+                eq(2L), any(Pageable.class));
     }
 
     @Test
@@ -131,10 +230,10 @@ class ItemRequestServiceTest {
 
         assertThat("Параметр from не может быть меньше 0.",
                 equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, never()).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, never()).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, never())
-                .findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+                .findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -146,25 +245,25 @@ class ItemRequestServiceTest {
 
         assertThat("Параметр size должен быть положительным.",
                 equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, never()).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, never()).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, never())
-                .findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+                .findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
     void getAllItemRequestsByOtherUsers_whenUserNotFound_thenExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.getAllItemRequestsByOtherUsers(userId, 0, 5));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, never())
-                .findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+                .findAllByRequesterIdNotOrderByCreatedDescIdDesc(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -172,14 +271,14 @@ class ItemRequestServiceTest {
         long userId = 0L;
         long itemRequestId = 0L;
         ItemRequest expectedItemRequest = new ItemRequest();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(itemRequestRepository.findById(userId)).thenReturn(Optional.of(expectedItemRequest));
 
         ItemRequestDto actualItemRequest = itemRequestService.getItemRequestById(itemRequestId, userId);
 
-        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDto(expectedItemRequest), equalTo(actualItemRequest));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        assertThat(ItemRequestMapper.INSTANCE.toItemRequestDtos(Collections.singletonList(expectedItemRequest),
+                Collections.emptyList()).get(0), equalTo(actualItemRequest));
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, times(1)).findById(itemRequestId);
     }
 
@@ -187,14 +286,14 @@ class ItemRequestServiceTest {
     void getItemRequestById_whenUserNotFound_thenExceptionThrown() {
         long userId = 0L;
         long itemRequestId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new UserNotFoundException(0L)).when(userCache).checkExists(anyLong());
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.getItemRequestById(itemRequestId, userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, never()).findById(itemRequestId);
     }
 
@@ -202,31 +301,107 @@ class ItemRequestServiceTest {
     void getItemRequestById_whenItemRequestNotFound_thenExceptionThrown() {
         long itemRequestId = 0L;
         long userId = 0L;
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         final ItemRequestNotFoundException exception = assertThrows(ItemRequestNotFoundException.class,
                 () -> itemRequestService.getItemRequestById(itemRequestId, userId));
 
         assertThat("Запрос с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(anyLong());
         inOrder.verify(itemRequestRepository, times(1)).findById(anyLong());
     }
 
+    @Test
+    void getItemRequestTag_whenItemRequestFound_thenTagBuiltFromAnswers() {
+        when(itemRequestRepository.findAnswerVersions(4L)).thenReturn(Collections.singletonList(
+                new Object[]{2L, 5L, 9L}));
+
+        assertThat("r4-2-5-9", equalTo(itemRequestService.getItemRequestTag(4L, 1L)));
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).checkExists(1L);
+        inOrder.verify(itemRequestRepository, times(1)).findAnswerVersions(4L);
+        verify(itemRequestRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getItemRequestTag_whenItemRequestNotFound_thenNoTag() {
+        when(itemRequestRepository.findAnswerVersions(4L)).thenReturn(Collections.emptyList());
+
+        assertThat(null, equalTo(itemRequestService.getItemRequestTag(4L, 1L)));
+    }
+
+    @Test
+    void getItemRequestSuggestions_whenInvoked_thenReturnedAvailableItemsOfOtherUsers() {
+        long itemRequestId = 0L;
+        long userId = 0L;
+        User requester = new User();
+        requester.setId(1L);
+        User owner = new User();
+        owner.setId(2L);
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription("Нужна дрель или перфоратор");
+        itemRequest.setRequester(requester);
+        Item drill = createItem(1L, "Дрель", owner, true);
+        Item perforator = createItem(2L, "Перфоратор", owner, true);
+        Item unavailableDrill = createItem(4L, "Дрель", owner, false);
+        when(itemRequestRepository.findById(itemRequestId)).thenReturn(Optional.of(itemRequest));
+        when(itemSearchEngine.searchAny(any(), anyLong(), any(Pageable.class))).thenReturn(Arrays.asList(
+                new ItemSearchHit(2L, 2.0), new ItemSearchHit(4L, 1.0), new ItemSearchHit(1L, 1.0)));
+        when(itemRepository.findAllById(Arrays.asList(2L, 4L, 1L)))
+                .thenReturn(Arrays.asList(drill, perforator, unavailableDrill));
+
+        List<ItemDto> actualItems = itemRequestService.getItemRequestSuggestions(itemRequestId, userId, 0, 10);
+
+        assertThat(ItemMapper.INSTANCE.convertItemListToItemDtoList(Arrays.asList(perforator, drill)),
+                equalTo(actualItems));
+        // Вещи автора запроса исключаются в самом поиске, а не после выборки страницы
+        verify(itemSearchEngine, times(1)).searchAny("Нужна дрель или перфоратор", 1L, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getItemRequestSuggestions_whenItemRequestNotFound_thenExceptionThrown() {
+        when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        final ItemRequestNotFoundException exception = assertThrows(ItemRequestNotFoundException.class,
+                () -> itemRequestService.getItemRequestSuggestions(0L, 0L, 0, 10));
+
+        assertThat("Запрос с идентификатором 0 не найден.", equalTo(exception.getMessage()));
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void saveItemRequest_whenItemRequestValid_thenSavedAndAddedToMatcher() {
+        long userId = 0L;
+        User user = new User();
+        ItemRequestDto itemRequestToSave = new ItemRequestDto();
+        itemRequestToSave.setDescription("Нужна дрель");
+        ItemRequest savedItemRequest = ItemRequestMapper.INSTANCE.toItemRequest(itemRequestToSave, user);
+        savedItemRequest.setId(1L);
+        when(userCache.getReference(anyLong())).thenReturn(user);
+        when(itemRequestRepository.saveAndFlush(any(ItemRequest.class))).thenReturn(savedItemRequest);
+
+        ItemRequestDto actualItemRequest = itemRequestService.createItemRequest(itemRequestToSave, userId);
+
+        assertThat(1L, equalTo(actualItemRequest.getId()));
+        InOrder inOrder = inOrder(itemRequestRepository, itemRequestMatcher);
+        inOrder.verify(itemRequestRepository, times(1)).saveAndFlush(any(ItemRequest.class));
+        inOrder.verify(itemRequestMatcher, times(1)).open(savedItemRequest);
+    }
+
     @Test
     void saveItemRequest_whenUserNotFound_thenExceptionThrown() {
         long userId = 0L;
         ItemRequestDto itemRequestToSave = new ItemRequestDto();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userCache.getReference(anyLong())).thenThrow(new UserNotFoundException(0L));
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.createItemRequest(itemRequestToSave, userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRequestRepository, never()).save(any(ItemRequest.class));
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRequestRepository, never()).saveAndFlush(any(ItemRequest.class));
     }
 
     @Test
@@ -234,17 +409,28 @@ class ItemRequestServiceTest {
     void saveItemRequest_whenItemRequestNotValid_thenExceptionThrown() {
         long userId = 0L;
         ItemRequestDto itemRequestToSave = new ItemRequestDto();
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
-        when(itemRequestRepository.save(any(ItemRequest.class)))
+        when(userCache.getReference(anyLong())).thenReturn(new User());
+        when(itemRequestRepository.saveAndFlush(any(ItemRequest.class)))
                 .thenThrow(new ItemRequestNotSavedException());
 
         final ItemRequestNotSavedException exception = assertThrows(ItemRequestNotSavedException.class,
                 () -> itemRequestService.createItemRequest(itemRequestToSave, userId));
 
         assertThat("Не удалось сохранить данные запроса", equalTo(exception.getMessage()));
-        InOrder inOrder = inOrder(userRepository, itemRequestRepository);
-        inOrder.verify(userRepository, times(1)).findById(anyLong());
-        inOrder.verify(itemRequestRepository, times(1)).save(any(ItemRequest.class));
+        InOrder inOrder = inOrder(userCache, itemRequestRepository);
+        inOrder.verify(userCache, times(1)).getReference(anyLong());
+        inOrder.verify(itemRequestRepository, times(1)).saveAndFlush(any(ItemRequest.class));
+        verifyNoInteractions(itemRequestMatcher);
+    }
+
+    private Item createItem(Long id, String name, User owner, Boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(name);
+        item.setOwner(owner);
+        item.setAvailable(available);
+        return item;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.user;
+
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserCache createCache(int maxSize, Duration ttl) {
+        return new UserCache(userRepository, new StaticListableBeanFactory(
+                Collections.singletonMap("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+                maxSize, ttl);
+    }
+
+    private User createUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user " + id);
+        user.setEmail(id + "@mail.ru");
+        return user;
+    }
+
+    @Test
+    void checkExists_whenCalledTwice_thenUserLoadedOnce() {
+        UserCache userCache = createCache(10, Duration.ofMinutes(10));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L)));
+
+        userCache.checkExists(1L);
+        userCache.checkExists(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+        assertThat(1.0, equalTo(meterRegistry.get("shareit.user.cache").tag("result", "hit").counter().count()));
+        assertThat(1.0, equalTo(meterRegistry.get("shareit.user.cache").tag("result", "miss").counter().count()));
+    }
+
+    @Test
+    void checkExists_whenUserNotFound_thenExceptionThrownAndNotCached() {
+        UserCache userCache = createCache(10, Duration.ofMinutes(10));
+        when(userRepository.findById(0L)).thenReturn(Optional.empty());
+
+        final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
+                () -> userCache.checkExists(0L));
+
+        assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
+        assertThrows(UserNotFoundException.class, () -> userCache.checkExists(0L));
+        verify(userRepository, times(2)).findById(0L);
+    }
+
+    @Test
+    void get_whenUserCached_thenReturnedCopy() {
+        UserCache userCache = createCache(10, Duration.ofMinutes(10));
+        User user = createUser(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        User cachedUser = userCache.get(1L);
+        cachedUser.setName("changed");
+
+        assertThat(user, not(sameInstance(cachedUser)));
+        assertThat("user 1", equalTo(userCache.get(1L).getName()));
+    }
+
+    @Test
+    void getReference_whenUserExists_thenReturnedReference() {
+        UserCache userCache = createCache(10, Duration.ofMinutes(10));
+        User reference = createUser(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L)));
+        when(userRepository.getReferenceById(1L)).thenReturn(reference);
+
+        assertThat(reference, sameInstance(userCache.getReference(1L)));
+    }
+
+    @Test
+    void checkExists_whenTtlExpired_thenUserReloaded() {
+        UserCache userCache = createCache(10, Duration.ZERO);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L)));
+
+        userCache.checkExists(1L);
+        userCache.checkExists(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void checkExists_whenMaxSizeExceeded_thenLeastRecentlyUsedEvicted() {
+        UserCache userCache = createCache(2, Duration.ofMinutes(10));
+        when(userRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(createUser(invocation.getArgument(0))));
+
+        userCache.checkExists(1L);
+        userCache.checkExists(2L);
+        userCache.checkExists(1L);
+        userCache.checkExists(3L);
+        userCache.checkExists(1L);
+        userCache.checkExists(2L);
+
+        assertThat(2, equalTo(userCache.size()));
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(2L);
+        verify(userRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    void checkExists_whenMeterRegistryMissing_thenUserCachedWithoutMetrics() {
+        UserCache userCache = new UserCache(userRepository,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 10, Duration.ofMinutes(10));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L)));
+
+        userCache.checkExists(1L);
+        userCache.checkExists(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void evict_whenUserCached_thenUserReloaded() {
+        UserCache userCache = createCache(10, Duration.ofMinutes(10));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L)));
+
+        userCache.checkExists(1L);
+        userCache.evict(1L);
+        userCache.checkExists(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+}
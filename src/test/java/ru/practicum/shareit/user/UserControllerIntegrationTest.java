@@ -192,6 +192,80 @@ class UserControllerIntegrationTest {
         verify(userService, never()).createUser(userDto);
     }
 
+    @SneakyThrows
+    @Test
+    void createUsers_whenUsersValid_thenSavedUsers() {
+        List<UserDto> users = Arrays.asList(userDto, userDto2);
+        when(userService.createUsers(anyList())).thenReturn(users);
+
+        String result = mockMvc.perform(post("/users/batch")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(users)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(objectMapper.writeValueAsString(users), equalTo(result));
+        verify(userService, times(1)).createUsers(users);
+    }
+
+    @SneakyThrows
+    @Test
+    void createUsers_whenOneUserNotValid_thenReturnedBadRequest() {
+        userDto2.setEmail("mail");
+
+        String result = mockMvc.perform(post("/users/batch")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(userDto, userDto2))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"Введен некорректный email\"}", equalTo(result));
+        verify(userService, never()).createUsers(anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void createUsers_whenListEmpty_thenReturnedBadRequest() {
+        String result = mockMvc.perform(post("/users/batch")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("{\"error\":\"Список пользователей не может быть пустым.\"}", equalTo(result));
+        verify(userService, never()).createUsers(anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void createUsers_whenUsersNotSaved_thenReturnedConflict() {
+        when(userService.createUsers(anyList())).thenThrow(new UserNotSavedException());
+
+        String result = mockMvc.perform(post("/users/batch")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(userDto, userDto))))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat("Ошибка: Не удалось сохранить данные пользователя", equalTo(result));
+    }
+
     @SneakyThrows
     @Test
     void updateUser_whenUserValid_thenUpdatedUser() {
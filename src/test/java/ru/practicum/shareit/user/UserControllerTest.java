@@ -12,6 +12,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -52,12 +55,28 @@ class UserControllerTest {
         UserDto expectedUser = new UserDto();
         when(userService.getUserById(userId)).thenReturn(expectedUser);
 
-        UserDto response = userController.getUserById(userId);
+        UserDto response = userController.getUserById(userId,
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
 
         assertThat(expectedUser, equalTo(response));
         verify(userService, times(1)).getUserById(userId);
     }
 
+    @Test
+    void getUserById_whenTagMatched_thenNotModifiedWithoutBody() {
+        long userId = 0L;
+        when(userService.getUserTag(userId)).thenReturn("u0-2");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/0");
+        request.addHeader("If-None-Match", "\"u0-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        UserDto user = userController.getUserById(userId, new ServletWebRequest(request, response));
+
+        assertThat(null, equalTo(user));
+        assertThat(304, equalTo(response.getStatus()));
+        verify(userService, never()).getUserById(userId);
+    }
+
     @Test
     void saveUser_whenUserValid_thenSavedUser() {
         UserDto expectedUser = new UserDto();
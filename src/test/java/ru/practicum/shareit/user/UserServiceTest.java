@@ -1,14 +1,22 @@
 package ru.practicum.shareit.user;
 
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxService;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.exception.UserNotSavedException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
@@ -28,6 +37,18 @@ public class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
 
     @InjectMocks
     private UserService userService;
@@ -56,48 +77,96 @@ public class UserServiceTest {
     void getUserById_whenUserFound_thenReturnedUser() {
         long userId = 0L;
         User expectedUser = new User();
-        when(userRepository.findById(userId)).thenReturn(Optional.of(expectedUser));
+        when(userCache.get(userId)).thenReturn(expectedUser);
 
         UserDto actualUser = userService.getUserById(userId);
 
         assertThat(UserMapper.INSTANCE.toUserDto(expectedUser), equalTo(actualUser));
-        verify(userRepository, times(1)).findById(userId);
+        verify(userCache, times(1)).get(userId);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserTag_whenUserFound_thenTagBuiltFromCachedVersion() {
+        long userId = 3L;
+        User cachedUser = new User();
+        cachedUser.setVersion(5L);
+        when(userCache.get(userId)).thenReturn(cachedUser);
+
+        assertThat("u3-5", equalTo(userService.getUserTag(userId)));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getUserById_whenUserNotFound_thenExceptionThrown() {
         long userId = 0L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userCache.get(userId)).thenThrow(new UserNotFoundException(userId));
 
         final UserNotFoundException exception = assertThrows(UserNotFoundException.class,
                 () -> userService.getUserById(userId));
 
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
-        verify(userRepository, times(1)).findById(userId);
+        verify(userCache, times(1)).get(userId);
     }
 
     @Test
     void saveUser_whenUserValid_thenSavedUser() {
         UserDto userToSave = new UserDto();
-        when(userRepository.save(any(User.class))).thenReturn(UserMapper.INSTANCE.toUser(userToSave));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(UserMapper.INSTANCE.toUser(userToSave));
 
         UserDto actualUser = userService.createUser(userToSave);
 
         assertThat(userToSave, equalTo(actualUser));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(outboxService, times(1)).append(OutboxEventType.USER_CREATED, null, actualUser);
     }
 
     @Test
     void saveUser_whenUserNotValid_thenExceptionThrown() {
         UserDto userToSave = new UserDto();
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenThrow(new UserNotSavedException());
 
         final UserNotSavedException exception = assertThrows(UserNotSavedException.class,
                 () -> userService.createUser(userToSave));
 
         assertThat("Не удалось сохранить данные пользователя", equalTo(exception.getMessage()));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void createUsers_whenUsersValid_thenSavedAllUsers() {
+        UserDto userToSave = new UserDto();
+        userToSave.setName("user 1");
+        userToSave.setEmail("user1@mail.ru");
+        UserDto userToSave2 = new UserDto();
+        userToSave2.setName("user 2");
+        userToSave2.setEmail("user2@mail.ru");
+        List<UserDto> usersToSave = Arrays.asList(userToSave, userToSave2);
+        when(userRepository.saveAll(anyList()))
+                .thenReturn(UserMapper.INSTANCE.convertUserDtoListToUserList(usersToSave));
+
+        List<UserDto> actualUsers = userService.createUsers(usersToSave);
+
+        assertThat(usersToSave, equalTo(actualUsers));
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository, times(1)).saveAll(anyList());
+        inOrder.verify(userRepository, times(1)).flush();
+        verify(outboxService, times(1)).appendAll(eq(OutboxEventType.USER_CREATED), eq(actualUsers), any());
+    }
+
+    @Test
+    void createUsers_whenEmailDuplicated_thenExceptionThrown() {
+        UserDto userToSave = new UserDto();
+        userToSave.setEmail("user@mail.ru");
+        when(userRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
+        doThrow(new DataIntegrityViolationException("users")).when(userRepository).flush();
+
+        final UserNotSavedException exception = assertThrows(UserNotSavedException.class,
+                () -> userService.createUsers(Arrays.asList(userToSave, userToSave)));
+
+        assertThat("Не удалось сохранить данные пользователя", equalTo(exception.getMessage()));
     }
 
     @Test
@@ -119,6 +188,27 @@ public class UserServiceTest {
         assertThat(newUser.getEmail(), equalTo(actualUser.getEmail()));
         verify(userRepository, times(1)).findById(anyLong());
         verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(userCache, times(1)).evict(userId);
+        verify(itemRepository, times(1)).incrementVersionsCommentedBy(userId);
+        verify(outboxService, times(1)).append(OutboxEventType.USER_UPDATED, userId, actualUser);
+    }
+
+    @Test
+    void updateUser_whenNameNotChanged_thenCommentedItemsNotTouched() {
+        Long userId = 0L;
+        User oldUser = new User();
+        oldUser.setName("1");
+        oldUser.setEmail("1@mail.ru");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(oldUser));
+        when(userRepository.saveAndFlush(oldUser)).thenReturn(oldUser);
+
+        UserDto userDto = new UserDto();
+        userDto.setName("1");
+        userDto.setEmail("2@mail.ru");
+        UserDto actualUser = userService.updateUser(userId, userDto);
+
+        assertThat("2@mail.ru", equalTo(actualUser.getEmail()));
+        verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -148,6 +238,7 @@ public class UserServiceTest {
         assertThat("Пользователь с идентификатором 0 не найден.", equalTo(exception.getMessage()));
         verify(userRepository, times(1)).findById(anyLong());
         verify(userRepository, never()).saveAndFlush(any(User.class));
+        verify(userCache, never()).evict(anyLong());
     }
 
     @Test
@@ -156,7 +247,15 @@ public class UserServiceTest {
 
         userService.deleteUserById(userId);
 
-        verify(userRepository, times(1)).deleteById(userId);
+        InOrder inOrder = inOrder(itemBookingSummaryService, itemRepository, userRepository, userCache);
+        inOrder.verify(itemBookingSummaryService, times(1)).invalidateBooker(userId);
+        inOrder.verify(itemRepository, times(1)).incrementVersionsCommentedBy(userId);
+        inOrder.verify(userRepository, times(1)).deleteById(userId);
+        inOrder.verify(userCache, times(1)).evict(userId);
+        verify(bookingAvailabilityIndex, times(1)).invalidateAll();
+        verify(itemRequestMatcher, times(1)).closeAllOf(userId);
+        verify(outboxService, times(1)).append(OutboxEventType.USER_DELETED, userId,
+                Collections.singletonMap("id", userId));
     }
 
 }